@@ -0,0 +1,165 @@
+package com.eam.gateway.api_gateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Verifies the bearer token once at the edge.
+ * <p>
+ * Invalid or expired tokens are rejected with 401 before any routing. Valid tokens are
+ * turned into compact identity headers signed with {@code gateway.identity.secret}, so
+ * downstream services running in trusted mode can skip parsing the JWT. Identity headers
+ * sent by clients are always stripped, which prevents spoofing.
+ */
+@Component
+public class JwtIdentityGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtIdentityGlobalFilter.class);
+
+    public static final String HEADER_USER_ID = "X-Eam-User-Id";
+    public static final String HEADER_EMAIL = "X-Eam-Email";
+    public static final String HEADER_ROLE = "X-Eam-Role";
+    public static final String HEADER_DEPARTMENT = "X-Eam-Department";
+    public static final String HEADER_JTI = "X-Eam-Jti";
+    public static final String HEADER_EXPIRES = "X-Eam-Expires";
+    public static final String HEADER_SIGNATURE = "X-Eam-Identity-Signature";
+
+    private static final List<String> IDENTITY_HEADERS = List.of(
+            HEADER_USER_ID, HEADER_EMAIL, HEADER_ROLE, HEADER_DEPARTMENT, HEADER_JTI, HEADER_EXPIRES, HEADER_SIGNATURE);
+
+    private final JwtParser parser;
+    private final SecretKeySpec identityKey;
+    private final List<String> publicPaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public JwtIdentityGlobalFilter(@Value("${jwt.secret}") String jwtSecret,
+                                   @Value("${gateway.identity.secret:}") String identitySecret,
+                                   @Value("${gateway.jwt.public-paths:/api/auth/**}") List<String> publicPaths) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build();
+        this.identityKey = identitySecret.isEmpty()
+                ? null
+                : new SecretKeySpec(identitySecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.publicPaths = publicPaths;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+
+        ServerHttpRequest.Builder forwarded = request.mutate()
+                .headers(headers -> IDENTITY_HEADERS.forEach(headers::remove));
+
+        if (token != null) {
+            Claims claims;
+            try {
+                claims = parser.parseClaimsJws(token).getBody();
+            } catch (JwtException | IllegalArgumentException e) {
+                if (!isPublicPath(request.getPath().value())) {
+                    log.debug("Rejected bearer token for {}: {}", request.getPath(), e.getMessage());
+                    return unauthorized(exchange);
+                }
+                claims = null;
+            }
+            if (claims != null && identityKey != null) {
+                writeIdentityHeaders(forwarded, claims);
+            }
+        }
+
+        return chain.filter(exchange.mutate().request(forwarded.build()).build());
+    }
+
+    @Override
+    public int getOrder() {
+        // Before routing and load-balancing filters.
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    private void writeIdentityHeaders(ServerHttpRequest.Builder forwarded, Claims claims) {
+        Object userId = claims.get("userId");
+        Date expiration = claims.getExpiration();
+        String[] values = {
+                encode(userId != null ? String.valueOf(userId) : null),
+                encode(claims.getSubject()),
+                encode(claims.get("role", String.class)),
+                encode(claims.get("department", String.class)),
+                encode(claims.getId()),
+                String.valueOf(expiration != null ? expiration.getTime() : Long.MAX_VALUE)
+        };
+        String signature = sign(String.join("\n", values));
+        forwarded.headers(headers -> {
+            headers.set(HEADER_USER_ID, values[0]);
+            headers.set(HEADER_EMAIL, values[1]);
+            headers.set(HEADER_ROLE, values[2]);
+            headers.set(HEADER_DEPARTMENT, values[3]);
+            headers.set(HEADER_JTI, values[4]);
+            headers.set(HEADER_EXPIRES, values[5]);
+            headers.set(HEADER_SIGNATURE, signature);
+        });
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(identityKey);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign identity headers", e);
+        }
+    }
+
+    private boolean isPublicPath(String path) {
+        for (String pattern : publicPaths) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String encode(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private Mono<Void> unauthorized(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory()
+                .wrap("{\"error\":\"Invalid or expired token\"}".getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
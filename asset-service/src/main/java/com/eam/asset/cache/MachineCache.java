@@ -0,0 +1,310 @@
+package com.eam.asset.cache;
+
+import com.eam.asset.entity.Machine;
+import com.eam.asset.entity.MachineChange;
+import com.eam.asset.repository.MachineChangeRepository;
+import com.eam.asset.service.ChangeLogCursor;
+import com.eam.asset.service.MachineChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of machines, keyed by id with a secondary odooAssetId index.
+ * <p>
+ * Entries live in LRU segments. A machine is dropped as soon as a local write to it commits,
+ * and writes from other replicas are picked up by tailing the machine_change table, so a
+ * replica serves stale data for at most {@code asset.cache.poll-interval-ms}.
+ * <p>
+ * Each segment keeps an invalidation epoch: a load that raced with an invalidation of the same
+ * segment is returned to its caller but not cached, so an old row can never be re-installed
+ * after the write that replaced it.
+ */
+@Component
+@Slf4j
+public class MachineCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    /** odooAssetId to machine id, only for machines currently cached. */
+    private final Map<Integer, Long> odooIndex = new ConcurrentHashMap<>();
+    private final MachineChangeRepository changeRepository;
+    private final ChangeLogCursor cursor;
+    private final long pollIntervalMs;
+    private volatile boolean tracking;
+    private ScheduledExecutorService invalidator;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder discardedLoads = new LongAdder();
+    private final LongAdder loadTimeTotalNanos = new LongAdder();
+    private final LongAccumulator loadTimeMaxNanos = new LongAccumulator(Math::max, 0);
+
+    public MachineCache(MachineChangeRepository changeRepository,
+                        @Value("${asset.cache.max-entries:10000}") int maxEntries,
+                        @Value("${asset.cache.poll-interval-ms:500}") long pollIntervalMs,
+                        @Value("${asset.changes.gap-timeout-ms:60000}") long gapTimeoutMs) {
+        int perSegment = Math.max(1, maxEntries / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.changeRepository = changeRepository;
+        this.cursor = new ChangeLogCursor(changeRepository, 1000, gapTimeoutMs);
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        invalidator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "machine-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        invalidator.execute(this::initCursor);
+        invalidator.scheduleWithFixedDelay(this::safePoll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (invalidator != null) {
+            invalidator.shutdownNow();
+        }
+    }
+
+    /**
+     * Local writes: invalidate synchronously once the transaction has committed.
+     */
+    @EventListener
+    public void onMachineChange(MachineChangeEvent event) {
+        invalidate(event.getMachineIds());
+    }
+
+    public Machine getById(Long id, Supplier<Machine> loader) {
+        if (id == null) {
+            return null;
+        }
+        Segment segment = segmentFor(id);
+        Machine cached = segment.get(id);
+        if (cached != null) {
+            hits.increment();
+            return copy(cached);
+        }
+        misses.increment();
+        return load(segment, loader);
+    }
+
+    public Machine getByOdooAssetId(Integer odooAssetId, Supplier<Machine> loader) {
+        if (odooAssetId == null) {
+            return null;
+        }
+        Long id = odooIndex.get(odooAssetId);
+        if (id != null) {
+            Machine cached = segmentFor(id).get(id);
+            if (cached != null && odooAssetId.equals(cached.getOdooAssetId())) {
+                hits.increment();
+                return copy(cached);
+            }
+        }
+        misses.increment();
+        // The id is only known after loading, so the epoch is checked on every segment
+        long[] epochs = new long[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            epochs[i] = segments[i].epoch;
+        }
+        Machine loaded = timedLoad(loader);
+        if (loaded != null && loaded.getId() != null) {
+            Segment segment = segmentFor(loaded.getId());
+            install(segment, epochs[indexOf(loaded.getId())], loaded);
+        }
+        return loaded;
+    }
+
+    public void invalidate(Collection<Long> machineIds) {
+        for (Long id : machineIds) {
+            Machine removed = segmentFor(id).invalidate(id);
+            if (removed != null && removed.getOdooAssetId() != null) {
+                odooIndex.remove(removed.getOdooAssetId(), id);
+            }
+            invalidations.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", lookups > 0 ? (double) hitCount / lookups : 0.0);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("discardedLoads", discardedLoads.sum());
+        stats.put("avgLoadMs", missCount > 0 ? loadTimeTotalNanos.sum() / missCount / 1_000_000.0 : 0.0);
+        stats.put("maxLoadMs", loadTimeMaxNanos.get() / 1_000_000.0);
+        stats.put("changeSequence", cursor.getPosition());
+        return stats;
+    }
+
+    private Machine load(Segment segment, Supplier<Machine> loader) {
+        long epoch = segment.epoch;
+        Machine loaded = timedLoad(loader);
+        if (loaded != null) {
+            install(segment, epoch, loaded);
+        }
+        return loaded;
+    }
+
+    private Machine timedLoad(Supplier<Machine> loader) {
+        long start = System.nanoTime();
+        Machine loaded = loader.get();
+        long elapsed = System.nanoTime() - start;
+        loadTimeTotalNanos.add(elapsed);
+        loadTimeMaxNanos.accumulate(elapsed);
+        return loaded;
+    }
+
+    private void install(Segment segment, long epoch, Machine loaded) {
+        if (!tracking) {
+            // Remote writes could not be invalidated yet
+            return;
+        }
+        // Callers get their own instance: the cached one must never be modified
+        if (segment.putIfEpoch(loaded.getId(), copy(loaded), epoch)) {
+            if (loaded.getOdooAssetId() != null) {
+                odooIndex.put(loaded.getOdooAssetId(), loaded.getId());
+            }
+        } else {
+            discardedLoads.increment();
+        }
+    }
+
+    /**
+     * Starts tailing at the current end of the log. Whatever was cached before that point
+     * (requests can arrive before the application is ready) is dropped, in-flight loads included.
+     */
+    private synchronized void initCursor() {
+        try {
+            long end = changeRepository.findMaxId();
+            cursor.reset(end, ChangeLogCursor.idsSince(changeRepository, end));
+            clear();
+            tracking = true;
+        } catch (RuntimeException e) {
+            log.warn("Machine cache invalidation feed unavailable: {}", e.getMessage());
+        }
+    }
+
+    private void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        odooIndex.clear();
+    }
+
+    private synchronized void poll() {
+        if (!tracking) {
+            initCursor();
+            return;
+        }
+        do {
+            invalidate(cursor.next().stream().map(MachineChange::getMachineId).distinct().toList());
+        } while (cursor.hasMore());
+    }
+
+    private void safePoll() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Machine cache invalidation poll failed: {}", e.getMessage());
+        }
+    }
+
+    private Segment segmentFor(Long id) {
+        return segments[indexOf(id)];
+    }
+
+    private static int indexOf(Long id) {
+        return (int) ((id ^ (id >>> 32)) & (SEGMENTS - 1));
+    }
+
+    private static Machine copy(Machine source) {
+        Machine target = new Machine();
+        BeanUtils.copyProperties(source, target);
+        return target;
+    }
+
+    /**
+     * Access-ordered LRU map guarded by its own lock.
+     */
+    private final class Segment {
+
+        private final LinkedHashMap<Long, Machine> entries;
+        private volatile long epoch;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Machine> eldest) {
+                    if (size() <= capacity) {
+                        return false;
+                    }
+                    evictions.increment();
+                    Integer odooAssetId = eldest.getValue().getOdooAssetId();
+                    if (odooAssetId != null) {
+                        odooIndex.remove(odooAssetId, eldest.getKey());
+                    }
+                    return true;
+                }
+            };
+        }
+
+        synchronized Machine get(Long id) {
+            return entries.get(id);
+        }
+
+        synchronized boolean putIfEpoch(Long id, Machine machine, long expectedEpoch) {
+            if (epoch != expectedEpoch) {
+                return false;
+            }
+            entries.put(id, machine);
+            return true;
+        }
+
+        synchronized void clear() {
+            epoch++;
+            entries.clear();
+        }
+
+        synchronized Machine invalidate(Long id) {
+            epoch++;
+            return entries.remove(id);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
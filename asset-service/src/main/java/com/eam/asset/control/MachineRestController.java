@@ -1,12 +1,31 @@
 package com.eam.asset.control;
 
+import com.eam.asset.dto.BulkImportReport;
+import com.eam.asset.dto.BulkSyncReport;
+import com.eam.asset.dto.MachineFilter;
 import com.eam.asset.entity.Machine;
+import com.eam.asset.repository.MachineProjectionRepository;
 import com.eam.asset.service.IMachineService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import com.eam.common.web.EntityTags;
+import com.eam.common.web.PreconditionFailedException;
+import com.eam.common.web.PreconditionRequiredException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -17,21 +36,98 @@ import com.eam.common.security.RoleAllowed;
 @AllArgsConstructor
 public class MachineRestController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_FLUSH_EVERY = 200;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_LOOKUP_IDS = 1000;
+
     private final IMachineService machineService;
+    private final ObjectMapper objectMapper;
     
     // ===== EXISTING EAM ENDPOINTS (PRESERVED) =====
     
+    /**
+     * All machines; with ?fields=nom,statut,... (or fields=summary) only those columns are read and returned.
+     */
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @GetMapping("/retrieve-all-machines")
-    public List<Machine> getMachines() {
-        return machineService.retrieveAllMachines();
+    public ResponseEntity<?> getMachines(
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Tagged from (id, version) pairs only, so an unchanged fleet costs one light query and a 304;
+        // that query only runs for conditional requests, otherwise the tag comes from the rows read
+        if (fields != null) {
+            if (ifNoneMatch != null) {
+                String etag = EntityTags.ofCollection(machineService.retrieveMachineVersions(), fields);
+                if (EntityTags.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+            return projectedWithTag(fields);
+        }
+        return EntityTags.conditionalCollection(ifNoneMatch, machineService::retrieveMachineVersions,
+                machineService::retrieveAllMachines, Machine::getId, Machine::getVersion);
+    }
+
+    /**
+     * Cursor (keyset) listing: pass the returned nextCursor as ?after= to get the next page.
+     * Optional filters: statut, type, assetStatus, criticality.
+     */
+    @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
+    @GetMapping("/list")
+    public ResponseEntity<Map<String, Object>> listMachines(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int size,
+            MachineFilter filter) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<Machine> machines = machineService.findMachinesAfter(after, pageSize, filter);
+        Map<String, Object> page = new HashMap<>();
+        page.put("items", machines);
+        page.put("size", machines.size());
+        // A short page means the end of the listing
+        page.put("nextCursor", machines.size() < pageSize ? null : machines.get(machines.size() - 1).getId());
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Full export as NDJSON (one machine per line), streamed from the database in constant memory.
+     */
+    @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMachines(MachineFilter filter) {
+        StreamingResponseBody body = out -> machineService.streamMachines(filter, new NdjsonWriter(out));
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Ranked search across the machine text fields (prefix, substring and typo-tolerant).
+     * With autocomplete=true, returns up to size suggestions for a partially typed query.
+     */
+    @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMachines(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean fuzzy,
+            @RequestParam(defaultValue = "false") boolean autocomplete) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if (autocomplete) {
+            return ResponseEntity.ok(machineService.autocompleteMachines(q, Math.min(pageSize, MAX_SUGGESTIONS)));
+        }
+        return ResponseEntity.ok(machineService.searchMachines(q, Math.max(page, 0), pageSize, fuzzy));
     }
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @GetMapping("/retrieve-machine/{id}")
-    public ResponseEntity<Machine> getMachine(@PathVariable Long id) {
+    public ResponseEntity<Machine> getMachine(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Machine dto = machineService.retrieveMachine(id);
-        return dto != null ? ResponseEntity.ok(dto) : ResponseEntity.notFound().build();
+        if (dto == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return EntityTags.conditional(ifNoneMatch, EntityTags.of(dto.getId(), dto.getVersion()), () -> dto);
     }
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
@@ -42,8 +138,31 @@ public class MachineRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
     @PutMapping("/update-machine")
-    public Machine updateMachine(@Valid @RequestBody Machine machine) {
-        return machineService.modifyMachine(machine);
+    public ResponseEntity<?> updateMachine(
+            @Valid @RequestBody Machine machine,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            if (machine.getId() != null) {
+                // Read from the database, not the machine cache: a stale cached version would wrongly
+                // fail or pass If-Match, and If-Match: * would write back that stale version
+                Long currentVersion = machineService.retrieveMachineVersion(machine.getId());
+                if (currentVersion == null) {
+                    return ResponseEntity.notFound().build();
+                }
+                // No blind overwrite: the client must say which version it is updating
+                machine.setVersion(EntityTags.requireVersion(ifMatch, machine.getVersion(), machine.getId(), currentVersion));
+            }
+            Machine saved = machineService.modifyMachine(machine);
+            return ResponseEntity.ok().eTag(EntityTags.of(saved.getId(), saved.getVersion())).body(saved);
+        } catch (PreconditionRequiredException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Send the machine version you are updating (If-Match header or version field).");
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(error);
+        } catch (PreconditionFailedException | OptimisticLockingFailureException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "The machine was modified by someone else. Reload it and retry.");
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+        }
     }
 
     @RoleAllowed({"ADMIN"})
@@ -69,15 +188,34 @@ public class MachineRestController {
         }
     }
 
+    /**
+     * Bulk variant of /by-odoo-id: maps each Odoo asset id to its machine id and sync fingerprint
+     * in one round trip. Ids without a machine are absent from the result.
+     */
+    @RoleAllowed({"ADMIN"})
+    @PostMapping("/by-odoo-ids")
+    public ResponseEntity<?> getMachineLinksByOdooIds(@RequestBody List<Integer> odooAssetIds) {
+        if (odooAssetIds.size() > MAX_LOOKUP_IDS) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "At most " + MAX_LOOKUP_IDS + " ids per lookup");
+            return ResponseEntity.badRequest().body(error);
+        }
+        return ResponseEntity.ok(machineService.findOdooLinks(odooAssetIds));
+    }
+
     /**
      * Get machines with pagination for sync operations
      * Used by Odoo sync service to get batches of machines
      */
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
     @GetMapping("/paginated")
-    public ResponseEntity<List<Machine>> getMachinesPaginated(
+    public ResponseEntity<?> getMachinesPaginated(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return projected(fields, MachineProjectionRepository.Scope.ALL, page, size);
+        }
         try {
             List<Machine> machines = machineService.findMachinesPaginated(page, size);
             return ResponseEntity.ok(machines);
@@ -91,7 +229,10 @@ public class MachineRestController {
      */
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
     @GetMapping("/synced-with-odoo")
-    public ResponseEntity<List<Machine>> getMachinesSyncedWithOdoo() {
+    public ResponseEntity<?> getMachinesSyncedWithOdoo(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return projected(fields, MachineProjectionRepository.Scope.SYNCED_WITH_ODOO, null, null);
+        }
         try {
             List<Machine> machines = machineService.findMachinesSyncedWithOdoo();
             return ResponseEntity.ok(machines);
@@ -105,7 +246,10 @@ public class MachineRestController {
      */
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
     @GetMapping("/not-synced-with-odoo")
-    public ResponseEntity<List<Machine>> getMachinesNotSyncedWithOdoo() {
+    public ResponseEntity<?> getMachinesNotSyncedWithOdoo(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return projected(fields, MachineProjectionRepository.Scope.NOT_SYNCED_WITH_ODOO, null, null);
+        }
         try {
             List<Machine> machines = machineService.findMachinesNotSyncedWithOdoo();
             return ResponseEntity.ok(machines);
@@ -160,18 +304,55 @@ public class MachineRestController {
     @GetMapping("/sync-stats")
     public ResponseEntity<Map<String, Object>> getSyncStats() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalMachines", machineService.countAllMachines());
-            stats.put("syncedWithOdoo", machineService.countMachinesSyncedWithOdoo());
-            stats.put("notSyncedWithOdoo", machineService.countMachinesNotSyncedWithOdoo());
-            stats.put("importedFromOdoo", machineService.countMachinesImportedFromOdoo());
-            
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(machineService.getSyncStatistics());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Change feed: machines created, updated or deleted (tombstones) after the token.
+     * Start without a token (resetRequired=true), do a full read, then poll with nextToken.
+     */
+    @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
+    @GetMapping("/changes")
+    public ResponseEntity<Map<String, Object>> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        return ResponseEntity.ok(machineService.getChangesSince(since, pageSize));
+    }
+
+    /**
+     * Machines due for maintenance within the window (e.g. 7d, 12h, or ISO-8601 P7D),
+     * overdue ones first, served from the in-memory due-date index.
+     */
+    @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
+    @GetMapping("/due")
+    public ResponseEntity<Map<String, Object>> getMachinesDue(
+            @RequestParam(defaultValue = "7d") String within,
+            @RequestParam(defaultValue = "100") int limit) {
+        Duration window;
+        try {
+            window = parseWindow(within);
+        } catch (RuntimeException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Invalid window '" + within + "', expected e.g. 7d, 12h or P7D");
+            return ResponseEntity.badRequest().body(error);
+        }
+        int max = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        return ResponseEntity.ok(machineService.findMachinesDueWithin(window, max));
+    }
+
+    /**
+     * Machine cache metrics for this replica
+     */
+    @RoleAllowed({"ADMIN"})
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(machineService.getCacheStatistics());
+    }
+
     /**
      * Bulk update machines for sync operations
      */
@@ -180,10 +361,11 @@ public class MachineRestController {
     public ResponseEntity<Map<String, Object>> bulkUpdateForSync(
             @RequestBody List<Map<String, Object>> machineUpdates) {
         try {
-            int updated = machineService.bulkUpdateForSync(machineUpdates);
+            BulkSyncReport report = machineService.bulkUpdateForSync(machineUpdates);
             Map<String, Object> result = new HashMap<>();
-            result.put("updated", updated);
-            result.put("success", true);
+            result.put("updated", report.getUpdated());
+            result.put("success", report.getFailed() == 0);
+            result.put("report", report);
             
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -193,4 +375,104 @@ public class MachineRestController {
             return ResponseEntity.internalServerError().body(error);
         }
     }
+
+    /**
+     * Bulk import of Odoo assets (initial load). The body is a JSON array of the same objects
+     * as /from-odoo; it is streamed, so its size is not limited by memory. Rows are committed
+     * in chunks: on a malformed body, the chunks before the error stay imported.
+     */
+    @RoleAllowed({"ADMIN"})
+    @PostMapping(value = "/bulk-import-from-odoo", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> bulkImportFromOdoo(InputStream body) {
+        try {
+            BulkImportReport report = machineService.importFromOdoo(body);
+            Map<String, Object> result = new HashMap<>();
+            result.put("imported", report.getImported());
+            result.put("success", report.getFailed() == 0);
+            result.put("report", report);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | IOException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Invalid import body: " + e.getMessage());
+            error.put("success", false);
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("success", false);
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+
+    private static Duration parseWindow(String value) {
+        String text = value.trim().toLowerCase();
+        if (text.startsWith("p")) {
+            return Duration.parse(text.toUpperCase());
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 'd' -> Duration.ofDays(amount);
+            case 'h' -> Duration.ofHours(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException(value);
+        };
+    }
+
+    /**
+     * Full projected listing tagged like {@link EntityTags#ofCollection}: the version column is read
+     * with the requested fields and only returned if it was asked for.
+     */
+    private ResponseEntity<?> projectedWithTag(String fields) {
+        boolean versionRequested = Arrays.stream(fields.split(",")).anyMatch(field -> field.trim().equals("version"));
+        ResponseEntity<?> response = projected(versionRequested ? fields : fields + ",version",
+                MachineProjectionRepository.Scope.ALL, null, null);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) response.getBody();
+        String etag = EntityTags.ofItems(rows, row -> row.get("id"), row -> row.get("version"), fields);
+        if (!versionRequested) {
+            rows.forEach(row -> row.remove("version"));
+        }
+        return ResponseEntity.ok().eTag(etag).body(rows);
+    }
+
+    private ResponseEntity<?> projected(String fields, MachineProjectionRepository.Scope scope,
+                                        Integer page, Integer size) {
+        try {
+            return ResponseEntity.ok(machineService.findMachineFields(fields, scope, page, size));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Writes one JSON document per line, flushing periodically so the client receives data
+     * while the export is still running.
+     */
+    private final class NdjsonWriter implements java.util.function.Consumer<Machine> {
+        private final OutputStream out;
+        private int pending;
+
+        private NdjsonWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(Machine machine) {
+            try {
+                out.write(objectMapper.writeValueAsBytes(machine));
+                out.write('\n');
+                if (++pending >= EXPORT_FLUSH_EVERY) {
+                    out.flush();
+                    pending = 0;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
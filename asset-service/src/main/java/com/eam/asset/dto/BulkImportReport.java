@@ -0,0 +1,60 @@
+package com.eam.asset.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk Odoo import: totals, throughput, and the rows that were not imported
+ * (capped, see {@link #isRowsTruncated()}), in input order.
+ */
+@Data
+public class BulkImportReport {
+
+    public enum RowStatus {
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    private int received;
+    private int imported;
+    private int duplicates;
+    private int invalid;
+    private int failed;
+    private long elapsedMs;
+    private long rowsPerSecond;
+    private boolean rowsTruncated;
+    private List<RowResult> rows = new ArrayList<>();
+
+    public void imported(int count) {
+        imported += count;
+    }
+
+    public void add(RowResult row, int maxReportedRows) {
+        switch (row.getStatus()) {
+            case DUPLICATE -> duplicates++;
+            case INVALID -> invalid++;
+            case FAILED -> failed++;
+        }
+        if (rows.size() < maxReportedRows) {
+            rows.add(row);
+        } else {
+            rowsTruncated = true;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        /** Position of the row in the request body. */
+        private int index;
+        private Integer odooAssetId;
+        private RowStatus status;
+        private String error;
+    }
+}
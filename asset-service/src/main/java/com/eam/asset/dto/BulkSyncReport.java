@@ -0,0 +1,49 @@
+package com.eam.asset.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk sync update: totals plus one entry per submitted row, in input order.
+ */
+@Data
+public class BulkSyncReport {
+
+    public enum RowStatus {
+        UPDATED,
+        NOT_FOUND,
+        INVALID,
+        FAILED
+    }
+
+    private int updated;
+    private int notFound;
+    private int invalid;
+    private int failed;
+    private List<RowResult> rows = new ArrayList<>();
+
+    public void add(RowResult row) {
+        rows.add(row);
+        switch (row.getStatus()) {
+            case UPDATED -> updated++;
+            case NOT_FOUND -> notFound++;
+            case INVALID -> invalid++;
+            case FAILED -> failed++;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        /** Position of the row in the request body. */
+        private int index;
+        private Long id;
+        private RowStatus status;
+        private String error;
+    }
+}
@@ -0,0 +1,18 @@
+package com.eam.asset.dto;
+
+import com.eam.asset.enums.AssetStatus;
+import com.eam.asset.enums.CriticalityLevel;
+import com.eam.asset.enums.Statut;
+import lombok.Data;
+
+/**
+ * Optional filters for machine listings; a null field means "no constraint".
+ * Bound directly from query parameters (?statut=&type=&assetStatus=&criticality=).
+ */
+@Data
+public class MachineFilter {
+    private Statut statut;
+    private String type;
+    private AssetStatus assetStatus;
+    private CriticalityLevel criticality;
+}
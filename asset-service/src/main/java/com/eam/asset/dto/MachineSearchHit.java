@@ -0,0 +1,23 @@
+package com.eam.asset.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight search result: enough to display and pick a machine without loading the entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MachineSearchHit {
+    private Long id;
+    private String nom;
+    private String model;
+    private String serialNumber;
+    private String manufacturer;
+    private String emplacement;
+    private double score;
+    /** Field that contributed the best match, e.g. "nom" or "serialNumber". */
+    private String matchedField;
+}
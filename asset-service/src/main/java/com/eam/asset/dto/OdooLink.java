@@ -0,0 +1,17 @@
+package com.eam.asset.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The machine an Odoo asset is synced to, and the fingerprint of the Odoo data last written to it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OdooLink {
+    private Long id;
+    /** Null until the sync has written the machine once. */
+    private String odooSyncHash;
+}
@@ -11,15 +11,30 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.OptimisticLock;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_machine_statut", columnList = "statut"),
+        @Index(name = "idx_machine_type", columnList = "type"),
+        @Index(name = "idx_machine_asset_status", columnList = "asset_status"),
+        @Index(name = "idx_machine_criticality", columnList = "criticality_level"),
+        @Index(name = "idx_machine_odoo_asset_id", columnList = "odoo_asset_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Machine {
 
+    public static final int ID_ALLOCATION_SIZE = 500;
+
+    /**
+     * Pooled ids (blocks of {@link #ID_ALLOCATION_SIZE} reserved in the machine_id_seq table) rather
+     * than IDENTITY, so Hibernate can batch machine inserts. See {@code MachineIdSequence}.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "machine_id")
+    @SequenceGenerator(name = "machine_id", sequenceName = "machine_id_seq", allocationSize = Machine.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull(message = "emplacement ne doit pas etre null")
@@ -115,6 +130,30 @@ public class Machine {
     @Column(name = "odoo_state")
     private String odooState;
 
+    /**
+     * Fingerprint of the mapped Odoo data last written by the sync.
+     * The sync skips the write when the asset still maps to the same fingerprint.
+     */
+    @Column(name = "odoo_sync_hash", length = 64)
+    private String odooSyncHash;
+
+    /**
+     * Sequence number of the last change to this machine in the machine_change log.
+     * Increases on every write; compare it with the change feed position. Stamped after the
+     * machine row may already be written (the change id is IDENTITY), so it is excluded from
+     * optimistic locking: the stamp alone must not bump {@link #version} a second time.
+     */
+    @OptimisticLock(excluded = true)
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    /**
+     * Optimistic lock, also exposed as the ETag. Existing rows start at 0.
+     */
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     // ===== HELPER METHODS =====
     
     /**
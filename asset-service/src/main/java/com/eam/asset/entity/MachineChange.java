@@ -0,0 +1,60 @@
+package com.eam.asset.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * One row per committed machine write, in commit-ish order of {@link #id}.
+ * Every asset-service replica tails this table, so a write made on one replica
+ * becomes visible to the in-memory state of all the others.
+ */
+@Entity
+@Table(name = "machine_change", indexes = {
+        @Index(name = "idx_machine_change_changed_at", columnList = "changed_at"),
+        @Index(name = "idx_machine_change_machine_id", columnList = "machine_id")
+})
+@Data
+@NoArgsConstructor
+public class MachineChange {
+
+    public enum Operation {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /** Sequence number of the change, shared by all replicas. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "machine_id", nullable = false)
+    private Long machineId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+
+    /** Statistics key of the machine before the change; null for a creation. */
+    @Column(name = "previous_key", length = 120)
+    private String previousKey;
+
+    /** Statistics key of the machine after the change; null for a deletion. */
+    @Column(name = "current_key", length = 120)
+    private String currentKey;
+
+    @Column(name = "changed_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date changedAt;
+
+    public MachineChange(Long machineId, Operation operation, String previousKey, String currentKey) {
+        this.machineId = machineId;
+        this.operation = operation;
+        this.previousKey = previousKey;
+        this.currentKey = currentKey;
+        this.changedAt = new Date();
+    }
+}
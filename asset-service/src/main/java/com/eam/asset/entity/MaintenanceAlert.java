@@ -0,0 +1,40 @@
+package com.eam.asset.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Record of a maintenance alert already emitted. The unique key makes the first replica to
+ * insert a given (machine, type, due date) the only one that publishes it.
+ */
+@Entity
+@Table(name = "maintenance_alert", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_maintenance_alert", columnNames = {"machine_id", "alert_type", "due_at"})
+}, indexes = {
+        @Index(name = "idx_maintenance_alert_emitted_at", columnList = "emitted_at")
+})
+@Data
+@NoArgsConstructor
+public class MaintenanceAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "machine_id", nullable = false)
+    private Long machineId;
+
+    @Column(name = "alert_type", nullable = false, length = 16)
+    private String alertType;
+
+    @Column(name = "due_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date dueAt;
+
+    @Column(name = "emitted_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date emittedAt;
+}
@@ -0,0 +1,46 @@
+package com.eam.asset.repository;
+
+import com.eam.asset.entity.MachineChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface MachineChangeRepository extends JpaRepository<MachineChange, Long> {
+
+    /**
+     * Changes after the given sequence number, oldest first.
+     */
+    @Query("SELECT c FROM MachineChange c WHERE c.id > :since ORDER BY c.id")
+    List<MachineChange> findSince(@Param("since") long since, Pageable pageable);
+
+    /**
+     * Changes in the sequence range {@code (since, until]}, oldest first.
+     */
+    @Query("SELECT c FROM MachineChange c WHERE c.id > :since AND c.id <= :until ORDER BY c.id")
+    List<MachineChange> findBetween(@Param("since") long since, @Param("until") long until, Pageable pageable);
+
+    /**
+     * Sequence numbers after the given one, used to know which changes a snapshot already contains.
+     */
+    @Query("SELECT c.id FROM MachineChange c WHERE c.id > :since")
+    List<Long> findIdsSince(@Param("since") long since);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM MachineChange c")
+    long findMaxId();
+
+    @Query("SELECT MIN(c.id) FROM MachineChange c")
+    Long findMinId();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MachineChange c WHERE c.changedAt < :before")
+    int deleteChangedBefore(@Param("before") Date before);
+}
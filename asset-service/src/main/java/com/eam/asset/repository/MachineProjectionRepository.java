@@ -0,0 +1,26 @@
+package com.eam.asset.repository;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field-selective machine listings: only the requested columns appear in the SQL SELECT and
+ * no entity is hydrated. Mixed into {@link MachineRepository}.
+ */
+public interface MachineProjectionRepository {
+
+    enum Scope {
+        ALL,
+        SYNCED_WITH_ODOO,
+        NOT_SYNCED_WITH_ODOO
+    }
+
+    /**
+     * One map per machine, in id order, holding {@code id} plus the requested attributes.
+     *
+     * @throws IllegalArgumentException if a field is not a Machine attribute
+     */
+    List<Map<String, Object>> findProjected(List<String> fields, Scope scope, Pageable pageable);
+}
@@ -0,0 +1,69 @@
+package com.eam.asset.repository;
+
+import com.eam.asset.entity.Machine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.Attribute;
+import org.springframework.data.domain.Pageable;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class MachineProjectionRepositoryImpl implements MachineProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Set<String> selectable;
+
+    @Override
+    public List<Map<String, Object>> findProjected(List<String> fields, Scope scope, Pageable pageable) {
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add("id");
+        columns.addAll(fields);
+        Set<String> unknown = columns.stream().filter(f -> !selectable().contains(f)).collect(Collectors.toSet());
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown machine fields: " + unknown);
+        }
+
+        // Field names are checked against the metamodel above, so they are safe to inline
+        List<String> ordered = List.copyOf(columns);
+        String select = ordered.stream().map(f -> "m." + f).collect(Collectors.joining(", "));
+        String where = switch (scope) {
+            case ALL -> "";
+            case SYNCED_WITH_ODOO -> " WHERE m.odooAssetId IS NOT NULL";
+            case NOT_SYNCED_WITH_ODOO -> " WHERE m.odooAssetId IS NULL";
+        };
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "SELECT " + select + " FROM Machine m" + where + " ORDER BY m.id", Tuple.class);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return query.getResultList().stream().map(tuple -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < ordered.size(); i++) {
+                row.put(ordered.get(i), tuple.get(i));
+            }
+            return row;
+        }).toList();
+    }
+
+    private Set<String> selectable() {
+        Set<String> names = selectable;
+        if (names == null) {
+            names = entityManager.getMetamodel().entity(Machine.class).getSingularAttributes().stream()
+                    .map(Attribute::getName)
+                    .collect(Collectors.toUnmodifiableSet());
+            selectable = names;
+        }
+        return names;
+    }
+}
@@ -1,24 +1,140 @@
 package com.eam.asset.repository;
 
 import com.eam.asset.entity.Machine;
+import com.eam.asset.enums.AssetStatus;
+import com.eam.asset.enums.CriticalityLevel;
+import com.eam.asset.enums.Statut;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface MachineRepository extends JpaRepository<Machine, Long> {
+public interface MachineRepository extends JpaRepository<Machine, Long>, MachineProjectionRepository {
+
+    /**
+     * MySQL Connector/J only streams rows one at a time when the fetch size is Integer.MIN_VALUE;
+     * any other value buffers the whole result set in the driver.
+     */
+    String STREAMING_FETCH_SIZE = "-2147483648";
+
+    // ===== LISTING QUERIES =====
+
+    /**
+     * Keyset page: machines with id greater than the cursor, in id order.
+     * Unlike OFFSET paging, the cost of a page does not grow with its position.
+     */
+    @Query("SELECT m FROM Machine m WHERE m.id > :afterId "
+            + "AND (:statut IS NULL OR m.statut = :statut) "
+            + "AND (:type IS NULL OR m.type = :type) "
+            + "AND (:assetStatus IS NULL OR m.assetStatus = :assetStatus) "
+            + "AND (:criticality IS NULL OR m.criticality = :criticality) "
+            + "ORDER BY m.id")
+    List<Machine> findPageAfter(@Param("afterId") long afterId,
+                                @Param("statut") Statut statut,
+                                @Param("type") String type,
+                                @Param("assetStatus") AssetStatus assetStatus,
+                                @Param("criticality") CriticalityLevel criticality,
+                                Pageable pageable);
+
+    /**
+     * Streams the filtered fleet in id order without buffering it; must be consumed inside
+     * a read-only transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Machine m WHERE "
+            + "(:statut IS NULL OR m.statut = :statut) "
+            + "AND (:type IS NULL OR m.type = :type) "
+            + "AND (:assetStatus IS NULL OR m.assetStatus = :assetStatus) "
+            + "AND (:criticality IS NULL OR m.criticality = :criticality) "
+            + "ORDER BY m.id")
+    Stream<Machine> streamFiltered(@Param("statut") Statut statut,
+                                   @Param("type") String type,
+                                   @Param("assetStatus") AssetStatus assetStatus,
+                                   @Param("criticality") CriticalityLevel criticality);
     
+    // ===== SEARCH INDEX QUERIES =====
+
+    /**
+     * Searchable columns of the machines with id in (afterId, upToId], in id order.
+     * Columns: id, nom, serialNumber, model, manufacturer, emplacement, description.
+     */
+    @Query("SELECT m.id, m.nom, m.serialNumber, m.model, m.manufacturer, m.emplacement, m.description "
+            + "FROM Machine m WHERE m.id > :afterId AND m.id <= :upToId ORDER BY m.id")
+    List<Object[]> findSearchRows(@Param("afterId") long afterId, @Param("upToId") long upToId, Pageable pageable);
+
+    /**
+     * Same columns as {@link #findSearchRows} for the given machines.
+     */
+    @Query("SELECT m.id, m.nom, m.serialNumber, m.model, m.manufacturer, m.emplacement, m.description "
+            + "FROM Machine m WHERE m.id IN :ids")
+    List<Object[]> findSearchRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MAX(m.id) FROM Machine m")
+    Long findMaxId();
+
+    /**
+     * Dedupe keys of every machine, for the bulk import. Columns: odooAssetId, nom, emplacement.
+     */
+    @Query("SELECT m.odooAssetId, m.nom, m.emplacement FROM Machine m")
+    List<Object[]> findImportKeys();
+
+    /**
+     * (id, version) of every machine: enough to compute the listing ETag without loading entities.
+     */
+    @Query("SELECT m.id, m.version FROM Machine m")
+    List<Object[]> findVersions();
+
+    /**
+     * Current version of one machine, read from the database (never from the machine cache).
+     */
+    @Query("SELECT m.version FROM Machine m WHERE m.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // ===== MAINTENANCE SCHEDULE QUERIES =====
+
+    /**
+     * Columns of the due-date index, keyset-paged by id.
+     * Columns: id, nom, emplacement, criticality, assetStatus, dateProchaineMainenance.
+     */
+    @Query("SELECT m.id, m.nom, m.emplacement, m.criticality, m.assetStatus, m.dateProchaineMainenance "
+            + "FROM Machine m WHERE m.id > :afterId ORDER BY m.id")
+    List<Object[]> findDueRows(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Same columns as {@link #findDueRows} for the given machines.
+     */
+    @Query("SELECT m.id, m.nom, m.emplacement, m.criticality, m.assetStatus, m.dateProchaineMainenance "
+            + "FROM Machine m WHERE m.id IN :ids")
+    List<Object[]> findDueRowsByIds(@Param("ids") Collection<Long> ids);
+
     // ===== ODOO INTEGRATION QUERIES =====
     
     /**
      * Find machine by Odoo Asset ID
      */
     Optional<Machine> findByOdooAssetId(Integer odooAssetId);
+
+    /**
+     * (odooAssetId, id, odooSyncHash) of the machines linked to the given Odoo assets, through
+     * idx_machine_odoo_asset_id.
+     */
+    @Query("SELECT m.odooAssetId, m.id, m.odooSyncHash FROM Machine m WHERE m.odooAssetId IN :odooAssetIds")
+    List<Object[]> findOdooLinks(@Param("odooAssetIds") Collection<Integer> odooAssetIds);
     
     /**
      * Find machines that are synced with Odoo (have odooAssetId)
@@ -56,6 +172,16 @@ public interface MachineRepository extends JpaRepository<Machine, Long> {
     @Query("SELECT COUNT(m) FROM Machine m WHERE m.importedFromOdoo = true")
     long countMachinesImportedFromOdoo();
     
+    /**
+     * Machine counts grouped by every dimension of the sync statistics, in one scan.
+     * Columns: statut, assetStatus, condition, criticality, synced, imported, count.
+     */
+    @Query("SELECT m.statut, m.assetStatus, m.condition, m.criticality, "
+            + "CASE WHEN m.odooAssetId IS NULL THEN false ELSE true END, m.importedFromOdoo, COUNT(m) "
+            + "FROM Machine m GROUP BY m.statut, m.assetStatus, m.condition, m.criticality, "
+            + "CASE WHEN m.odooAssetId IS NULL THEN false ELSE true END, m.importedFromOdoo")
+    List<Object[]> countByStatsKey();
+
     /**
      * Find machines with pagination for sync operations
      */
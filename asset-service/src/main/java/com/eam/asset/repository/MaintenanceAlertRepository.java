@@ -0,0 +1,38 @@
+package com.eam.asset.repository;
+
+import com.eam.asset.entity.MaintenanceAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+@Repository
+public interface MaintenanceAlertRepository extends JpaRepository<MaintenanceAlert, Long> {
+
+    /**
+     * Claims the alert for this replica: 1 if inserted, 0 if another replica (or an earlier
+     * run) already emitted it.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO maintenance_alert (machine_id, alert_type, due_at, emitted_at) "
+            + "VALUES (:machineId, :alertType, :dueAt, :emittedAt)", nativeQuery = true)
+    int claim(@Param("machineId") Long machineId,
+              @Param("alertType") String alertType,
+              @Param("dueAt") Date dueAt,
+              @Param("emittedAt") Date emittedAt);
+
+    /**
+     * Deletes old claims, except those for a machine's current due date: that machine is still
+     * indexed (possibly long overdue), and dropping its claims would re-emit them on restart.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MaintenanceAlert a WHERE a.emittedAt < :before AND NOT EXISTS "
+            + "(SELECT m.id FROM Machine m WHERE m.id = a.machineId AND m.dateProchaineMainenance = a.dueAt)")
+    int deleteEmittedBefore(@Param("before") Date before);
+}
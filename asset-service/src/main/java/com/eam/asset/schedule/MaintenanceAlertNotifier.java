@@ -0,0 +1,84 @@
+package com.eam.asset.schedule;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwards {@link MaintenanceDueEvent}s to {@code asset.maintenance.webhook-url} as JSON POSTs,
+ * so planning or ticketing tools learn when a machine's maintenance is due or overdue.
+ * <p>
+ * Each event is published once cluster-wide, so the replica that claimed it is the one that
+ * delivers it. Delivery runs on its own thread, never on the maintenance index worker, and is
+ * retried a few times with backoff before the alert is logged as undelivered. Disabled while
+ * the URL is unset.
+ */
+@Component
+@Slf4j
+public class MaintenanceAlertNotifier {
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long RETRY_BASE_MS = 2000;
+
+    private final String webhookUrl;
+    private final RestTemplate restTemplate;
+    private final ScheduledExecutorService sender;
+
+    public MaintenanceAlertNotifier(@Value("${asset.maintenance.webhook-url:}") String webhookUrl,
+                                    @Value("${asset.maintenance.webhook-connect-timeout-ms:5000}") int connectTimeoutMs,
+                                    @Value("${asset.maintenance.webhook-read-timeout-ms:10000}") int readTimeoutMs) {
+        this.webhookUrl = webhookUrl;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "maintenance-alerts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+    }
+
+    @EventListener
+    public void onMaintenanceDue(MaintenanceDueEvent event) {
+        if (webhookUrl.isEmpty()) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.getType());
+        payload.put("machineId", event.getMachineId());
+        payload.put("nom", event.getNom());
+        payload.put("dueAt", event.getDueAt());
+        sender.execute(() -> deliver(payload, 1));
+    }
+
+    private void deliver(Map<String, Object> payload, int attempt) {
+        try {
+            restTemplate.postForLocation(webhookUrl, payload);
+        } catch (RestClientException e) {
+            if (attempt >= MAX_ATTEMPTS) {
+                log.error("Maintenance alert {} for machine {} not delivered after {} attempts: {}",
+                        payload.get("type"), payload.get("machineId"), attempt, e.getMessage());
+                return;
+            }
+            long delayMs = RETRY_BASE_MS << (attempt - 1);
+            sender.schedule(() -> deliver(payload, attempt + 1), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}
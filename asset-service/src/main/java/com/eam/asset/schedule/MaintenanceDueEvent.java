@@ -0,0 +1,26 @@
+package com.eam.asset.schedule;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Published once across all replicas when a machine's next maintenance becomes due, then
+ * again when it becomes overdue. Events are published in due-date order.
+ * {@link MaintenanceAlertNotifier} forwards them to the configured webhook.
+ */
+@Getter
+@RequiredArgsConstructor
+public class MaintenanceDueEvent {
+
+    public enum Type {
+        DUE,
+        OVERDUE
+    }
+
+    private final Type type;
+    private final Long machineId;
+    private final String nom;
+    private final Date dueAt;
+}
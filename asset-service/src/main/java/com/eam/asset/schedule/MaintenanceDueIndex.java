@@ -0,0 +1,283 @@
+package com.eam.asset.schedule;
+
+import com.eam.asset.entity.MachineChange;
+import com.eam.asset.enums.AssetStatus;
+import com.eam.asset.enums.CriticalityLevel;
+import com.eam.asset.repository.MachineChangeRepository;
+import com.eam.asset.repository.MachineRepository;
+import com.eam.asset.repository.MaintenanceAlertRepository;
+import com.eam.asset.service.ChangeLogCursor;
+import com.eam.asset.service.MachineChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index of machines ordered by next maintenance date, and the timers that turn
+ * those dates into {@link MaintenanceDueEvent}s.
+ * <p>
+ * Entries and timers live in skip lists, so a machine write costs O(log n) and the
+ * "due within" listing is a head-set walk. The index is loaded at startup, then follows local
+ * writes as they commit and other replicas' writes through the machine_change table.
+ * <p>
+ * Every replica runs the timers, but an event is only published by the replica that claims it
+ * in the maintenance_alert table, so each alert is emitted once cluster-wide. Retired machines
+ * are not scheduled.
+ */
+@Component
+@Slf4j
+public class MaintenanceDueIndex {
+
+    private static final Comparator<Entry> BY_DUE_DATE =
+            Comparator.comparingLong(Entry::dueAt).thenComparingLong(Entry::machineId);
+    private static final Comparator<Timer> BY_FIRE_TIME =
+            Comparator.comparingLong(Timer::fireAt).thenComparing(Timer::type).thenComparingLong(Timer::machineId);
+
+    private final MachineRepository machineRepository;
+    private final MachineChangeRepository changeRepository;
+    private final MaintenanceAlertRepository alertRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeLogCursor cursor;
+    private final long overdueGraceMs;
+    private final long tickMs;
+    private final int pageSize;
+    private ScheduledExecutorService worker;
+
+    private final ConcurrentSkipListSet<Entry> byDueDate = new ConcurrentSkipListSet<>(BY_DUE_DATE);
+    private final Map<Long, Entry> byMachine = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Timer> timers = new ConcurrentSkipListSet<>(BY_FIRE_TIME);
+    private volatile boolean ready;
+
+    public MaintenanceDueIndex(MachineRepository machineRepository,
+                               MachineChangeRepository changeRepository,
+                               MaintenanceAlertRepository alertRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${asset.maintenance.overdue-grace-hours:24}") long overdueGraceHours,
+                               @Value("${asset.maintenance.tick-ms:2000}") long tickMs,
+                               @Value("${asset.maintenance.page-size:1000}") int pageSize,
+                               @Value("${asset.changes.gap-timeout-ms:60000}") long gapTimeoutMs) {
+        this.machineRepository = machineRepository;
+        this.changeRepository = changeRepository;
+        this.alertRepository = alertRepository;
+        this.eventPublisher = eventPublisher;
+        this.overdueGraceMs = TimeUnit.HOURS.toMillis(overdueGraceHours);
+        this.tickMs = tickMs;
+        this.pageSize = Math.max(100, pageSize);
+        this.cursor = new ChangeLogCursor(changeRepository, this.pageSize, gapTimeoutMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "maintenance-due");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // All index writes happen on this single thread; readers only walk the skip lists
+        worker.scheduleWithFixedDelay(this::tick, 0, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    @EventListener
+    public void onMachineChange(MachineChangeEvent event) {
+        if (worker != null && ready) {
+            Set<Long> ids = event.getMachineIds();
+            worker.execute(() -> {
+                try {
+                    reload(ids);
+                } catch (RuntimeException e) {
+                    // Still in the change log: the next tick picks it up
+                    log.warn("Maintenance index refresh failed: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void pruneAlerts() {
+        int deleted = alertRepository.deleteEmittedBefore(new Date(System.currentTimeMillis() - Duration.ofDays(180).toMillis()));
+        log.info("Pruned {} maintenance alerts older than 180 days (claims for current due dates are kept)", deleted);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Machines whose next maintenance falls before now + within, overdue ones first.
+     */
+    public List<Map<String, Object>> findDue(Duration within, int limit) {
+        long now = System.currentTimeMillis();
+        Entry bound = new Entry(Long.MAX_VALUE, now + within.toMillis(), null, null, null);
+        List<Map<String, Object>> due = new ArrayList<>();
+        for (Entry entry : byDueDate.headSet(bound, true)) {
+            if (due.size() >= limit) {
+                break;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", entry.machineId());
+            row.put("nom", entry.nom());
+            row.put("emplacement", entry.emplacement());
+            row.put("criticality", entry.criticality());
+            row.put("dateProchaineMainenance", new Date(entry.dueAt()));
+            row.put("status", entry.dueAt() + overdueGraceMs <= now ? "OVERDUE" : entry.dueAt() <= now ? "DUE" : "UPCOMING");
+            due.add(row);
+        }
+        return due;
+    }
+
+    public int size() {
+        return byMachine.size();
+    }
+
+    private void tick() {
+        try {
+            if (!ready) {
+                load();
+            }
+            do {
+                Set<Long> machineIds = new LinkedHashSet<>();
+                for (MachineChange change : cursor.next()) {
+                    machineIds.add(change.getMachineId());
+                }
+                reload(machineIds);
+            } while (cursor.hasMore());
+            fireDueTimers();
+        } catch (RuntimeException e) {
+            log.warn("Maintenance due tick failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Loads every machine; the change-log position is taken first so writes made during the
+     * load are replayed afterwards.
+     */
+    private void load() {
+        long start = System.currentTimeMillis();
+        long startCursor = changeRepository.findMaxId();
+        // Changes visible now are in the load; only those still in flight are replayed
+        cursor.reset(startCursor, ChangeLogCursor.idsSince(changeRepository, startCursor));
+        long after = 0;
+        List<Object[]> rows;
+        do {
+            rows = machineRepository.findDueRows(after, PageRequest.of(0, pageSize));
+            for (Object[] row : rows) {
+                put(row);
+                after = (Long) row[0];
+            }
+        } while (rows.size() == pageSize);
+        ready = true;
+        log.info("Maintenance due index loaded: {} machines in {} ms", byMachine.size(), System.currentTimeMillis() - start);
+    }
+
+    private void reload(Collection<Long> machineIds) {
+        if (machineIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(machineIds);
+        for (Object[] row : machineRepository.findDueRowsByIds(machineIds)) {
+            put(row);
+            missing.remove((Long) row[0]);
+        }
+        missing.forEach(this::remove);
+    }
+
+    /**
+     * Publishes, in fire-time order, every alert whose time has come. A DUE alert already past
+     * its overdue time is skipped in favour of the OVERDUE one.
+     */
+    private void fireDueTimers() {
+        long now = System.currentTimeMillis();
+        Timer timer;
+        while ((timer = timers.pollFirst()) != null) {
+            if (timer.fireAt() > now) {
+                timers.add(timer);
+                return;
+            }
+            if (timer.type() == MaintenanceDueEvent.Type.DUE && timer.dueAt() + overdueGraceMs <= now) {
+                continue;
+            }
+            Entry entry = byMachine.get(timer.machineId());
+            try {
+                Date dueAt = new Date(timer.dueAt());
+                if (alertRepository.claim(timer.machineId(), timer.type().name(), dueAt, new Date()) == 1) {
+                    log.info("Maintenance {} for machine {} ({})", timer.type(), timer.machineId(), dueAt);
+                    eventPublisher.publishEvent(new MaintenanceDueEvent(timer.type(), timer.machineId(),
+                            entry != null ? entry.nom() : null, dueAt));
+                }
+            } catch (RuntimeException e) {
+                timers.add(timer);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Row columns as in {@link MachineRepository#findDueRows}.
+     */
+    private void put(Object[] row) {
+        Long id = (Long) row[0];
+        Date due = (Date) row[5];
+        if (due == null || row[4] == AssetStatus.RETIRED) {
+            remove(id);
+            return;
+        }
+        Entry entry = new Entry(id, due.getTime(), (String) row[1], (String) row[2], (CriticalityLevel) row[3]);
+        Entry previous = byMachine.put(id, entry);
+        if (previous != null) {
+            unschedule(previous);
+        }
+        byDueDate.add(entry);
+        timers.add(new Timer(entry.dueAt(), MaintenanceDueEvent.Type.DUE, id, entry.dueAt()));
+        timers.add(new Timer(entry.dueAt() + overdueGraceMs, MaintenanceDueEvent.Type.OVERDUE, id, entry.dueAt()));
+    }
+
+    private void remove(Long id) {
+        Entry previous = byMachine.remove(id);
+        if (previous != null) {
+            unschedule(previous);
+        }
+    }
+
+    private void unschedule(Entry entry) {
+        byDueDate.remove(entry);
+        timers.remove(new Timer(entry.dueAt(), MaintenanceDueEvent.Type.DUE, entry.machineId(), entry.dueAt()));
+        timers.remove(new Timer(entry.dueAt() + overdueGraceMs, MaintenanceDueEvent.Type.OVERDUE,
+                entry.machineId(), entry.dueAt()));
+    }
+
+    private record Entry(long machineId, long dueAt, String nom, String emplacement, CriticalityLevel criticality) {
+    }
+
+    private record Timer(long fireAt, MaintenanceDueEvent.Type type, long machineId, long dueAt) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.eam.asset.search;
+
+import com.eam.asset.dto.MachineSearchHit;
+import com.eam.asset.entity.MachineChange;
+import com.eam.asset.repository.MachineChangeRepository;
+import com.eam.asset.repository.MachineRepository;
+import com.eam.asset.service.ChangeLogCursor;
+import com.eam.asset.service.MachineChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory search over machines, kept in step with the database.
+ * <p>
+ * At startup the index is built by several threads, each loading a slice of the id range.
+ * Afterwards local writes are re-indexed as soon as they commit, and writes made on other
+ * replicas are picked up by tailing the machine_change table. Re-indexing a machine is
+ * idempotent, so changes seen twice (overlap window, rebuild race) are harmless.
+ */
+@Component
+@Slf4j
+public class MachineSearchIndex {
+
+    private final MachineRepository machineRepository;
+    private final MachineChangeRepository changeRepository;
+    private final int rebuildThreads;
+    private final int pageSize;
+    private final long pollIntervalMs;
+    private ScheduledExecutorService updater;
+
+    private volatile NgramIndex index = new NgramIndex();
+    private volatile boolean ready;
+    private final ChangeLogCursor cursor;
+
+    public MachineSearchIndex(MachineRepository machineRepository,
+                              MachineChangeRepository changeRepository,
+                              @Value("${asset.search.rebuild-threads:4}") int rebuildThreads,
+                              @Value("${asset.search.page-size:1000}") int pageSize,
+                              @Value("${asset.search.poll-interval-ms:2000}") long pollIntervalMs,
+                              @Value("${asset.changes.gap-timeout-ms:60000}") long gapTimeoutMs) {
+        this.machineRepository = machineRepository;
+        this.changeRepository = changeRepository;
+        this.rebuildThreads = Math.max(1, rebuildThreads);
+        this.pageSize = Math.max(100, pageSize);
+        this.pollIntervalMs = pollIntervalMs;
+        this.cursor = new ChangeLogCursor(changeRepository, this.pageSize, gapTimeoutMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        updater = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "machine-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        updater.execute(this::rebuild);
+        updater.scheduleWithFixedDelay(this::safeCatchUp, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (updater != null) {
+            updater.shutdownNow();
+        }
+    }
+
+    @EventListener
+    public void onMachineChange(MachineChangeEvent event) {
+        if (updater != null && ready) {
+            Set<Long> ids = event.getMachineIds();
+            updater.execute(() -> safeReindex(ids));
+        }
+    }
+
+    /**
+     * False until the startup build completes; callers fall back to the database meanwhile.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Ranked hits for the query; {@code wanted} is how many the caller is going to page through,
+     * and only that many are ranked.
+     */
+    public SearchResult search(String query, boolean fuzzy, int wanted) {
+        return index.search(query, fuzzy, wanted);
+    }
+
+    public List<MachineSearchHit> autocomplete(String prefix, int limit) {
+        return index.autocomplete(prefix, limit);
+    }
+
+    public Set<Long> findIdsByNameContaining(String name) {
+        return index.findByNameContaining(name);
+    }
+
+    /**
+     * Builds a fresh index in parallel and swaps it in. The change-log position is taken first,
+     * so writes committed during the build are replayed on the new index afterwards.
+     */
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            long startCursor = changeRepository.findMaxId();
+            // Changes visible now are in the build; only those still in flight are replayed
+            List<Long> built = ChangeLogCursor.idsSince(changeRepository, startCursor);
+            Long maxId = machineRepository.findMaxId();
+            NgramIndex fresh = new NgramIndex();
+            if (maxId != null) {
+                loadInParallel(fresh, maxId);
+            }
+            index = fresh;
+            cursor.reset(startCursor, built);
+            ready = true;
+            log.info("Machine search index built: {} machines in {} ms", fresh.size(), System.currentTimeMillis() - start);
+            catchUp();
+        } catch (RuntimeException e) {
+            log.error("Machine search index build failed, retrying on next poll", e);
+        }
+    }
+
+    private void loadInParallel(NgramIndex target, long maxId) {
+        long sliceSize = maxId / rebuildThreads + 1;
+        ExecutorService loaders = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<Future<?>> slices = new ArrayList<>();
+            for (int i = 0; i < rebuildThreads; i++) {
+                long from = i * sliceSize;
+                long to = Math.min(maxId, from + sliceSize);
+                slices.add(loaders.submit(() -> loadSlice(target, from, to)));
+            }
+            for (Future<?> slice : slices) {
+                slice.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the search index", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search index slice failed", e.getCause());
+        } finally {
+            loaders.shutdown();
+        }
+    }
+
+    /**
+     * Keyset-pages the ids in (from, to] into the index.
+     */
+    private void loadSlice(NgramIndex target, long from, long to) {
+        long after = from;
+        List<Object[]> rows;
+        do {
+            rows = machineRepository.findSearchRows(after, to, PageRequest.of(0, pageSize));
+            for (Object[] row : rows) {
+                put(target, row);
+                after = (Long) row[0];
+            }
+        } while (rows.size() == pageSize);
+    }
+
+    private synchronized void catchUp() {
+        if (!ready) {
+            rebuild();
+            return;
+        }
+        do {
+            Set<Long> machineIds = new LinkedHashSet<>();
+            for (MachineChange change : cursor.next()) {
+                machineIds.add(change.getMachineId());
+            }
+            reindex(machineIds);
+        } while (cursor.hasMore());
+    }
+
+    private void reindex(Collection<Long> machineIds) {
+        if (machineIds.isEmpty()) {
+            return;
+        }
+        NgramIndex target = index;
+        Set<Long> missing = new HashSet<>(machineIds);
+        for (Object[] row : machineRepository.findSearchRowsByIds(machineIds)) {
+            put(target, row);
+            missing.remove((Long) row[0]);
+        }
+        missing.forEach(target::remove);
+    }
+
+    private void safeCatchUp() {
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            log.warn("Machine search index catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    private void safeReindex(Collection<Long> machineIds) {
+        try {
+            reindex(machineIds);
+        } catch (RuntimeException e) {
+            // The change is still in the log: the next catch-up re-indexes it
+            log.warn("Machine search re-index failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rows come from {@link MachineRepository#findSearchRows}: id followed by the fields in
+     * {@link NgramIndex#FIELDS} order.
+     */
+    private static void put(NgramIndex target, Object[] row) {
+        String[] values = new String[NgramIndex.FIELDS.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (String) row[i + 1];
+        }
+        target.put((Long) row[0], values);
+    }
+}
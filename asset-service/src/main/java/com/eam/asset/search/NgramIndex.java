@@ -0,0 +1,400 @@
+package com.eam.asset.search;
+
+import com.eam.asset.dto.MachineSearchHit;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram and token index over the searchable text fields of machines.
+ * <p>
+ * Substring queries intersect the posting lists of the query's trigrams, starting with the
+ * smallest, and only verify the few surviving documents. Prefixes (and terms shorter than a
+ * trigram) go through a sorted token dictionary. Fuzzy matching keeps documents sharing at
+ * least half of the term's trigrams and accepts them within a small edit distance.
+ * <p>
+ * All structures are concurrent: documents can be added and removed while queries run, and a
+ * rebuild can index from several threads at once.
+ */
+class NgramIndex {
+
+    static final String[] FIELDS = {"nom", "serialNumber", "model", "manufacturer", "emplacement", "description"};
+    private static final double[] FIELD_WEIGHTS = {5, 4, 3, 2, 2, 1};
+    /** Fields used by autocomplete: the ones technicians actually type. */
+    private static final int AUTOCOMPLETE_FIELDS = 4;
+    /** Long descriptions would dominate the index size for little search value. */
+    private static final int MAX_FIELD_LENGTH = 1000;
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.8;
+    private static final double SUBSTRING = 0.5;
+    private static final double FUZZY = 0.3;
+
+    /** Best first: higher score, then lower id so equal scores page deterministically. */
+    private static final Comparator<Ranked> BEST_FIRST = Comparator.comparingDouble((Ranked ranked) -> ranked.match().score())
+            .reversed()
+            .thenComparingLong(ranked -> ranked.doc().id);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> grams = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> tokens = new ConcurrentSkipListMap<>();
+
+    int size() {
+        return docs.size();
+    }
+
+    /**
+     * Indexes (or re-indexes) a machine; {@code values} follow the order of {@link #FIELDS}.
+     */
+    void put(long id, String[] values) {
+        Doc doc = new Doc(id, values);
+        Doc previous = docs.put(id, doc);
+        if (previous != null) {
+            unlink(previous);
+        }
+        for (String gram : doc.grams()) {
+            grams.compute(gram, (key, ids) -> add(ids, id));
+        }
+        for (String token : doc.tokenSet()) {
+            tokens.compute(token, (key, ids) -> add(ids, id));
+        }
+    }
+
+    void remove(long id) {
+        Doc previous = docs.remove(id);
+        if (previous != null) {
+            unlink(previous);
+        }
+    }
+
+    /**
+     * Ranked search: every query term must match some field. Fuzzy matching only kicks in when
+     * exact, prefix and substring matches cannot fill the requested window. Only the {@code wanted}
+     * best hits are ranked and returned, with the total number of matches.
+     */
+    SearchResult search(String query, boolean fuzzy, int wanted) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+        Map<Long, Match> matches = match(terms, false, FIELDS.length);
+        if (fuzzy && matches.size() < wanted) {
+            match(terms, true, FIELDS.length).forEach(matches::putIfAbsent);
+        }
+        return rank(matches, wanted);
+    }
+
+    /**
+     * Type-ahead: earlier terms match as in {@link #search}, the last one as a token prefix,
+     * restricted to the identifying fields.
+     */
+    List<MachineSearchHit> autocomplete(String prefix, int limit) {
+        List<String> terms = terms(prefix);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return rank(match(terms, false, AUTOCOMPLETE_FIELDS), limit).hits();
+    }
+
+    /**
+     * Ids of machines whose name contains the text, case- and accent-insensitively.
+     */
+    Set<Long> findByNameContaining(String text) {
+        String needle = normalize(text).trim();
+        Set<Long> ids = new LinkedHashSet<>();
+        if (needle.isEmpty()) {
+            ids.addAll(docs.keySet());
+            return ids;
+        }
+        Collection<Long> candidates = needle.length() >= 3 && needle.indexOf(' ') < 0
+                ? substringCandidates(needle) : docs.keySet();
+        for (Long id : candidates) {
+            Doc doc = docs.get(id);
+            if (doc != null && doc.fields[0].contains(needle)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private Map<Long, Match> match(List<String> terms, boolean fuzzy, int fieldCount) {
+        Map<Long, Match> result = null;
+        for (String term : terms) {
+            Collection<Long> candidates = fuzzy && term.length() >= 4 ? fuzzyCandidates(term) : candidates(term);
+            Map<Long, Match> termMatches = new HashMap<>();
+            for (Long id : candidates) {
+                if (result != null && !result.containsKey(id)) {
+                    continue;
+                }
+                Doc doc = docs.get(id);
+                Match match = doc != null ? doc.score(term, fuzzy, fieldCount) : null;
+                if (match != null) {
+                    termMatches.put(id, match);
+                }
+            }
+            if (result != null) {
+                Map<Long, Match> previous = result;
+                termMatches.replaceAll((id, match) -> previous.get(id).plus(match));
+            }
+            result = termMatches;
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private Collection<Long> candidates(String term) {
+        if (term.length() < 3) {
+            Set<Long> ids = new HashSet<>();
+            tokens.subMap(term, true, term + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+            return ids;
+        }
+        return substringCandidates(term);
+    }
+
+    private Collection<Long> substringCandidates(String term) {
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : gramsOf(term)) {
+            Set<Long> ids = grams.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result;
+    }
+
+    private Collection<Long> fuzzyCandidates(String term) {
+        Set<String> termGrams = gramsOf(term);
+        int required = (termGrams.size() + 1) / 2;
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String gram : termGrams) {
+            Set<Long> ids = grams.get(gram);
+            if (ids != null) {
+                ids.forEach(id -> shared.merge(id, 1, Integer::sum));
+            }
+        }
+        List<Long> result = new ArrayList<>();
+        shared.forEach((id, count) -> {
+            if (count >= required) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Keeps the {@code limit} best matches in a heap whose head is the worst one kept, so a broad
+     * query costs O(n log limit) instead of sorting every match.
+     */
+    private SearchResult rank(Map<Long, Match> matches, int limit) {
+        int total = 0;
+        PriorityQueue<Ranked> best = new PriorityQueue<>(Math.max(1, Math.min(limit, matches.size())), BEST_FIRST.reversed());
+        for (Map.Entry<Long, Match> entry : matches.entrySet()) {
+            Doc doc = docs.get(entry.getKey());
+            if (doc == null) {
+                continue;
+            }
+            total++;
+            Ranked ranked = new Ranked(doc, entry.getValue());
+            if (best.size() < limit) {
+                best.add(ranked);
+            } else if (limit > 0 && BEST_FIRST.compare(ranked, best.peek()) < 0) {
+                best.poll();
+                best.add(ranked);
+            }
+        }
+        List<Ranked> kept = new ArrayList<>(best);
+        kept.sort(BEST_FIRST);
+        List<MachineSearchHit> hits = new ArrayList<>(kept.size());
+        for (Ranked ranked : kept) {
+            hits.add(ranked.doc().toHit(ranked.match()));
+        }
+        return new SearchResult(hits, total);
+    }
+
+    private void unlink(Doc doc) {
+        for (String gram : doc.grams()) {
+            grams.computeIfPresent(gram, (key, ids) -> remove(ids, doc.id));
+        }
+        for (String token : doc.tokenSet()) {
+            tokens.computeIfPresent(token, (key, ids) -> remove(ids, doc.id));
+        }
+    }
+
+    private static Set<Long> add(Set<Long> ids, long id) {
+        Set<Long> target = ids != null ? ids : ConcurrentHashMap.newKeySet();
+        target.add(id);
+        return target;
+    }
+
+    private static Set<Long> remove(Set<Long> ids, long id) {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(stripped.toLowerCase()).replaceAll(" ");
+    }
+
+    private static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        for (String term : normalize(query).trim().split(" ")) {
+            if (!term.isEmpty() && !terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static Set<String> gramsOf(String token) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            result.add(token.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Levenshtein distance, abandoned as soon as it exceeds {@code max}.
+     */
+    private static boolean withinDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return false;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= max;
+    }
+
+    /**
+     * Accumulated score of a document over the query terms, and the field of its best term match.
+     */
+    private record Match(double score, int bestField, double bestFieldScore) {
+
+        Match plus(Match other) {
+            boolean otherBetter = other.bestFieldScore > bestFieldScore;
+            return new Match(score + other.score, otherBetter ? other.bestField : bestField,
+                    Math.max(bestFieldScore, other.bestFieldScore));
+        }
+    }
+
+    private record Ranked(Doc doc, Match match) {
+    }
+
+    private static final class Doc {
+
+        private final long id;
+        private final String[] display;
+        private final String[] fields;
+        private final String[][] fieldTokens;
+
+        Doc(long id, String[] values) {
+            this.id = id;
+            this.display = Arrays.copyOf(values, FIELDS.length);
+            this.fields = new String[FIELDS.length];
+            this.fieldTokens = new String[FIELDS.length][];
+            for (int f = 0; f < FIELDS.length; f++) {
+                String value = display[f] != null && display[f].length() > MAX_FIELD_LENGTH
+                        ? display[f].substring(0, MAX_FIELD_LENGTH) : display[f];
+                String normalized = normalize(value).trim();
+                fields[f] = normalized;
+                fieldTokens[f] = normalized.isEmpty() ? new String[0] : normalized.split(" ");
+            }
+        }
+
+        Set<String> grams() {
+            Set<String> result = new HashSet<>();
+            for (String[] fieldToken : fieldTokens) {
+                for (String token : fieldToken) {
+                    result.addAll(gramsOf(token));
+                }
+            }
+            return result;
+        }
+
+        Set<String> tokenSet() {
+            Set<String> result = new HashSet<>();
+            for (String[] fieldToken : fieldTokens) {
+                result.addAll(Arrays.asList(fieldToken));
+            }
+            return result;
+        }
+
+        Match score(String term, boolean fuzzy, int fieldCount) {
+            int maxDistance = term.length() <= 5 ? 1 : 2;
+            double best = 0;
+            int bestField = -1;
+            for (int f = 0; f < fieldCount; f++) {
+                double kind = 0;
+                for (String token : fieldTokens[f]) {
+                    if (token.equals(term)) {
+                        kind = EXACT;
+                        break;
+                    } else if (token.startsWith(term)) {
+                        kind = Math.max(kind, PREFIX);
+                    } else if (token.contains(term)) {
+                        kind = Math.max(kind, SUBSTRING);
+                    } else if (fuzzy && kind == 0 && withinDistance(term, token, maxDistance)) {
+                        kind = FUZZY;
+                    }
+                }
+                double fieldScore = kind * FIELD_WEIGHTS[f];
+                if (fieldScore > best) {
+                    best = fieldScore;
+                    bestField = f;
+                }
+            }
+            return bestField >= 0 ? new Match(best, bestField, best) : null;
+        }
+
+        MachineSearchHit toHit(Match match) {
+            return new MachineSearchHit(id, display[0], display[2], display[1], display[3], display[4],
+                    match.score(), FIELDS[match.bestField()]);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.eam.asset.search;
+
+import com.eam.asset.dto.MachineSearchHit;
+
+import java.util.List;
+
+/**
+ * The best hits of a query, best first, and how many machines matched in total.
+ */
+public record SearchResult(List<MachineSearchHit> hits, int total) {
+}
@@ -0,0 +1,125 @@
+package com.eam.asset.service;
+
+import com.eam.asset.entity.MachineChange;
+import com.eam.asset.repository.MachineChangeRepository;
+import com.eam.common.feed.SequenceGaps;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Position of one consumer in the machine_change table.
+ * <p>
+ * An IDENTITY value is allocated when its row is inserted but only becomes visible when the
+ * transaction commits, so changes show up out of sequence: an import chunk holds up to
+ * {@code asset.import.chunk-size} ids until it commits, while later single writes are already
+ * visible. The cursor therefore remembers every missing sequence number below the highest change
+ * it has returned. Later changes are returned straight away; the missing ones are looked up again
+ * on each read and returned when they commit. A gap still empty {@code gapTimeoutMs} after the
+ * cursor first saw it is taken for a rolled-back insert and dropped, so that timeout must exceed
+ * the longest transaction that writes changes. The bookkeeping is {@link SequenceGaps}, shared
+ * with the token revocation feed.
+ * <p>
+ * {@link #getPosition()} is held just before the oldest open gap. Not thread-safe: each consumer
+ * reads from a single thread or lock.
+ */
+public class ChangeLogCursor {
+
+    /**
+     * How far below a snapshot position {@link #reset} looks for changes still in flight; well
+     * above the number of changes a single transaction writes.
+     */
+    public static final long RESET_WINDOW = 10_000;
+
+    private static final int GAP_LOOKUP_SIZE = 1000;
+
+    private final MachineChangeRepository changeRepository;
+    private final int batchSize;
+    private final SequenceGaps gaps;
+    private volatile long position;
+    private boolean more;
+
+    public ChangeLogCursor(MachineChangeRepository changeRepository, int batchSize, long gapTimeoutMs) {
+        this(changeRepository, batchSize, gapTimeoutMs, System::currentTimeMillis);
+    }
+
+    ChangeLogCursor(MachineChangeRepository changeRepository, int batchSize, long gapTimeoutMs, LongSupplier clock) {
+        this.changeRepository = changeRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.gaps = new SequenceGaps(RESET_WINDOW, gapTimeoutMs, clock);
+    }
+
+    /**
+     * Repositions the cursor on a snapshot taken at {@code position}, treating {@code alreadySeen}
+     * (see {@link #idsSince}) as consumed. Sequence numbers of the window missing from it are
+     * changes still in flight at snapshot time, returned once they commit.
+     */
+    public void reset(long position, Collection<Long> alreadySeen) {
+        gaps.reset(position, alreadySeen);
+        this.position = gaps.getPosition();
+        more = false;
+    }
+
+    /**
+     * Highest sequence number below which every change has been returned (or given up).
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Number of sequence numbers the cursor is still waiting for.
+     */
+    public int getOpenGaps() {
+        return gaps.size();
+    }
+
+    /**
+     * Next unseen changes: late ones filling a gap first, then new ones in sequence order.
+     * Call again while {@link #hasMore()}.
+     */
+    public List<MachineChange> next() {
+        List<MachineChange> fresh = fillGaps();
+        List<MachineChange> page = changeRepository.findSince(gaps.getHighest(), PageRequest.of(0, batchSize));
+        for (MachineChange change : page) {
+            gaps.record(change.getId());
+            fresh.add(change);
+        }
+        gaps.expire();
+        position = gaps.getPosition();
+        more = page.size() >= batchSize;
+        return fresh;
+    }
+
+    public boolean hasMore() {
+        return more;
+    }
+
+    /**
+     * Ids of the changes a consistent snapshot taken at {@code position} already contains, for
+     * {@link #reset}.
+     */
+    public static List<Long> idsSince(MachineChangeRepository changeRepository, long position) {
+        return changeRepository.findIdsSince(Math.max(0, position - RESET_WINDOW));
+    }
+
+    private List<MachineChange> fillGaps() {
+        List<MachineChange> found = new ArrayList<>();
+        if (gaps.isEmpty()) {
+            return found;
+        }
+        List<Long> missing = gaps.getMissing();
+        for (int from = 0; from < missing.size(); from += GAP_LOOKUP_SIZE) {
+            found.addAll(changeRepository.findAllById(missing.subList(from, Math.min(missing.size(), from + GAP_LOOKUP_SIZE))));
+        }
+        found.sort(Comparator.comparing(MachineChange::getId));
+        for (MachineChange change : found) {
+            gaps.record(change.getId());
+        }
+        return found;
+    }
+}
@@ -1,17 +1,41 @@
 package com.eam.asset.service;
 
+import com.eam.asset.dto.BulkImportReport;
+import com.eam.asset.dto.BulkSyncReport;
+import com.eam.asset.dto.MachineFilter;
+import com.eam.asset.dto.MachineSearchHit;
+import com.eam.asset.dto.OdooLink;
 import com.eam.asset.entity.Machine;
+import com.eam.asset.repository.MachineProjectionRepository;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface IMachineService {
     
     // ===== EXISTING EAM METHODS (PRESERVED) =====
     List<Machine> retrieveAllMachines();
+    List<Object[]> retrieveMachineVersions();
+    /** Version in the database, for preconditions; null if the machine does not exist. */
+    Long retrieveMachineVersion(Long id);
     Machine retrieveMachine(Long id);
     Machine addMachine(Machine machineDto);
     void removeMachine(Long id);
     Machine modifyMachine(Machine machineDto);
+
+    /**
+     * Keyset page of machines with id greater than afterId, in id order
+     */
+    List<Machine> findMachinesAfter(long afterId, int size, MachineFilter filter);
+
+    /**
+     * Streams every machine matching the filter to the consumer in constant memory
+     */
+    void streamMachines(MachineFilter filter, Consumer<Machine> consumer);
     
     // ===== NEW ODOO INTEGRATION METHODS =====
     
@@ -19,6 +43,11 @@ public interface IMachineService {
      * Find machine by Odoo Asset ID
      */
     Machine findByOdooAssetId(Integer odooAssetId);
+
+    /**
+     * Machine id and sync fingerprint of each given Odoo asset id that is linked to a machine
+     */
+    Map<Integer, OdooLink> findOdooLinks(Collection<Integer> odooAssetIds);
     
     /**
      * Get machines with pagination for sync operations
@@ -45,6 +74,43 @@ public interface IMachineService {
      */
     Machine createFromOdooData(Map<String, Object> odooData);
     
+    /**
+     * Ranked, paginated search over name, model, serial number, manufacturer, location and description
+     */
+    Map<String, Object> searchMachines(String query, int page, int size, boolean fuzzy);
+
+    /**
+     * Type-ahead suggestions for a partially typed query
+     */
+    List<MachineSearchHit> autocompleteMachines(String prefix, int limit);
+
+    /**
+     * Only the requested columns (comma-separated, or "summary") of the machines in scope, in id order;
+     * paged when page and size are given
+     */
+    List<Map<String, Object>> findMachineFields(String fields, MachineProjectionRepository.Scope scope,
+                                                Integer page, Integer size);
+
+    /**
+     * Machines created, updated or deleted after the change token, oldest first
+     */
+    Map<String, Object> getChangesSince(Long since, int limit);
+
+    /**
+     * Machines whose next maintenance is due before now + within (overdue ones included), from memory
+     */
+    Map<String, Object> findMachinesDueWithin(Duration within, int limit);
+
+    /**
+     * Hit ratio, evictions and load latency of the machine cache
+     */
+    Map<String, Object> getCacheStatistics();
+
+    /**
+     * Sync statistics served from in-memory counters
+     */
+    Map<String, Object> getSyncStatistics();
+
     /**
      * Count methods for statistics
      */
@@ -54,7 +120,12 @@ public interface IMachineService {
     long countMachinesImportedFromOdoo();
     
     /**
-     * Bulk update for sync operations
+     * Bulk update for sync operations, committed in chunks; reports the outcome of every row
+     */
+    BulkSyncReport bulkUpdateForSync(List<Map<String, Object>> machineUpdates);
+
+    /**
+     * Bulk import of Odoo assets from a streamed JSON array, deduplicated and batch-inserted
      */
-    int bulkUpdateForSync(List<Map<String, Object>> machineUpdates);
+    BulkImportReport importFromOdoo(InputStream json) throws IOException;
 }
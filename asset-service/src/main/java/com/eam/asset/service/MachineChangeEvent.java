@@ -0,0 +1,17 @@
+package com.eam.asset.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Published in-process once a transaction that wrote machines has committed on this replica.
+ * Other replicas learn about the same writes by tailing the machine_change table.
+ */
+@Getter
+@RequiredArgsConstructor
+public class MachineChangeEvent {
+
+    private final Set<Long> machineIds;
+}
@@ -0,0 +1,115 @@
+package com.eam.asset.service;
+
+import com.eam.asset.entity.Machine;
+import com.eam.asset.entity.MachineChange;
+import com.eam.asset.repository.MachineChangeRepository;
+import com.eam.asset.repository.MachineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the machine_change log to external consumers as a pull-based change feed.
+ * <p>
+ * The token is the last sequence number the consumer has seen. Because IDENTITY values can
+ * commit out of order, handing out a token past a change still in flight would skip it forever.
+ * The feed therefore follows the log with its own {@link ChangeLogCursor} and never serves past
+ * the cursor position, which stays just below the oldest open gap until that gap commits or
+ * {@code asset.changes.gap-timeout-ms} expires, however long the writing transaction runs.
+ * <p>
+ * Each entry carries the machine's current state (or a tombstone), so a machine changed
+ * several times within one page appears once.
+ */
+@Component
+public class MachineChangeFeed {
+
+    private final MachineChangeRepository changeRepository;
+    private final MachineRepository machineRepository;
+    private final ChangeLogCursor cursor;
+    private boolean tracking;
+
+    public MachineChangeFeed(MachineChangeRepository changeRepository,
+                             MachineRepository machineRepository,
+                             @Value("${asset.changes.gap-timeout-ms:60000}") long gapTimeoutMs) {
+        this.changeRepository = changeRepository;
+        this.machineRepository = machineRepository;
+        this.cursor = new ChangeLogCursor(changeRepository, 1000, gapTimeoutMs);
+    }
+
+    /**
+     * Changes after {@code since}. With no token, or one older than the log retention, the
+     * response asks for a full re-read and returns the token to continue from afterwards.
+     */
+    public Map<String, Object> changesSince(Long since, int limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Long oldest = changeRepository.findMinId();
+        if (since == null || since <= 0 || (oldest != null && since < oldest - 1)) {
+            // Taken before the consumer's full read and below any change still in flight:
+            // anything committed after it is replayed
+            result.put("resetRequired", true);
+            result.put("changes", List.of());
+            result.put("nextToken", String.valueOf(horizon()));
+            result.put("hasMore", false);
+            return result;
+        }
+
+        long horizon = horizon();
+        List<MachineChange> page = since < horizon
+                ? changeRepository.findBetween(since, horizon, PageRequest.of(0, limit))
+                : List.of();
+        long position = since;
+        Map<Long, MachineChange> latest = new LinkedHashMap<>();
+        for (MachineChange change : page) {
+            latest.remove(change.getMachineId());
+            latest.put(change.getMachineId(), change);
+            position = change.getId();
+        }
+        if (page.size() < limit) {
+            // Caught up: skip the given-up sequence numbers just below the horizon too
+            position = Math.max(position, horizon);
+        }
+
+        Map<Long, Machine> machines = new HashMap<>();
+        machineRepository.findAllById(latest.keySet()).forEach(machine -> machines.put(machine.getId(), machine));
+        List<Map<String, Object>> changes = new ArrayList<>(latest.size());
+        for (MachineChange change : latest.values()) {
+            Machine machine = machines.get(change.getMachineId());
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("seq", change.getId());
+            entry.put("id", change.getMachineId());
+            // A machine deleted after this change is reported as deleted
+            entry.put("operation", machine != null ? change.getOperation() : MachineChange.Operation.DELETED);
+            entry.put("changedAt", change.getChangedAt());
+            entry.put("machine", machine);
+            changes.add(entry);
+        }
+
+        result.put("resetRequired", false);
+        result.put("changes", changes);
+        result.put("nextToken", String.valueOf(position));
+        result.put("hasMore", page.size() >= limit);
+        return result;
+    }
+
+    /**
+     * Sequence number below which every change has committed or been given up, read after
+     * catching the cursor up with the log.
+     */
+    private synchronized long horizon() {
+        if (!tracking) {
+            long end = changeRepository.findMaxId();
+            cursor.reset(end, ChangeLogCursor.idsSince(changeRepository, end));
+            tracking = true;
+        }
+        do {
+            cursor.next();
+        } while (cursor.hasMore());
+        return cursor.getPosition();
+    }
+}
@@ -0,0 +1,149 @@
+package com.eam.asset.service;
+
+import com.eam.asset.entity.Machine;
+import com.eam.asset.entity.MachineChange;
+import com.eam.asset.repository.MachineChangeRepository;
+import com.eam.asset.stats.StatsKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records machine writes in the machine_change table, inside the caller's transaction, so the
+ * log and the machines always commit or roll back together. After commit, a single
+ * {@link MachineChangeEvent} per transaction tells local listeners which machines changed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MachineChangeLog {
+
+    private static final int INSERT_ROWS_PER_STATEMENT = 500;
+
+    private final MachineChangeRepository changeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+
+    @Value("${asset.changes.retention-days:7}")
+    private int retentionDays;
+
+    /**
+     * The machine must be managed: its change sequence is stamped and flushed with the transaction.
+     */
+    public void recordCreated(Machine machine) {
+        MachineChange change = record(new MachineChange(machine.getId(), MachineChange.Operation.CREATED, null, StatsKey.of(machine)));
+        machine.setChangeSeq(change.getId());
+    }
+
+    /**
+     * Bulk variant of {@link #recordCreated} for freshly persisted machines. machine_change ids are
+     * IDENTITY, which Hibernate cannot batch, so the rows go in as multi-row INSERTs and the change
+     * sequences are stamped by one UPDATE per statement. IDENTITY does not follow commit order: the
+     * whole chunk stays invisible until its transaction commits, and the log cursors wait for it as
+     * an open gap (see {@link ChangeLogCursor}) for up to {@code asset.changes.gap-timeout-ms}.
+     * Flushes the persistence context; the managed machines keep a stale changeSeq, so callers
+     * should clear it afterwards.
+     */
+    public void recordCreatedAll(List<Machine> machines) {
+        if (machines.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        Date now = new Date();
+        List<Long> machineIds = new ArrayList<>(machines.size());
+        for (int start = 0; start < machines.size(); start += INSERT_ROWS_PER_STATEMENT) {
+            List<Machine> slice = machines.subList(start, Math.min(machines.size(), start + INSERT_ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO machine_change (machine_id, operation, previous_key, current_key, changed_at) VALUES ");
+            for (int i = 0; i < slice.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, NULL, ?, ?)");
+            }
+            Query insert = entityManager.createNativeQuery(sql.toString());
+            List<Long> sliceIds = new ArrayList<>(slice.size());
+            int position = 1;
+            for (Machine machine : slice) {
+                insert.setParameter(position++, machine.getId());
+                insert.setParameter(position++, MachineChange.Operation.CREATED.name());
+                insert.setParameter(position++, StatsKey.of(machine));
+                insert.setParameter(position++, now);
+                sliceIds.add(machine.getId());
+            }
+            insert.executeUpdate();
+            // New machines have exactly one change row each
+            entityManager.createNativeQuery("UPDATE machine m SET m.change_seq = "
+                            + "(SELECT MAX(c.id) FROM machine_change c WHERE c.machine_id = m.id) WHERE m.id IN (:ids)")
+                    .setParameter("ids", sliceIds)
+                    .executeUpdate();
+            machineIds.addAll(sliceIds);
+        }
+        notifyAfterCommit(machineIds);
+    }
+
+    /**
+     * The machine must be managed: its change sequence is stamped and flushed with the transaction.
+     */
+    public void recordUpdated(String previousKey, Machine machine) {
+        MachineChange change = record(new MachineChange(machine.getId(), MachineChange.Operation.UPDATED, previousKey, StatsKey.of(machine)));
+        machine.setChangeSeq(change.getId());
+    }
+
+    /**
+     * Deletes stay in the log as tombstones so change-feed consumers learn about them.
+     */
+    public void recordDeleted(Long machineId, String previousKey) {
+        record(new MachineChange(machineId, MachineChange.Operation.DELETED, previousKey, null));
+    }
+
+    @Scheduled(fixedRate = 3600000) // 1 hour
+    public void pruneOldChanges() {
+        Date before = new Date(System.currentTimeMillis() - retentionDays * 24L * 60 * 60 * 1000);
+        int deleted = changeRepository.deleteChangedBefore(before);
+        if (deleted > 0) {
+            log.info("Pruned {} machine changes older than {} days", deleted, retentionDays);
+        }
+    }
+
+    private MachineChange record(MachineChange change) {
+        MachineChange saved = changeRepository.save(change);
+        notifyAfterCommit(List.of(change.getMachineId()));
+        return saved;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void notifyAfterCommit(Collection<Long> machineIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(new MachineChangeEvent(new LinkedHashSet<>(machineIds)));
+            return;
+        }
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> ids = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MachineChangeLog.this);
+                    if (status == STATUS_COMMITTED) {
+                        eventPublisher.publishEvent(new MachineChangeEvent(ids));
+                    }
+                }
+            });
+            pending = ids;
+        }
+        pending.addAll(machineIds);
+    }
+}
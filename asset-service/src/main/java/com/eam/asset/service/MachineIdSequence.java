@@ -0,0 +1,40 @@
+package com.eam.asset.service;
+
+import com.eam.asset.entity.Machine;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the machine_id_seq table ahead of the ids already in the machine table.
+ * <p>
+ * Machines used to get AUTO_INCREMENT ids; since they moved to a pooled generator, the table
+ * the generator reads (created empty or at 1 by schema update) must start past the highest
+ * existing id, otherwise the first reserved block would collide with old rows. Runs at
+ * startup on every replica; the update only ever moves the value forward.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MachineIdSequence implements SmartInitializingSingleton {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("INSERT INTO machine_id_seq (next_val) "
+                    + "SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM machine_id_seq)").executeUpdate();
+            // The pooled optimizer hands out (next_val - allocation, next_val]
+            entityManager.createNativeQuery("UPDATE machine_id_seq SET next_val = GREATEST(next_val, "
+                            + "(SELECT COALESCE(MAX(id), 0) FROM machine) + :allocation + 1)")
+                    .setParameter("allocation", Machine.ID_ALLOCATION_SIZE)
+                    .executeUpdate();
+            log.info("Machine id sequence aligned with the existing machine ids");
+        });
+    }
+}
@@ -1,26 +1,68 @@
 package com.eam.asset.service;
 
+import com.eam.asset.cache.MachineCache;
+import com.eam.asset.dto.BulkImportReport;
+import com.eam.asset.dto.BulkSyncReport;
+import com.eam.asset.dto.MachineFilter;
+import com.eam.asset.dto.MachineSearchHit;
+import com.eam.asset.dto.OdooLink;
 import com.eam.asset.entity.Machine;
+import com.eam.asset.repository.MachineProjectionRepository;
 import com.eam.asset.repository.MachineRepository;
 import com.eam.asset.enums.Statut;
-import lombok.AllArgsConstructor;
+import com.eam.asset.schedule.MaintenanceDueIndex;
+import com.eam.asset.search.MachineSearchIndex;
+import com.eam.asset.search.SearchResult;
+import com.eam.asset.stats.MachineStatistics;
+import com.eam.asset.stats.StatsKey;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Date;
-import java.text.SimpleDateFormat;
-import java.text.ParseException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
+@Slf4j
 public class MachineServiceImpl implements IMachineService {
 
+    /** {@code fields=summary}: the columns grid views render. */
+    private static final String SUMMARY = "summary";
+    private static final List<String> SUMMARY_FIELDS =
+            List.of("nom", "type", "statut", "assetStatus", "criticality", "emplacement");
+
     private final MachineRepository machineRepository;
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final MachineChangeLog changeLog;
+    private final MachineStatistics machineStatistics;
+    private final MachineSearchIndex searchIndex;
+    private final MachineCache machineCache;
+    private final MaintenanceDueIndex maintenanceDueIndex;
+    private final MachineChangeFeed changeFeed;
+    private final OdooMachineImporter odooImporter;
+
+    @Value("${asset.sync.bulk-chunk-size:500}")
+    private int bulkChunkSize;
 
     // ===== EXISTING EAM METHODS (PRESERVED) =====
 
@@ -29,31 +71,90 @@ public class MachineServiceImpl implements IMachineService {
         return machineRepository.findAll();
     }
 
+    @Override
+    public List<Object[]> retrieveMachineVersions() {
+        return machineRepository.findVersions();
+    }
+
+    @Override
+    public Long retrieveMachineVersion(Long id) {
+        return machineRepository.findVersionById(id).orElse(null);
+    }
+
     @Override
     public Machine retrieveMachine(Long id) {
-        return machineRepository.findById(id).orElse(null);
+        return machineCache.getById(id, () -> machineRepository.findById(id).orElse(null));
     }
 
     @Override
+    @Transactional
     public Machine addMachine(Machine machine) {
-        return machineRepository.save(machine);
+        Machine saved = machineRepository.save(machine);
+        changeLog.recordCreated(saved);
+        return saved;
     }
 
     @Override
+    @Transactional
     public void removeMachine(Long id) {
-        machineRepository.deleteById(id);
+        machineRepository.findById(id).ifPresent(machine -> {
+            String previousKey = StatsKey.of(machine);
+            machineRepository.delete(machine);
+            changeLog.recordDeleted(id, previousKey);
+        });
     }
 
     @Override
+    @Transactional
     public Machine modifyMachine(Machine machine) {
-        return machineRepository.save(machine);
+        Machine existing = machine.getId() != null ? machineRepository.findById(machine.getId()).orElse(null) : null;
+        // Capture before save: merging copies the new state onto the managed instance
+        String previousKey = existing != null ? StatsKey.of(existing) : null;
+        Machine saved = machineRepository.save(machine);
+        if (previousKey != null) {
+            changeLog.recordUpdated(previousKey, saved);
+        } else {
+            changeLog.recordCreated(saved);
+        }
+        return saved;
+    }
+
+    @Override
+    public List<Machine> findMachinesAfter(long afterId, int size, MachineFilter filter) {
+        return machineRepository.findPageAfter(afterId, filter.getStatut(), filter.getType(),
+                filter.getAssetStatus(), filter.getCriticality(), PageRequest.of(0, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamMachines(MachineFilter filter, Consumer<Machine> consumer) {
+        try (Stream<Machine> machines = machineRepository.streamFiltered(filter.getStatut(), filter.getType(),
+                filter.getAssetStatus(), filter.getCriticality())) {
+            machines.forEach(machine -> {
+                consumer.accept(machine);
+                // Keep the persistence context empty so heap use does not grow with the fleet size
+                entityManager.detach(machine);
+            });
+        }
     }
 
     // ===== NEW ODOO INTEGRATION METHODS =====
 
     @Override
     public Machine findByOdooAssetId(Integer odooAssetId) {
-        return machineRepository.findByOdooAssetId(odooAssetId).orElse(null);
+        return machineCache.getByOdooAssetId(odooAssetId,
+                () -> machineRepository.findByOdooAssetId(odooAssetId).orElse(null));
+    }
+
+    @Override
+    public Map<Integer, OdooLink> findOdooLinks(Collection<Integer> odooAssetIds) {
+        Map<Integer, OdooLink> links = new HashMap<>();
+        if (!odooAssetIds.isEmpty()) {
+            for (Object[] row : machineRepository.findOdooLinks(new HashSet<>(odooAssetIds))) {
+                links.put((Integer) row[0], new OdooLink((Long) row[1], (String) row[2]));
+            }
+        }
+        return links;
     }
 
     @Override
@@ -77,12 +178,15 @@ public class MachineServiceImpl implements IMachineService {
     public Machine markAsSyncedWithOdoo(Long machineId, Integer odooAssetId, String odooState, Double assetValue) {
         Machine machine = machineRepository.findById(machineId).orElse(null);
         if (machine != null) {
+            String previousKey = StatsKey.of(machine);
             machine.markSyncedWithOdoo(odooAssetId);
             machine.setOdooState(odooState);
             if (assetValue != null) {
                 machine.setAssetValue(assetValue);
             }
-            return machineRepository.save(machine);
+            Machine saved = machineRepository.save(machine);
+            changeLog.recordUpdated(previousKey, saved);
+            return saved;
         }
         return null;
     }
@@ -90,52 +194,93 @@ public class MachineServiceImpl implements IMachineService {
     @Override
     @Transactional
     public Machine createFromOdooData(Map<String, Object> odooData) {
-        Machine machine = new Machine();
-        
-        // Map Odoo data to EAM Machine fields
-        machine.setNom((String) odooData.get("nom"));
-        machine.setEmplacement((String) odooData.getOrDefault("emplacement", "Imported from Odoo"));
-        machine.setType((String) odooData.getOrDefault("type", "Asset"));
-        
-        // Map status
-        String statutStr = (String) odooData.get("statut");
-        if (statutStr != null) {
-            try {
-                machine.setStatut(Statut.valueOf(statutStr));
-            } catch (IllegalArgumentException e) {
-                machine.setStatut(Statut.EN_ATTENTE); // Default status
-            }
-        } else {
-            machine.setStatut(Statut.EN_ATTENTE);
-        }
-        
-        // Handle dates
-        Date maintenanceDate = parseDate(odooData.get("dateDernièreMaintenance"));
-        if (maintenanceDate != null) {
-            machine.setDateDernièreMaintenance(maintenanceDate);
+        Machine machine = OdooMachineMapper.toMachine(odooData);
+        Machine saved = machineRepository.save(machine);
+        changeLog.recordCreated(saved);
+        return saved;
+    }
+
+    @Override
+    public BulkImportReport importFromOdoo(InputStream json) throws IOException {
+        return odooImporter.importMachines(json);
+    }
+
+    @Override
+    public Map<String, Object> searchMachines(String query, int page, int size, boolean fuzzy) {
+        int from = page * size;
+        List<MachineSearchHit> hits;
+        int total;
+        String source;
+        if (searchIndex.isReady()) {
+            SearchResult ranked = searchIndex.search(query, fuzzy, from + size);
+            hits = ranked.hits();
+            total = ranked.total();
+            source = "index";
         } else {
-            // Set a default past date
-            machine.setDateDernièreMaintenance(new Date(System.currentTimeMillis() - 30L * 24 * 60 * 60 * 1000));
+            // Startup build still running: answer from the database, unranked
+            hits = machineRepository.findByNomContainingIgnoreCase(query).stream()
+                    .map(machine -> new MachineSearchHit(machine.getId(), machine.getNom(), machine.getModel(),
+                            machine.getSerialNumber(), machine.getManufacturer(), machine.getEmplacement(), 0, "nom"))
+                    .toList();
+            total = hits.size();
+            source = "database";
         }
-        
-        Date nextMaintenanceDate = parseDate(odooData.get("dateProchaineMainenance"));
-        if (nextMaintenanceDate != null) {
-            machine.setDateProchaineMainenance(nextMaintenanceDate);
-        } else {
-            // Set a default future date (30 days from now)
-            machine.setDateProchaineMainenance(new Date(System.currentTimeMillis() + 30L * 24 * 60 * 60 * 1000));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("items", from < hits.size() ? hits.subList(from, Math.min(hits.size(), from + size)) : List.of());
+        result.put("total", total);
+        result.put("page", page);
+        result.put("size", size);
+        result.put("source", source);
+        return result;
+    }
+
+    @Override
+    public List<MachineSearchHit> autocompleteMachines(String prefix, int limit) {
+        if (!searchIndex.isReady()) {
+            return List.of();
         }
-        
-        // Set Odoo-specific fields
-        machine.setOdooAssetId((Integer) odooData.get("odooAssetId"));
-        machine.setOdooState((String) odooData.get("odooState"));
-        machine.markAsImportedFromOdoo();
-        
-        if (odooData.get("assetValue") != null) {
-            machine.setAssetValue(((Number) odooData.get("assetValue")).doubleValue());
+        return searchIndex.autocomplete(prefix, limit);
+    }
+
+    @Override
+    public List<Map<String, Object>> findMachineFields(String fields, MachineProjectionRepository.Scope scope,
+                                                       Integer page, Integer size) {
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (SUMMARY.equals(name)) {
+                selected.addAll(SUMMARY_FIELDS);
+            } else if (!name.isEmpty()) {
+                selected.add(name);
+            }
         }
-        
-        return machineRepository.save(machine);
+        Pageable pageable = page != null && size != null ? PageRequest.of(page, size) : Pageable.unpaged();
+        return machineRepository.findProjected(selected, scope, pageable);
+    }
+
+    @Override
+    public Map<String, Object> getChangesSince(Long since, int limit) {
+        return changeFeed.changesSince(since, limit);
+    }
+
+    @Override
+    public Map<String, Object> findMachinesDueWithin(Duration within, int limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", maintenanceDueIndex.isReady());
+        List<Map<String, Object>> items = maintenanceDueIndex.findDue(within, limit);
+        result.put("items", items);
+        result.put("count", items.size());
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getCacheStatistics() {
+        return machineCache.getStats();
+    }
+
+    @Override
+    public Map<String, Object> getSyncStatistics() {
+        return machineStatistics.snapshot();
     }
 
     @Override
@@ -158,69 +303,108 @@ public class MachineServiceImpl implements IMachineService {
         return machineRepository.countMachinesImportedFromOdoo();
     }
 
+    /**
+     * Applies the updates chunk by chunk: one findAllById per chunk, in-place changes, then a
+     * single flush (batched UPDATEs) and commit. A chunk that fails to commit is reported as
+     * FAILED without affecting the others.
+     */
     @Override
-    @Transactional
-    public int bulkUpdateForSync(List<Map<String, Object>> machineUpdates) {
-        int updated = 0;
-        
-        for (Map<String, Object> updateData : machineUpdates) {
-            try {
-                Long machineId = ((Number) updateData.get("id")).longValue();
-                Machine machine = machineRepository.findById(machineId).orElse(null);
-                
-                if (machine != null) {
-                    // Update Odoo sync fields
-                    if (updateData.containsKey("odooAssetId")) {
-                        machine.setOdooAssetId((Integer) updateData.get("odooAssetId"));
-                    }
-                    
-                    if (updateData.containsKey("odooState")) {
-                        machine.setOdooState((String) updateData.get("odooState"));
+    public BulkSyncReport bulkUpdateForSync(List<Map<String, Object>> machineUpdates) {
+        BulkSyncReport report = new BulkSyncReport();
+        int chunkSize = Math.max(1, bulkChunkSize);
+        for (int start = 0; start < machineUpdates.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, machineUpdates.size());
+            List<BulkSyncReport.RowResult> results = applyChunk(machineUpdates, start, end);
+            results.forEach(report::add);
+        }
+        return report;
+    }
+
+    private List<BulkSyncReport.RowResult> applyChunk(List<Map<String, Object>> updates, int start, int end) {
+        List<BulkSyncReport.RowResult> results = new ArrayList<>(end - start);
+        Map<Integer, Long> validRows = new LinkedHashMap<>();
+        for (int i = start; i < end; i++) {
+            Object id = updates.get(i).get("id");
+            if (id instanceof Number number) {
+                validRows.put(i, number.longValue());
+            } else {
+                results.add(new BulkSyncReport.RowResult(i, null, BulkSyncReport.RowStatus.INVALID, "Missing or non-numeric id"));
+            }
+        }
+        if (validRows.isEmpty()) {
+            return results;
+        }
+
+        List<BulkSyncReport.RowResult> applied = new ArrayList<>(validRows.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Machine> machines = new HashMap<>();
+                machineRepository.findAllById(new HashSet<>(validRows.values()))
+                        .forEach(machine -> machines.put(machine.getId(), machine));
+                Date now = new Date();
+                validRows.forEach((index, id) -> {
+                    Machine machine = machines.get(id);
+                    if (machine == null) {
+                        applied.add(new BulkSyncReport.RowResult(index, id, BulkSyncReport.RowStatus.NOT_FOUND, null));
+                        return;
                     }
-                    
-                    if (updateData.containsKey("assetValue")) {
-                        machine.setAssetValue(((Number) updateData.get("assetValue")).doubleValue());
+                    try {
+                        String previousKey = StatsKey.of(machine);
+                        applySyncFields(machine, updates.get(index), now);
+                        changeLog.recordUpdated(previousKey, machine);
+                        applied.add(new BulkSyncReport.RowResult(index, id, BulkSyncReport.RowStatus.UPDATED, null));
+                    } catch (ClassCastException e) {
+                        applied.add(new BulkSyncReport.RowResult(index, id, BulkSyncReport.RowStatus.INVALID, e.getMessage()));
                     }
-                    
-                    machine.setLastOdooSync(new Date());
-                    machineRepository.save(machine);
-                    updated++;
-                }
-            } catch (Exception e) {
-                // Log error but continue with other updates
-                System.err.println("Error updating machine: " + e.getMessage());
-            }
+                });
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            log.error("Bulk sync chunk [{}, {}) rolled back: {}", start, end, e.getMessage());
+            applied.clear();
+            validRows.forEach((index, id) ->
+                    applied.add(new BulkSyncReport.RowResult(index, id, BulkSyncReport.RowStatus.FAILED, e.getMessage())));
         }
-        
-        return updated;
+        results.addAll(applied);
+        results.sort(Comparator.comparingInt(BulkSyncReport.RowResult::getIndex));
+        return results;
     }
 
-    // ===== HELPER METHODS =====
+    /**
+     * Copies the sync fields present in the update onto the managed entity. The values are
+     * validated before any field is touched so a bad row never leaves a half-applied update.
+     */
+    private void applySyncFields(Machine machine, Map<String, Object> updateData, Date syncTime) {
+        Integer odooAssetId = updateData.get("odooAssetId") != null
+                ? ((Number) updateData.get("odooAssetId")).intValue() : null;
+        String odooState = (String) updateData.get("odooState");
+        Double assetValue = updateData.get("assetValue") != null
+                ? ((Number) updateData.get("assetValue")).doubleValue() : null;
 
-    private Date parseDate(Object dateObj) {
-        if (dateObj == null) return null;
-        
-        if (dateObj instanceof Date) {
-            return (Date) dateObj;
+        if (updateData.containsKey("odooAssetId")) {
+            machine.setOdooAssetId(odooAssetId);
         }
-        
-        if (dateObj instanceof String) {
-            try {
-                return dateFormat.parse((String) dateObj);
-            } catch (ParseException e) {
-                return null;
-            }
+        if (updateData.containsKey("odooState")) {
+            machine.setOdooState(odooState);
         }
-        
-        return null;
+        if (assetValue != null) {
+            machine.setAssetValue(assetValue);
+        }
+        machine.setLastOdooSync(syncTime);
     }
 
+    // ===== HELPER METHODS =====
+
     /**
      * Additional helper methods for Odoo integration
      */
     
     public List<Machine> findMachinesByName(String name) {
-        return machineRepository.findByNomContainingIgnoreCase(name);
+        if (!searchIndex.isReady()) {
+            return machineRepository.findByNomContainingIgnoreCase(name);
+        }
+        return machineRepository.findAllById(searchIndex.findIdsByNameContaining(name));
     }
     
     public List<Machine> findMachinesByType(String type) {
@@ -0,0 +1,289 @@
+package com.eam.asset.service;
+
+import com.eam.asset.dto.BulkImportReport;
+import com.eam.asset.entity.Machine;
+import com.eam.asset.repository.MachineRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Initial / bulk load of Odoo assets.
+ * <p>
+ * The request body is a JSON array read one object at a time, in chunks. While a chunk is being
+ * deduplicated and inserted, the next one is parsed and its rows mapped and validated in
+ * parallel. Rows are deduplicated on odooAssetId and on (nom, emplacement), against existing
+ * machines and earlier rows of the same import. Each chunk is one transaction: machines get
+ * pooled ids at persist time, so their inserts go out as JDBC batches, and the change log rows
+ * as multi-row inserts.
+ */
+@Service
+@Slf4j
+public class OdooMachineImporter {
+
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() { };
+
+    private final MachineRepository machineRepository;
+    private final MachineChangeLog changeLog;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService mappers;
+    private final int threads;
+    private final int chunkSize;
+    private final int jdbcBatchSize;
+    private final int maxReportedRows;
+    private final long gapTimeoutMs;
+
+    public OdooMachineImporter(MachineRepository machineRepository,
+                               MachineChangeLog changeLog,
+                               EntityManager entityManager,
+                               TransactionTemplate transactionTemplate,
+                               Validator validator,
+                               ObjectMapper objectMapper,
+                               @Value("${asset.import.threads:4}") int threads,
+                               @Value("${asset.import.chunk-size:2000}") int chunkSize,
+                               @Value("${asset.import.jdbc-batch-size:500}") int jdbcBatchSize,
+                               @Value("${asset.import.max-reported-rows:1000}") int maxReportedRows,
+                               @Value("${asset.changes.gap-timeout-ms:60000}") long gapTimeoutMs) {
+        this.machineRepository = machineRepository;
+        this.changeLog = changeLog;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.threads = Math.max(1, threads);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.jdbcBatchSize = Math.max(1, jdbcBatchSize);
+        this.maxReportedRows = maxReportedRows;
+        this.gapTimeoutMs = gapTimeoutMs;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.mappers = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "machine-import-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        mappers.shutdownNow();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the body is not a JSON array of objects
+     */
+    public BulkImportReport importMachines(InputStream json) throws IOException {
+        long start = System.nanoTime();
+        BulkImportReport report = new BulkImportReport();
+        Keys keys = loadKeys();
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of Odoo assets");
+            }
+            List<Map<String, Object>> rows = new ArrayList<>(chunkSize);
+            Chunk pending = null;
+            int received = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                rows.add(objectMapper.readValue(parser, ROW));
+                received++;
+                if (rows.size() == chunkSize) {
+                    Chunk next = map(received - rows.size(), rows);
+                    // The previous chunk is inserted while this one is mapped
+                    if (pending != null) {
+                        insert(pending, keys, report);
+                    }
+                    pending = next;
+                    rows = new ArrayList<>(chunkSize);
+                }
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("Expected only JSON objects in the array, found " + token);
+            }
+            if (pending != null) {
+                insert(pending, keys, report);
+            }
+            if (!rows.isEmpty()) {
+                insert(map(received - rows.size(), rows), keys, report);
+            }
+            report.setReceived(received);
+        }
+        report.getRows().sort(Comparator.comparingInt(BulkImportReport.RowResult::getIndex));
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        report.setElapsedMs(elapsedMs);
+        report.setRowsPerSecond(report.getReceived() * 1000L / elapsedMs);
+        log.info("Odoo bulk import: {} received, {} imported, {} duplicates, {} invalid, {} failed in {} ms",
+                report.getReceived(), report.getImported(), report.getDuplicates(), report.getInvalid(),
+                report.getFailed(), elapsedMs);
+        return report;
+    }
+
+    private Keys loadKeys() {
+        Keys keys = new Keys();
+        for (Object[] row : machineRepository.findImportKeys()) {
+            if (row[0] != null) {
+                keys.odooIds.add((Integer) row[0]);
+            }
+            keys.names.add(nameKey((String) row[1], (String) row[2]));
+        }
+        return keys;
+    }
+
+    /**
+     * Maps and validates the rows on the import pool, one slice per thread.
+     */
+    private Chunk map(int firstIndex, List<Map<String, Object>> rows) {
+        int sliceSize = (rows.size() + threads - 1) / threads;
+        List<Future<List<Mapped>>> slices = new ArrayList<>(threads);
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            int sliceStart = from;
+            int sliceEnd = Math.min(rows.size(), from + sliceSize);
+            slices.add(mappers.submit(() -> {
+                List<Mapped> mapped = new ArrayList<>(sliceEnd - sliceStart);
+                for (int i = sliceStart; i < sliceEnd; i++) {
+                    mapped.add(mapRow(firstIndex + i, rows.get(i)));
+                }
+                return mapped;
+            }));
+        }
+        return new Chunk(slices);
+    }
+
+    private Mapped mapRow(int index, Map<String, Object> row) {
+        Machine machine;
+        try {
+            machine = OdooMachineMapper.toMachine(row);
+        } catch (ClassCastException e) {
+            return new Mapped(index, null, row.get("odooAssetId") instanceof Number n ? n.intValue() : null,
+                    "Wrong field type: " + e.getMessage());
+        }
+        Set<ConstraintViolation<Machine>> violations = validator.validate(machine);
+        if (!violations.isEmpty()) {
+            String error = violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return new Mapped(index, null, machine.getOdooAssetId(), error);
+        }
+        return new Mapped(index, machine, machine.getOdooAssetId(), null);
+    }
+
+    /**
+     * Dedupes the mapped rows in input order, so the first occurrence wins, then inserts the
+     * survivors in one transaction.
+     */
+    private void insert(Chunk chunk, Keys keys, BulkImportReport report) {
+        List<Machine> machines = new ArrayList<>();
+        List<Mapped> accepted = new ArrayList<>();
+        for (Mapped row : chunk.await()) {
+            if (row.machine() == null) {
+                report.add(new BulkImportReport.RowResult(row.index(), row.odooAssetId(),
+                        BulkImportReport.RowStatus.INVALID, row.error()), maxReportedRows);
+                continue;
+            }
+            Machine machine = row.machine();
+            String nameKey = nameKey(machine.getNom(), machine.getEmplacement());
+            if ((machine.getOdooAssetId() != null && keys.odooIds.contains(machine.getOdooAssetId()))
+                    || keys.names.contains(nameKey)) {
+                report.add(new BulkImportReport.RowResult(row.index(), row.odooAssetId(),
+                        BulkImportReport.RowStatus.DUPLICATE, null), maxReportedRows);
+                continue;
+            }
+            if (machine.getOdooAssetId() != null) {
+                keys.odooIds.add(machine.getOdooAssetId());
+            }
+            keys.names.add(nameKey);
+            machines.add(machine);
+            accepted.add(row);
+        }
+        if (machines.isEmpty()) {
+            return;
+        }
+        try {
+            long[] changesWrittenAt = new long[1];
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                machines.forEach(entityManager::persist);
+                changesWrittenAt[0] = System.currentTimeMillis();
+                changeLog.recordCreatedAll(machines);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            report.imported(machines.size());
+            long changesInFlightMs = System.currentTimeMillis() - changesWrittenAt[0];
+            if (changesInFlightMs >= gapTimeoutMs) {
+                // The change-log cursors may have given up on this chunk's sequence numbers
+                log.warn("Odoo bulk import chunk starting at row {} committed its change rows after {} ms, "
+                        + "beyond asset.changes.gap-timeout-ms={}", accepted.get(0).index(), changesInFlightMs, gapTimeoutMs);
+            }
+        } catch (RuntimeException e) {
+            log.error("Odoo bulk import chunk starting at row {} rolled back: {}", accepted.get(0).index(), e.getMessage());
+            for (Mapped row : accepted) {
+                // Not in the database after all: a later copy of the row may still be imported
+                keys.odooIds.remove(row.odooAssetId());
+                keys.names.remove(nameKey(row.machine().getNom(), row.machine().getEmplacement()));
+                report.add(new BulkImportReport.RowResult(row.index(), row.odooAssetId(),
+                        BulkImportReport.RowStatus.FAILED, e.getMessage()), maxReportedRows);
+            }
+        }
+    }
+
+    private static String nameKey(String nom, String emplacement) {
+        return (nom != null ? nom.trim().toLowerCase(Locale.ROOT) : "") + '\u0000'
+                + (emplacement != null ? emplacement.trim().toLowerCase(Locale.ROOT) : "");
+    }
+
+    private static final class Keys {
+        private final Set<Integer> odooIds = new HashSet<>();
+        private final Set<String> names = new HashSet<>();
+    }
+
+    private record Mapped(int index, Machine machine, Integer odooAssetId, String error) {
+    }
+
+    private record Chunk(List<Future<List<Mapped>>> slices) {
+
+        List<Mapped> await() {
+            List<Mapped> rows = new ArrayList<>();
+            try {
+                for (Future<List<Mapped>> slice : slices) {
+                    rows.addAll(slice.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while mapping imported machines", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Mapping imported machines failed", e.getCause());
+            }
+            return rows;
+        }
+    }
+}
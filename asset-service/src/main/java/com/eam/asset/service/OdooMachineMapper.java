@@ -0,0 +1,82 @@
+package com.eam.asset.service;
+
+import com.eam.asset.entity.Machine;
+import com.eam.asset.enums.Statut;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Maps an Odoo asset payload onto a new {@link Machine}. Stateless and thread-safe, so the
+ * bulk import can map rows in parallel.
+ */
+final class OdooMachineMapper {
+
+    private static final long THIRTY_DAYS_MS = 30L * 24 * 60 * 60 * 1000;
+
+    private OdooMachineMapper() {
+    }
+
+    /**
+     * @throws ClassCastException if a field has the wrong JSON type
+     */
+    static Machine toMachine(Map<String, Object> odooData) {
+        Machine machine = new Machine();
+
+        // Map Odoo data to EAM Machine fields
+        machine.setNom((String) odooData.get("nom"));
+        machine.setEmplacement((String) odooData.getOrDefault("emplacement", "Imported from Odoo"));
+        machine.setType((String) odooData.getOrDefault("type", "Asset"));
+
+        // Map status
+        String statutStr = (String) odooData.get("statut");
+        if (statutStr != null) {
+            try {
+                machine.setStatut(Statut.valueOf(statutStr));
+            } catch (IllegalArgumentException e) {
+                machine.setStatut(Statut.EN_ATTENTE); // Default status
+            }
+        } else {
+            machine.setStatut(Statut.EN_ATTENTE);
+        }
+
+        // Handle dates, defaulting to 30 days in the past / future
+        long now = System.currentTimeMillis();
+        Date maintenanceDate = parseDate(odooData.get("dateDernièreMaintenance"));
+        machine.setDateDernièreMaintenance(maintenanceDate != null ? maintenanceDate : new Date(now - THIRTY_DAYS_MS));
+        Date nextMaintenanceDate = parseDate(odooData.get("dateProchaineMainenance"));
+        machine.setDateProchaineMainenance(nextMaintenanceDate != null ? nextMaintenanceDate : new Date(now + THIRTY_DAYS_MS));
+
+        // Set Odoo-specific fields
+        Object odooAssetId = odooData.get("odooAssetId");
+        machine.setOdooAssetId(odooAssetId != null ? ((Number) odooAssetId).intValue() : null);
+        machine.setOdooState((String) odooData.get("odooState"));
+        machine.markAsImportedFromOdoo();
+
+        if (odooData.get("assetValue") != null) {
+            machine.setAssetValue(((Number) odooData.get("assetValue")).doubleValue());
+        }
+        return machine;
+    }
+
+    /**
+     * Accepts a Date or a "yyyy-MM-dd" string (anything after the date, such as an Odoo
+     * time part, is ignored); anything else maps to null.
+     */
+    static Date parseDate(Object dateObj) {
+        if (dateObj instanceof Date date) {
+            return date;
+        }
+        if (dateObj instanceof String text && text.length() >= 10) {
+            try {
+                return Date.from(LocalDate.parse(text.substring(0, 10)).atStartOfDay(ZoneId.systemDefault()).toInstant());
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
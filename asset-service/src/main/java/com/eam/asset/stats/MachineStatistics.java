@@ -0,0 +1,223 @@
+package com.eam.asset.stats;
+
+import com.eam.asset.entity.MachineChange;
+import com.eam.asset.enums.AssetStatus;
+import com.eam.asset.enums.ConditionLevel;
+import com.eam.asset.enums.CriticalityLevel;
+import com.eam.asset.enums.Statut;
+import com.eam.asset.repository.MachineChangeRepository;
+import com.eam.asset.repository.MachineRepository;
+import com.eam.asset.service.ChangeLogCursor;
+import com.eam.asset.service.MachineChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Machine counters (total, Odoo sync flags, and per statut / asset status / condition /
+ * criticality) kept in memory so the sync-stats endpoint never touches the database.
+ * <p>
+ * The counters are seeded by one GROUP BY query and then moved by the deltas recorded in the
+ * machine_change table. Each replica tails that table, so writes made on any replica are
+ * applied everywhere; writes made locally are applied as soon as they commit. A periodic
+ * reconciliation replaces the counters with a fresh GROUP BY, which bounds any drift.
+ */
+@Component
+@Slf4j
+public class MachineStatistics {
+
+    private final MachineRepository machineRepository;
+    private final MachineChangeRepository changeRepository;
+    private final TransactionTemplate snapshotTransaction;
+    /** Deltas must never be applied twice: the cursor skips changes already seen. */
+    private final ChangeLogCursor cursor;
+    private final long pollIntervalMs;
+    private ScheduledExecutorService tailer;
+
+    private volatile long[] counts = new long[StatsKey.SIZE];
+    private volatile boolean ready;
+    private volatile Date lastReconciledAt;
+    private volatile long lastDrift;
+
+    public MachineStatistics(MachineRepository machineRepository,
+                             MachineChangeRepository changeRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${asset.stats.batch-size:1000}") int batchSize,
+                             @Value("${asset.stats.poll-interval-ms:1000}") long pollIntervalMs,
+                             @Value("${asset.changes.gap-timeout-ms:60000}") long gapTimeoutMs) {
+        this.machineRepository = machineRepository;
+        this.changeRepository = changeRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        // Counters and change-log position must come from the same consistent snapshot
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.cursor = new ChangeLogCursor(changeRepository, batchSize, gapTimeoutMs);
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        tailer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "machine-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tailer.execute(this::safeReconcile);
+        tailer.scheduleWithFixedDelay(this::safeCatchUp, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (tailer != null) {
+            tailer.shutdownNow();
+        }
+    }
+
+    /**
+     * Local writes: catch up right away instead of waiting for the next poll.
+     */
+    @EventListener
+    public void onMachineChange(MachineChangeEvent event) {
+        if (tailer != null && ready) {
+            tailer.execute(this::safeCatchUp);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${asset.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${asset.stats.reconcile-interval-ms:300000}")
+    public void scheduledReconcile() {
+        safeReconcile();
+    }
+
+    /**
+     * Current counters; only falls back to the database before the first reconciliation.
+     */
+    public Map<String, Object> snapshot() {
+        if (!ready) {
+            reconcile();
+        }
+        long[] current = counts;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalMachines", current[StatsKey.TOTAL]);
+        stats.put("syncedWithOdoo", current[StatsKey.SYNCED]);
+        stats.put("notSyncedWithOdoo", current[StatsKey.TOTAL] - current[StatsKey.SYNCED]);
+        stats.put("importedFromOdoo", current[StatsKey.IMPORTED]);
+        stats.put("byStatut", breakdown(current, StatsKey.STATUT_BASE, Statut.values()));
+        stats.put("byAssetStatus", breakdown(current, StatsKey.ASSET_STATUS_BASE, AssetStatus.values()));
+        stats.put("byCondition", breakdown(current, StatsKey.CONDITION_BASE, ConditionLevel.values()));
+        stats.put("byCriticality", breakdown(current, StatsKey.CRITICALITY_BASE, CriticalityLevel.values()));
+        stats.put("changeSequence", cursor.getPosition());
+        stats.put("openChangeGaps", cursor.getOpenGaps());
+        stats.put("lastReconciledAt", lastReconciledAt);
+        stats.put("lastDrift", lastDrift);
+        return stats;
+    }
+
+    /**
+     * Applies every change committed since the cursor.
+     */
+    public synchronized void catchUp() {
+        if (!ready) {
+            return;
+        }
+        do {
+            List<MachineChange> changes = cursor.next();
+            if (changes.isEmpty()) {
+                continue;
+            }
+            long[] next = counts.clone();
+            for (MachineChange change : changes) {
+                apply(next, change.getPreviousKey(), -1);
+                apply(next, change.getCurrentKey(), 1);
+            }
+            counts = next;
+        } while (cursor.hasMore());
+    }
+
+    /**
+     * Recomputes the counters with a single GROUP BY and realigns the change-log cursor on the
+     * same snapshot, so changes committed after it are applied on top exactly once.
+     */
+    public void reconcile() {
+        Snapshot snapshot = snapshotTransaction.execute(status -> {
+            long[] fresh = new long[StatsKey.SIZE];
+            for (Object[] row : machineRepository.countByStatsKey()) {
+                String key = StatsKey.of((Statut) row[0], (AssetStatus) row[1], (ConditionLevel) row[2],
+                        (CriticalityLevel) row[3], Boolean.TRUE.equals(row[4]), Boolean.TRUE.equals(row[5]));
+                apply(fresh, key, ((Number) row[6]).longValue());
+            }
+            long maxId = changeRepository.findMaxId();
+            List<Long> seen = ChangeLogCursor.idsSince(changeRepository, maxId);
+            return new Snapshot(fresh, maxId, seen);
+        });
+        install(snapshot);
+        catchUp();
+    }
+
+    private synchronized void install(Snapshot snapshot) {
+        long drift = 0;
+        long[] previous = counts;
+        for (int i = 0; i < StatsKey.SIZE; i++) {
+            drift += Math.abs(previous[i] - snapshot.counts[i]);
+        }
+        if (ready && drift > 0) {
+            log.warn("Machine statistics drifted by {} and were reset from the database", drift);
+        }
+        counts = snapshot.counts;
+        cursor.reset(snapshot.cursor, snapshot.seen);
+        lastDrift = ready ? drift : 0;
+        lastReconciledAt = new Date();
+        ready = true;
+    }
+
+    private void safeCatchUp() {
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            log.warn("Machine statistics catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    private void safeReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Machine statistics reconciliation failed", e);
+        }
+    }
+
+    private static void apply(long[] target, String key, long delta) {
+        if (key == null) {
+            return;
+        }
+        for (int slot : StatsKey.slots(key)) {
+            target[slot] += delta;
+        }
+    }
+
+    private static Map<String, Long> breakdown(long[] current, int base, Enum<?>[] values) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Enum<?> value : values) {
+            counts.put(value.name(), current[base + value.ordinal()]);
+        }
+        return counts;
+    }
+
+    private record Snapshot(long[] counts, long cursor, List<Long> seen) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.eam.asset.stats;
+
+import com.eam.asset.entity.Machine;
+import com.eam.asset.enums.AssetStatus;
+import com.eam.asset.enums.ConditionLevel;
+import com.eam.asset.enums.CriticalityLevel;
+import com.eam.asset.enums.Statut;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact encoding of the machine attributes the statistics are grouped by, stored in the
+ * change log so any replica can turn a change into counter deltas without loading the machine.
+ * <p>
+ * Format: {@code statut|assetStatus|condition|criticality|synced|imported}, with empty parts
+ * for null values and {@code 1}/{@code 0} for the two flags.
+ */
+public final class StatsKey {
+
+    static final int TOTAL = 0;
+    static final int SYNCED = 1;
+    static final int IMPORTED = 2;
+    static final int STATUT_BASE = 3;
+    static final int ASSET_STATUS_BASE = STATUT_BASE + Statut.values().length;
+    static final int CONDITION_BASE = ASSET_STATUS_BASE + AssetStatus.values().length;
+    static final int CRITICALITY_BASE = CONDITION_BASE + ConditionLevel.values().length;
+    static final int SIZE = CRITICALITY_BASE + CriticalityLevel.values().length;
+
+    private static final char SEPARATOR = '|';
+
+    private StatsKey() {
+    }
+
+    public static String of(Machine machine) {
+        return name(machine.getStatut()) + SEPARATOR
+                + name(machine.getAssetStatus()) + SEPARATOR
+                + name(machine.getCondition()) + SEPARATOR
+                + name(machine.getCriticality()) + SEPARATOR
+                + flag(machine.getOdooAssetId() != null) + SEPARATOR
+                + flag(Boolean.TRUE.equals(machine.getImportedFromOdoo()));
+    }
+
+    static String of(Statut statut, AssetStatus assetStatus, ConditionLevel condition,
+                     CriticalityLevel criticality, boolean synced, boolean imported) {
+        return name(statut) + SEPARATOR + name(assetStatus) + SEPARATOR + name(condition) + SEPARATOR
+                + name(criticality) + SEPARATOR + flag(synced) + SEPARATOR + flag(imported);
+    }
+
+    /**
+     * Counter slots a machine with this key contributes to. Unknown enum names (e.g. a value
+     * removed since the row was logged) only lose their own dimension.
+     */
+    static int[] slots(String key) {
+        String[] parts = key.split("\\|", -1);
+        List<Integer> slots = new ArrayList<>(7);
+        slots.add(TOTAL);
+        addSlot(slots, STATUT_BASE, Statut.class, part(parts, 0));
+        addSlot(slots, ASSET_STATUS_BASE, AssetStatus.class, part(parts, 1));
+        addSlot(slots, CONDITION_BASE, ConditionLevel.class, part(parts, 2));
+        addSlot(slots, CRITICALITY_BASE, CriticalityLevel.class, part(parts, 3));
+        if ("1".equals(part(parts, 4))) {
+            slots.add(SYNCED);
+        }
+        if ("1".equals(part(parts, 5))) {
+            slots.add(IMPORTED);
+        }
+        return slots.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static <E extends Enum<E>> void addSlot(List<Integer> slots, int base, Class<E> type, String name) {
+        if (name.isEmpty()) {
+            return;
+        }
+        try {
+            slots.add(base + Enum.valueOf(type, name).ordinal());
+        } catch (IllegalArgumentException e) {
+            // Value no longer exists: the next reconciliation fixes this dimension
+        }
+    }
+
+    private static String part(String[] parts, int index) {
+        return index < parts.length ? parts[index] : "";
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : "";
+    }
+
+    private static String flag(boolean value) {
+        return value ? "1" : "0";
+    }
+}
@@ -0,0 +1,105 @@
+package com.eam.asset.search;
+
+import com.eam.asset.dto.MachineSearchHit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NgramIndexTest {
+
+    @Test
+    void ranksExactNameAboveSubstringAndOtherFields() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, machine("Compresseur atlas", "SN-100", "Atelier"));
+        index.put(2, machine("Pompe", "SN-200", "Atelier compresseur"));
+        index.put(3, machine("Minicompresseur", "SN-300", "Atelier"));
+
+        SearchResult result = index.search("compresseur", false, 10);
+
+        assertThat(ids(result.hits())).containsExactly(1L, 3L, 2L);
+        assertThat(result.total()).isEqualTo(3);
+        assertThat(result.hits().get(0).getMatchedField()).isEqualTo("nom");
+    }
+
+    @Test
+    void returnsOnlyTheWantedBestHitsButCountsEveryMatch() {
+        NgramIndex index = new NgramIndex();
+        for (long id = 1; id <= 500; id++) {
+            // Every fifth machine has the term in its name, the others only in their location
+            index.put(id, id % 5 == 0 ? machine("Pompe " + id, "SN-" + id, "Hall")
+                    : machine("Moteur " + id, "SN-" + id, "Local pompe"));
+        }
+
+        SearchResult top = index.search("pompe", false, 20);
+        SearchResult all = index.search("pompe", false, 500);
+
+        assertThat(top.total()).isEqualTo(500);
+        assertThat(top.hits()).hasSize(20);
+        assertThat(ids(top.hits())).containsExactlyElementsOf(ids(all.hits()).subList(0, 20));
+        assertThat(top.hits()).allMatch(hit -> hit.getId() % 5 == 0);
+        assertThat(ids(top.hits())).isSorted();
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, machine("Pompe hydraulique", "SN-1", "Hall A"));
+        index.put(2, machine("Pompe doseuse", "SN-2", "Hall B"));
+
+        assertThat(ids(index.search("pompe hydraulique", false, 10).hits())).containsExactly(1L);
+        assertThat(index.search("pompe electrique", false, 10).total()).isZero();
+    }
+
+    @Test
+    void fuzzyMatchingToleratesTypos() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, machine("Generateur", "SN-1", "Hall"));
+
+        assertThat(index.search("generatuer", false, 10).total()).isZero();
+        assertThat(ids(index.search("generatuer", true, 10).hits())).containsExactly(1L);
+    }
+
+    @Test
+    void ignoresCaseAndAccents() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, machine("Échangeur thermique", "SN-1", "Hall"));
+
+        assertThat(ids(index.search("ECHANGEUR", false, 10).hits())).containsExactly(1L);
+        assertThat(index.findByNameContaining("changeur")).containsExactly(1L);
+    }
+
+    @Test
+    void autocompleteIsLimitedAndRemovedMachinesDisappear() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, machine("Pompe 1", "SN-1", "Hall"));
+        index.put(2, machine("Pompe 2", "SN-2", "Hall"));
+        index.put(3, machine("Pompe 3", "SN-3", "Hall"));
+
+        assertThat(index.autocomplete("pom", 2)).hasSize(2);
+
+        index.remove(2);
+        assertThat(ids(index.search("pompe", false, 10).hits())).containsExactly(1L, 3L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void reindexingReplacesTheOldText() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, machine("Pompe", "SN-1", "Hall"));
+        index.put(1, machine("Moteur", "SN-1", "Hall"));
+
+        assertThat(index.search("pompe", false, 10).total()).isZero();
+        assertThat(ids(index.search("moteur", false, 10).hits())).containsExactly(1L);
+    }
+
+    /** Values in {@link NgramIndex#FIELDS} order. */
+    private static String[] machine(String nom, String serialNumber, String emplacement) {
+        return new String[]{nom, serialNumber, null, null, emplacement, null};
+    }
+
+    private static List<Long> ids(List<MachineSearchHit> hits) {
+        return hits.stream().map(MachineSearchHit::getId).toList();
+    }
+}
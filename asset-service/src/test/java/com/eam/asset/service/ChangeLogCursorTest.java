@@ -0,0 +1,152 @@
+package com.eam.asset.service;
+
+import com.eam.asset.entity.MachineChange;
+import com.eam.asset.repository.MachineChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChangeLogCursorTest {
+
+    private static final long GAP_TIMEOUT_MS = 60_000;
+
+    /** Committed rows, as the database would show them. */
+    private final TreeMap<Long, MachineChange> visible = new TreeMap<>();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private MachineChangeRepository repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(MachineChangeRepository.class);
+        when(repository.findSince(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long since = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return visible.tailMap(since, false).values().stream().limit(page.getPageSize()).toList();
+        });
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            List<MachineChange> found = new ArrayList<>();
+            for (Long id : (Iterable<Long>) invocation.getArgument(0)) {
+                if (visible.containsKey(id)) {
+                    found.add(visible.get(id));
+                }
+            }
+            return found;
+        });
+        when(repository.findIdsSince(anyLong())).thenAnswer(invocation ->
+                new ArrayList<>(visible.tailMap((long) invocation.getArgument(0), false).keySet()));
+    }
+
+    @Test
+    void returnsChangesInSequenceOrder() {
+        commit(1, 3);
+        ChangeLogCursor cursor = cursor(100);
+
+        assertThat(ids(cursor.next())).containsExactly(1L, 2L, 3L);
+        assertThat(cursor.getPosition()).isEqualTo(3);
+        assertThat(cursor.next()).isEmpty();
+    }
+
+    @Test
+    void holdsPositionAtGapAndReturnsLateCommitOnce() {
+        commit(1, 2);
+        commit(4, 4);
+        ChangeLogCursor cursor = cursor(100);
+
+        assertThat(ids(cursor.next())).containsExactly(1L, 2L, 4L);
+        assertThat(cursor.getPosition()).isEqualTo(2);
+        assertThat(cursor.getOpenGaps()).isEqualTo(1);
+
+        commit(3, 3);
+        assertThat(ids(cursor.next())).containsExactly(3L);
+        assertThat(cursor.getPosition()).isEqualTo(4);
+        assertThat(cursor.next()).isEmpty();
+    }
+
+    @Test
+    void waitsForLongTransactionBeyondAnyFixedOverlap() {
+        // An import chunk holds ids 11..2010 while a later single write commits first
+        commit(1, 10);
+        commit(2011, 2011);
+        ChangeLogCursor cursor = cursor(5000);
+
+        assertThat(ids(cursor.next())).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 2011L);
+        assertThat(cursor.getPosition()).isEqualTo(10);
+
+        clock.addAndGet(GAP_TIMEOUT_MS - 1);
+        commit(11, 2010);
+        List<MachineChange> late = cursor.next();
+        assertThat(late).hasSize(2000);
+        assertThat(late.get(0).getId()).isEqualTo(11L);
+        assertThat(cursor.getPosition()).isEqualTo(2011);
+    }
+
+    @Test
+    void givesUpGapsAfterTimeout() {
+        commit(1, 1);
+        commit(3, 3);
+        ChangeLogCursor cursor = cursor(100);
+        cursor.next();
+        assertThat(cursor.getPosition()).isEqualTo(1);
+
+        clock.addAndGet(GAP_TIMEOUT_MS);
+        cursor.next();
+        assertThat(cursor.getPosition()).isEqualTo(3);
+        assertThat(cursor.getOpenGaps()).isZero();
+    }
+
+    @Test
+    void resetSkipsSnapshotChangesAndWaitsForInFlightOnes() {
+        commit(1, 5);
+        commit(7, 8);
+        ChangeLogCursor cursor = cursor(100);
+        cursor.reset(8, ChangeLogCursor.idsSince(repository, 8));
+
+        assertThat(cursor.getPosition()).isEqualTo(5);
+        assertThat(cursor.next()).isEmpty();
+
+        commit(6, 6);
+        commit(9, 9);
+        assertThat(ids(cursor.next())).containsExactly(6L, 9L);
+        assertThat(cursor.getPosition()).isEqualTo(9);
+    }
+
+    @Test
+    void reportsMoreWhileThePageIsFull() {
+        commit(1, 5);
+        ChangeLogCursor cursor = cursor(2);
+
+        List<Long> read = new ArrayList<>(ids(cursor.next()));
+        while (cursor.hasMore()) {
+            read.addAll(ids(cursor.next()));
+        }
+        assertThat(read).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    private ChangeLogCursor cursor(int batchSize) {
+        return new ChangeLogCursor(repository, batchSize, GAP_TIMEOUT_MS, clock::get);
+    }
+
+    private void commit(long from, long to) {
+        for (long id = from; id <= to; id++) {
+            MachineChange change = new MachineChange(id, MachineChange.Operation.UPDATED, null, null);
+            change.setId(id);
+            visible.put(id, change);
+        }
+    }
+
+    private static List<Long> ids(List<MachineChange> changes) {
+        return changes.stream().map(MachineChange::getId).toList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.eam.asset.service;
+
+import com.eam.asset.entity.MachineChange;
+import com.eam.asset.repository.MachineChangeRepository;
+import com.eam.asset.repository.MachineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MachineChangeFeedTest {
+
+    /** Committed rows, as the database would show them. */
+    private final TreeMap<Long, MachineChange> visible = new TreeMap<>();
+    private MachineChangeRepository repository;
+    private MachineChangeFeed feed;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(MachineChangeRepository.class);
+        when(repository.findSince(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long since = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return visible.tailMap(since, false).values().stream().limit(page.getPageSize()).toList();
+        });
+        when(repository.findBetween(anyLong(), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long since = invocation.getArgument(0);
+            long until = invocation.getArgument(1);
+            Pageable page = invocation.getArgument(2);
+            return visible.subMap(since, false, until, true).values().stream().limit(page.getPageSize()).toList();
+        });
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            List<MachineChange> found = new ArrayList<>();
+            for (Long id : (Iterable<Long>) invocation.getArgument(0)) {
+                if (visible.containsKey(id)) {
+                    found.add(visible.get(id));
+                }
+            }
+            return found;
+        });
+        when(repository.findIdsSince(anyLong())).thenAnswer(invocation ->
+                new ArrayList<>(visible.tailMap((long) invocation.getArgument(0), false).keySet()));
+        when(repository.findMaxId()).thenAnswer(invocation -> visible.isEmpty() ? 0L : visible.lastKey());
+        when(repository.findMinId()).thenAnswer(invocation -> visible.isEmpty() ? null : visible.firstKey());
+        feed = new MachineChangeFeed(repository, mock(MachineRepository.class), 60_000);
+    }
+
+    @Test
+    void resetTokenStaysBelowChangesInFlight() {
+        commit(1, 5);
+        commit(7, 8);
+
+        Map<String, Object> reset = feed.changesSince(null, 100);
+
+        assertThat(reset).containsEntry("resetRequired", true).containsEntry("nextToken", "5");
+    }
+
+    @Test
+    void waitsForALongTransactionWhateverItsAge() {
+        commit(1, 2);
+        feed.changesSince(null, 100);
+        // An import chunk holds 3..2002 while later single writes commit
+        commit(2003, 2010);
+
+        Map<String, Object> page = feed.changesSince(2L, 100);
+        assertThat(page).containsEntry("nextToken", "2").containsEntry("hasMore", false);
+        assertThat(seqs(page)).isEmpty();
+
+        commit(3, 2002);
+        page = feed.changesSince(2L, 100);
+        assertThat(page).containsEntry("nextToken", "102").containsEntry("hasMore", true);
+        assertThat(seqs(page)).hasSize(100).startsWith(3L);
+    }
+
+    @Test
+    void servesAContiguousLogUpToItsEnd() {
+        commit(1, 3);
+        feed.changesSince(null, 100);
+        commit(4, 6);
+
+        Map<String, Object> page = feed.changesSince(3L, 100);
+
+        assertThat(seqs(page)).containsExactly(4L, 5L, 6L);
+        assertThat(page).containsEntry("nextToken", "6").containsEntry("hasMore", false);
+    }
+
+    private void commit(long from, long to) {
+        for (long id = from; id <= to; id++) {
+            // One machine per change, so the page keeps every entry
+            MachineChange change = new MachineChange(id, MachineChange.Operation.UPDATED, null, null);
+            change.setId(id);
+            visible.put(id, change);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> seqs(Map<String, Object> page) {
+        return ((List<Map<String, Object>>) page.get("changes")).stream()
+                .map(entry -> (Long) entry.get("seq"))
+                .toList();
+    }
+}
@@ -4,13 +4,20 @@ import com.eam.common.enums.DepartmentType;
 import com.eam.common.enums.Priorite;
 import com.eam.common.enums.Statut;
 import com.eam.common.interfaces.IOrdreTravail;
+import com.eam.common.security.DepartmentScope;
 import java.util.Date;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
 
 @MappedSuperclass
+@FilterDef(name = DepartmentScope.FILTER, defaultCondition = DepartmentScope.CONDITION,
+        parameters = @ParamDef(name = DepartmentScope.PARAMETER, type = String.class))
+@Filter(name = DepartmentScope.FILTER)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,5 +53,10 @@ public abstract class BaseOrdreTravail implements IOrdreTravail {
     @Getter
     private Statut statut;
 
+    // Verrou optimiste : sert aussi d'ETag ; les lignes existantes démarrent à 0
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
 }
 
@@ -0,0 +1,122 @@
+package com.eam.common.feed;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Positions manquantes d'un journal lu par clé auto-incrémentée.
+ * <p>
+ * Une valeur IDENTITY est allouée à l'insertion mais ne devient visible qu'au commit de la
+ * transaction : les lignes d'un journal apparaissent donc dans le désordre, et un lecteur qui
+ * ne reprendrait qu'après la plus haute position lue sauterait pour de bon une ligne validée
+ * tardivement, quel que soit son retard. Chaque position sautée est retenue ici jusqu'à ce
+ * qu'elle soit lue, ou abandonnée {@code timeoutMs} après avoir été constatée manquante
+ * (insertion annulée, ligne purgée) : ce délai doit dépasser la plus longue transaction qui
+ * écrit dans le journal.
+ * <p>
+ * Non thread-safe : chaque lecteur l'utilise depuis un seul thread ou sous verrou.
+ */
+public class SequenceGaps {
+
+    private final long window;
+    private final long timeoutMs;
+    private final LongSupplier clock;
+    /** Positions manquantes sous {@link #highest}, avec l'instant où elles ont été constatées. */
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private long highest;
+
+    /**
+     * @param window    écart maximal suivi derrière une position lue : un saut plus grand est
+     *                  une plage jamais utilisée, pas des écritures en cours
+     * @param timeoutMs délai après lequel une position manquante est abandonnée
+     */
+    public SequenceGaps(long window, long timeoutMs) {
+        this(window, timeoutMs, System::currentTimeMillis);
+    }
+
+    public SequenceGaps(long window, long timeoutMs, LongSupplier clock) {
+        this.window = window;
+        this.timeoutMs = timeoutMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Enregistre une position lue ; celles sautées depuis la plus haute deviennent des trous.
+     *
+     * @return faux si la position avait déjà été lue (ou abandonnée)
+     */
+    public boolean record(long sequence) {
+        if (sequence > highest) {
+            long now = clock.getAsLong();
+            for (long missing = Math.max(highest + 1, sequence - window); missing < sequence; missing++) {
+                gaps.put(missing, now);
+            }
+            highest = sequence;
+            return true;
+        }
+        return gaps.remove(sequence) != null;
+    }
+
+    /**
+     * Repositionne sur un instantané pris à {@code position}, dont {@code alreadySeen} contient
+     * les positions des {@code window} dernières : celles qui en sont absentes étaient en
+     * cours d'écriture et restent attendues.
+     */
+    public void reset(long position, Collection<Long> alreadySeen) {
+        long now = clock.getAsLong();
+        Set<Long> seen = new HashSet<>(alreadySeen);
+        long end = position;
+        for (Long id : seen) {
+            end = Math.max(end, id);
+        }
+        gaps.clear();
+        for (long id = Math.max(0, position - window) + 1; id <= end; id++) {
+            if (!seen.contains(id)) {
+                gaps.put(id, now);
+            }
+        }
+        highest = end;
+    }
+
+    /**
+     * Abandonne les positions attendues depuis plus de {@code timeoutMs}.
+     */
+    public void expire() {
+        long now = clock.getAsLong();
+        gaps.values().removeIf(firstMissed -> now - firstMissed >= timeoutMs);
+    }
+
+    /**
+     * Positions encore attendues, dans l'ordre croissant.
+     */
+    public List<Long> getMissing() {
+        return new ArrayList<>(gaps.keySet());
+    }
+
+    /**
+     * Plus haute position lue : les lignes nouvelles sont au-delà.
+     */
+    public long getHighest() {
+        return highest;
+    }
+
+    /**
+     * Plus haute position sous laquelle tout a été lu (ou abandonné).
+     */
+    public long getPosition() {
+        return gaps.isEmpty() ? highest : gaps.firstKey() - 1;
+    }
+
+    public int size() {
+        return gaps.size();
+    }
+
+    public boolean isEmpty() {
+        return gaps.isEmpty();
+    }
+}
@@ -0,0 +1,18 @@
+package com.eam.common.security;
+
+/**
+ * Filtre Hibernate de cloisonnement par département, déclaré sur les entités rattachées à un
+ * département et activé pour chaque requête d'un non-ADMIN ({@code DepartmentFilterInterceptor}).
+ * <p>
+ * Les chargements par identifiant ({@code findById}, {@code EntityManager.find}) ne passent pas
+ * par les filtres : les lectures exposées aux utilisateurs passent par une requête JPQL.
+ */
+public final class DepartmentScope {
+
+    public static final String FILTER = "departmentFilter";
+    public static final String PARAMETER = "department";
+    public static final String CONDITION = "department = :" + PARAMETER;
+
+    private DepartmentScope() {
+    }
+}
@@ -1,7 +1,7 @@
 package com.eam.common.security;
 
+import com.eam.common.web.JwtPrincipal;
 import com.eam.common.web.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -11,12 +11,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-import java.lang.reflect.Method;
-import java.util.Arrays;
 
+/**
+ * Applique {@link RoleAllowed} et {@link DepartmentAccess} à partir de la {@link PermissionTable}
+ * compilée au démarrage : une seule décision (et un seul compteur) par invocation.
+ */
 @Aspect
 @Component
 public class PermissionAspect {
@@ -25,45 +24,30 @@ public class PermissionAspect {
     @Autowired
     private JwtUtil jwtUtil;
 
-    @Around("@annotation(com.eam.common.security.RoleAllowed)")
-    public Object checkRole(ProceedingJoinPoint joinPoint) throws Throwable {
-        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
-        RoleAllowed roleAllowed = method.getAnnotation(RoleAllowed.class);
-        if (roleAllowed == null) {
-            roleAllowed = method.getDeclaringClass().getAnnotation(RoleAllowed.class);
-        }
-        String[] allowedRoles = roleAllowed != null ? roleAllowed.value() : new String[]{};
-        String role = extractRoleFromRequest();
-        if (role == null || Arrays.stream(allowedRoles).noneMatch(r -> r.equals(role))) {
-            String methodName = method.getDeclaringClass().getSimpleName() + "." + method.getName();
-            String allowed = String.join(", ", allowedRoles);
-            String message = "Forbidden: " + methodName + " requires roles [" + allowed + "] but current role is " + (role == null ? "null" : role);
-            log.warn("{}", message);
-            throw new AccessDeniedException(message);
+    @Autowired
+    private PermissionTable permissionTable;
+
+    @Around("@annotation(com.eam.common.security.RoleAllowed) || @annotation(com.eam.common.security.DepartmentAccess)")
+    public Object checkPermission(ProceedingJoinPoint joinPoint) throws Throwable {
+        PermissionTable.Entry entry =
+                permissionTable.entryFor(((MethodSignature) joinPoint.getSignature()).getMethod());
+        JwtPrincipal principal = jwtUtil.currentPrincipal();
+
+        if (entry.isRoleRestricted()) {
+            String role = principal != null ? principal.getRole() : null;
+            if (!entry.permits(permissionTable.roleBit(role))) {
+                entry.recordDenied();
+                String message = "Forbidden: " + entry.getEndpoint() + " requires roles [" + entry.describeRoles()
+                        + "] but current role is " + role;
+                log.warn("{}", message);
+                throw new AccessDeniedException(message);
+            }
         }
-        return joinPoint.proceed();
-    }
-
-    @Around("@annotation(com.eam.common.security.DepartmentAccess)")
-    public Object checkDepartment(ProceedingJoinPoint joinPoint) throws Throwable {
-        String department = extractDepartmentFromRequest();
-        if (department == null) {
+        if (entry.isDepartmentRequired() && (principal == null || principal.getDepartment() == null)) {
+            entry.recordDenied();
             throw new AccessDeniedException("Access denied: missing department");
         }
+        entry.recordAllowed();
         return joinPoint.proceed();
     }
-
-    private String extractRoleFromRequest() {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
-        String authHeader = ((jakarta.servlet.http.HttpServletRequest) request).getHeader("Authorization");
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        return token != null ? jwtUtil.getRoleFromToken(token) : null;
-    }
-
-    private String extractDepartmentFromRequest() {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
-        String authHeader = request.getHeader("Authorization");
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        return token != null ? jwtUtil.getDepartmentFromToken(token) : null;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package com.eam.common.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Table des règles {@link RoleAllowed} / {@link DepartmentAccess}, compilée au démarrage.
+ * <p>
+ * Chaque rôle rencontré reçoit un bit ; chaque méthode protégée, le masque de ses rôles
+ * autorisés. Le contrôle à l'exécution se réduit à un test de bit, sans réflexion sur
+ * les annotations. Les endpoints sont découverts via les {@link RequestMappingHandlerMapping} ;
+ * une méthode annotée hors contrôleur est compilée à sa première invocation.
+ */
+@Component
+public class PermissionTable implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionTable.class);
+
+    private static final int MAX_ROLES = Long.SIZE;
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+    private final Map<String, Long> roleBits = new ConcurrentHashMap<>();
+    private final Map<Method, Entry> entries = new ConcurrentHashMap<>();
+
+    public PermissionTable(ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        this.handlerMappings = handlerMappings;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        handlerMappings.orderedStream().forEach(mapping ->
+                mapping.getHandlerMethods().values().stream()
+                        .map(HandlerMethod::getMethod)
+                        .forEach(this::entryFor));
+        log.info("Compiled {} permission entries over {} roles", entries.size(), roleBits.size());
+    }
+
+    /**
+     * Entrée de la méthode, compilée à la première demande si elle n'a pas été vue au démarrage.
+     */
+    public Entry entryFor(Method method) {
+        Entry entry = entries.get(method);
+        return entry != null ? entry : entries.computeIfAbsent(method, this::compile);
+    }
+
+    /**
+     * Bit du rôle, ou 0 si aucun endpoint n'autorise ce rôle (il ne peut alors rien passer).
+     */
+    public long roleBit(String role) {
+        if (role == null) {
+            return 0L;
+        }
+        Long bit = roleBits.get(role);
+        return bit != null ? bit : 0L;
+    }
+
+    /**
+     * Vue d'audit : règles et compteurs de décisions par endpoint, hors méthodes non protégées.
+     */
+    public List<Map<String, Object>> describe() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        entries.values().stream()
+                .filter(e -> e.roleRestricted || e.departmentRequired)
+                .sorted(Comparator.comparing(Entry::getEndpoint))
+                .forEach(e -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("endpoint", e.endpoint);
+                    row.put("roles", e.roleRestricted ? e.allowedRoles : null);
+                    row.put("roleMask", e.roleRestricted ? Long.toHexString(e.allowedMask) : null);
+                    row.put("departmentRequired", e.departmentRequired);
+                    row.put("allowed", e.allowed.sum());
+                    row.put("denied", e.denied.sum());
+                    rows.add(row);
+                });
+        return rows;
+    }
+
+    public Map<String, Integer> getRoleBits() {
+        Map<String, Integer> bits = new LinkedHashMap<>();
+        roleBits.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(e -> bits.put(e.getKey(), Long.numberOfTrailingZeros(e.getValue())));
+        return bits;
+    }
+
+    private Entry compile(Method method) {
+        RoleAllowed roleAllowed = AnnotatedElementUtils.findMergedAnnotation(method, RoleAllowed.class);
+        if (roleAllowed == null) {
+            roleAllowed = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), RoleAllowed.class);
+        }
+        boolean departmentRequired = AnnotatedElementUtils.hasAnnotation(method, DepartmentAccess.class)
+                || AnnotatedElementUtils.hasAnnotation(method.getDeclaringClass(), DepartmentAccess.class);
+
+        String[] roles = roleAllowed != null ? roleAllowed.value() : new String[0];
+        long mask = 0L;
+        for (String role : roles) {
+            mask |= assignBit(role);
+        }
+        String endpoint = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new Entry(endpoint, roleAllowed != null, roles.clone(), mask, departmentRequired);
+    }
+
+    private synchronized long assignBit(String role) {
+        Long bit = roleBits.get(role);
+        if (bit == null) {
+            if (roleBits.size() >= MAX_ROLES) {
+                throw new IllegalStateException("More than " + MAX_ROLES + " distinct roles in @RoleAllowed");
+            }
+            bit = 1L << roleBits.size();
+            roleBits.put(role, bit);
+        }
+        return bit;
+    }
+
+    /**
+     * Règle compilée d'une méthode et ses compteurs de décisions.
+     */
+    public static final class Entry {
+
+        private final String endpoint;
+        private final boolean roleRestricted;
+        private final String[] allowedRoles;
+        private final long allowedMask;
+        private final boolean departmentRequired;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder denied = new LongAdder();
+
+        private Entry(String endpoint, boolean roleRestricted, String[] allowedRoles, long allowedMask,
+                      boolean departmentRequired) {
+            this.endpoint = endpoint;
+            this.roleRestricted = roleRestricted;
+            this.allowedRoles = allowedRoles;
+            this.allowedMask = allowedMask;
+            this.departmentRequired = departmentRequired;
+        }
+
+        public boolean permits(long roleBit) {
+            return (allowedMask & roleBit) != 0;
+        }
+
+        public void recordAllowed() {
+            allowed.increment();
+        }
+
+        public void recordDenied() {
+            denied.increment();
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public boolean isRoleRestricted() {
+            return roleRestricted;
+        }
+
+        public boolean isDepartmentRequired() {
+            return departmentRequired;
+        }
+
+        public String describeRoles() {
+            return String.join(", ", allowedRoles);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.eam.common.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entrée du journal de révocations exposé par user-service ({@code GET /api/auth/revocations}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocationEvent {
+
+    /** Position croissante dans le journal, sert de curseur aux consommateurs. */
+    private long sequence;
+    private String jti;
+    /** Expiration du token révoqué, en epoch millis. */
+    private long expiresAt;
+}
@@ -0,0 +1,142 @@
+package com.eam.common.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Synchronise le {@link TokenRevocationRegistry} des services autres que user-service en
+ * lisant incrémentalement le journal de révocations ({@code jwt.revocation.feed-url}).
+ * <p>
+ * Un logout est ainsi pris en compte sur toutes les instances en au plus
+ * {@code jwt.revocation.poll-interval-ms}. Le journal n'est servi qu'aux services : chaque
+ * appel présente la clé partagée {@code jwt.revocation.feed-key} dans l'en-tête
+ * {@link #FEED_KEY_HEADER}. Inactif si l'URL ou la clé n'est pas configurée.
+ * <p>
+ * Chaque cycle relit d'abord par leur position ({@code ?ids=}) les révocations sautées que le
+ * registre attend encore, puis lit les nouvelles après la plus haute déjà appliquée.
+ */
+@Component
+public class RevocationFeedPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationFeedPoller.class);
+
+    public static final String FEED_KEY_HEADER = "X-Eam-Revocation-Key";
+
+    private static final ParameterizedTypeReference<List<RevocationEvent>> EVENT_LIST =
+            new ParameterizedTypeReference<>() { };
+
+    /** Positions relues par appel : garde l'URL {@code ?ids=} sous quelques kilo-octets. */
+    private static final int GAP_LOOKUP_SIZE = 200;
+
+    private final TokenRevocationRegistry registry;
+    private final String feedUrl;
+    private final String feedKey;
+    private final long pollIntervalMs;
+    private final int batchSize;
+    private final RestTemplate restTemplate = new RestTemplate();
+    private ScheduledExecutorService scheduler;
+
+    public RevocationFeedPoller(TokenRevocationRegistry registry,
+                                @Value("${jwt.revocation.feed-url:}") String feedUrl,
+                                @Value("${jwt.revocation.feed-key:}") String feedKey,
+                                @Value("${jwt.revocation.poll-interval-ms:5000}") long pollIntervalMs,
+                                @Value("${jwt.revocation.batch-size:500}") int batchSize) {
+        this.registry = registry;
+        this.feedUrl = feedUrl;
+        this.feedKey = feedKey;
+        this.pollIntervalMs = pollIntervalMs;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    void start() {
+        if (feedUrl.isEmpty()) {
+            return;
+        }
+        if (feedKey.isEmpty()) {
+            log.warn("jwt.revocation.feed-key is not set: token revocations from {} are not synchronised", feedUrl);
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revocation-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Polling token revocations from {} every {} ms", feedUrl, pollIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Vérifie en temps constant la clé présentée par un appelant du journal ; refuse tout
+     * appel si aucune clé n'est configurée.
+     */
+    public static boolean isFeedKeyValid(String expected, String presented) {
+        if (expected == null || expected.isEmpty() || presented == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void poll() {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(FEED_KEY_HEADER, feedKey);
+            HttpEntity<Void> request = new HttpEntity<>(headers);
+            List<Long> missing = registry.getMissingSequences();
+            for (int from = 0; from < missing.size(); from += GAP_LOOKUP_SIZE) {
+                String ids = missing.subList(from, Math.min(missing.size(), from + GAP_LOOKUP_SIZE)).stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(","));
+                apply(fetch(feedUrl + "?ids=" + ids, request));
+            }
+            List<RevocationEvent> events;
+            do {
+                events = fetch(feedUrl + "?since=" + registry.getSyncCursor() + "&limit=" + batchSize, request);
+                apply(events);
+            } while (events.size() >= batchSize);
+            registry.purgeExpired();
+        } catch (RestClientException e) {
+            log.warn("Token revocation feed unavailable: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            // Ne jamais laisser une erreur arrêter la tâche planifiée.
+            log.error("Token revocation sync failed", e);
+        }
+    }
+
+    private List<RevocationEvent> fetch(String url, HttpEntity<Void> request) {
+        List<RevocationEvent> events = restTemplate.exchange(url, HttpMethod.GET, request, EVENT_LIST).getBody();
+        return events != null ? events : List.of();
+    }
+
+    private void apply(List<RevocationEvent> events) {
+        for (RevocationEvent event : events) {
+            registry.apply(event.getSequence(), event.getJti(), event.getExpiresAt());
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.eam.common.security;
+
+import com.eam.common.feed.SequenceGaps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Registre local des jti révoqués, alimenté par le journal de révocations de user-service.
+ * <p>
+ * Chaque entrée vit jusqu'à l'expiration du token qu'elle révoque : au-delà, le token est
+ * refusé par le parseur de toute façon. La mémoire est donc bornée par le nombre de logouts
+ * sur une durée de vie de token, et {@link #purgeExpired()} la libère.
+ * <p>
+ * Un filtre de Bloom précède la table : le cas courant (token non révoqué) se résout par
+ * quelques lectures de bits, sans verrou ni allocation. Seuls les positifs du filtre
+ * consultent la table. Les écritures (logout, synchronisation) sont rares et sérialisées.
+ * <p>
+ * Les positions du journal sont des IDENTITY validées dans le désordre par des logouts
+ * concurrents : une position sautée reste attendue ({@link #getMissingSequences()}) jusqu'à
+ * sa lecture ou {@code jwt.revocation.gap-timeout-ms}, quel que soit son retard.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private static final int HASH_FUNCTIONS = 7;
+    /**
+     * Écart maximal suivi derrière une révocation lue : bien au-delà du nombre de logouts
+     * validés pendant la plus longue transaction de révocation.
+     */
+    private static final long GAP_WINDOW = 1000;
+
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final int initialCapacity;
+    private volatile BloomFilter filter;
+    private final SequenceGaps gaps;
+
+    private final LongAdder filterRejects = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder revokedHits = new LongAdder();
+
+    @Autowired
+    public TokenRevocationRegistry(@Value("${jwt.revocation.expected-entries:65536}") int expectedEntries,
+                                   @Value("${jwt.revocation.gap-timeout-ms:60000}") long gapTimeoutMs) {
+        this(expectedEntries, gapTimeoutMs, System::currentTimeMillis);
+    }
+
+    TokenRevocationRegistry(int expectedEntries, long gapTimeoutMs, LongSupplier clock) {
+        this.initialCapacity = Math.max(1024, expectedEntries);
+        this.filter = new BloomFilter(initialCapacity);
+        this.gaps = new SequenceGaps(GAP_WINDOW, gapTimeoutMs, clock);
+    }
+
+    /**
+     * Vrai si le jti a été révoqué et que le token correspondant n'a pas encore expiré.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (!filter.mightContain(jti)) {
+            filterRejects.increment();
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        if (expiresAt == null || expiresAt <= System.currentTimeMillis()) {
+            falsePositives.increment();
+            return false;
+        }
+        revokedHits.increment();
+        return true;
+    }
+
+    /**
+     * Enregistre une révocation ; ignorée si le token a déjà expiré.
+     */
+    public void revoke(String jti, long expiresAt) {
+        if (jti == null || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (this) {
+            revoked.merge(jti, expiresAt, Math::max);
+            if (revoked.size() > filter.capacity) {
+                rebuild(filter.capacity * 2);
+            } else {
+                filter.put(jti);
+            }
+        }
+    }
+
+    /**
+     * Applique une révocation lue dans le journal, nouvelle ou comblant une position attendue.
+     */
+    public void apply(long sequence, String jti, long expiresAt) {
+        revoke(jti, expiresAt);
+        synchronized (gaps) {
+            gaps.record(sequence);
+        }
+    }
+
+    /**
+     * Position sous laquelle tout le journal a été appliqué ou abandonné (0 avant la première
+     * synchronisation).
+     */
+    public long getLastSequence() {
+        synchronized (gaps) {
+            return gaps.getPosition();
+        }
+    }
+
+    /**
+     * Position après laquelle lire les révocations nouvelles : la plus haute déjà appliquée.
+     */
+    public long getSyncCursor() {
+        synchronized (gaps) {
+            return gaps.getHighest();
+        }
+    }
+
+    /**
+     * Positions sautées sous {@link #getSyncCursor()} à relire une à une, une fois abandonnées
+     * celles attendues depuis plus de {@code jwt.revocation.gap-timeout-ms}.
+     */
+    public List<Long> getMissingSequences() {
+        synchronized (gaps) {
+            gaps.expire();
+            return gaps.getMissing();
+        }
+    }
+
+    /**
+     * Supprime les révocations de tokens expirés et reconstruit le filtre, qui ne sait pas
+     * retirer d'éléments. Le filtre est redimensionné sur la taille restante pour que
+     * sa mémoire suive la table au lieu de ne faire que croître.
+     */
+    public synchronized int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        int removed = before - revoked.size();
+        if (removed > 0) {
+            int capacity = initialCapacity;
+            while (capacity < revoked.size() * 2) {
+                capacity *= 2;
+            }
+            rebuild(capacity);
+            log.debug("Purged {} expired revocations, {} remaining", removed, revoked.size());
+        }
+        return removed;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", revoked.size());
+        stats.put("filterCapacity", filter.capacity);
+        synchronized (gaps) {
+            stats.put("lastSequence", gaps.getPosition());
+            stats.put("openGaps", gaps.size());
+        }
+        stats.put("filterRejects", filterRejects.sum());
+        stats.put("falsePositives", falsePositives.sum());
+        stats.put("revokedHits", revokedHits.sum());
+        return stats;
+    }
+
+    private void rebuild(int capacity) {
+        BloomFilter rebuilt = new BloomFilter(capacity);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    /**
+     * Filtre de Bloom à ~1 % de faux positifs pour {@code capacity} éléments
+     * (environ 10 bits par élément, 7 fonctions par double hachage).
+     */
+    private static final class BloomFilter {
+
+        private final int capacity;
+        private final long bitCount;
+        private final AtomicLongArray bits;
+
+        BloomFilter(int capacity) {
+            this.capacity = capacity;
+            int words = (int) Math.max(1, ((long) capacity * 10 + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+        }
+
+        void put(String value) {
+            int h1 = value.hashCode();
+            int h2 = secondHash(value);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            int h1 = value.hashCode();
+            int h2 = secondHash(value);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = index(h1 + i * h2);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(int hash) {
+            return (hash & 0x7fffffffL) % bitCount;
+        }
+
+        private static int secondHash(String value) {
+            int h = 0x811c9dc5;
+            for (int i = 0; i < value.length(); i++) {
+                h = (h ^ value.charAt(i)) * 0x01000193;
+            }
+            return h | 1;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.eam.common.web;
+
+import com.eam.common.security.DepartmentScope;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Active le filtre {@link DepartmentScope#FILTER} sur la session de la requête pour tout
+ * utilisateur non ADMIN : les lignes des autres départements ne sont ni lues ni hydratées.
+ * <p>
+ * S'appuie sur l'EntityManager lié à la requête par open-in-view ; l'intercepteur est donc
+ * enregistré après celui d'open-in-view. Sans principal, ou dans un service dont aucune
+ * entité ne déclare le filtre, il ne fait rien. Un non-ADMIN sans département ne voit rien.
+ * Si le filtre ne peut pas être activé (pas d'EntityManager lié à la requête), la requête
+ * d'un non-ADMIN est refusée plutôt que servie sans cloisonnement.
+ */
+@Component
+public class DepartmentFilterInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(DepartmentFilterInterceptor.class);
+
+    private final JwtUtil jwtUtil;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactories;
+    private volatile Boolean filterDefined;
+
+    public DepartmentFilterInterceptor(JwtUtil jwtUtil, ObjectProvider<EntityManagerFactory> entityManagerFactories) {
+        this.jwtUtil = jwtUtil;
+        this.entityManagerFactories = entityManagerFactories;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).order(Ordered.LOWEST_PRECEDENCE);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        JwtPrincipal principal = jwtUtil.resolvePrincipal(request);
+        if (principal == null || principal.isAdmin()) {
+            return true;
+        }
+        EntityManagerFactory emf = entityManagerFactories.getIfUnique();
+        if (emf == null || !isFilterDefined(emf)) {
+            return true;
+        }
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em == null) {
+            log.warn("No request-bound EntityManager (open-in-view disabled?); denying {} {} for a non-admin",
+                    request.getMethod(), request.getRequestURI());
+            throw new AccessDeniedException("Department scope cannot be applied to this request.");
+        }
+        String department = principal.getDepartment();
+        em.unwrap(Session.class)
+                .enableFilter(DepartmentScope.FILTER)
+                .setParameter(DepartmentScope.PARAMETER, department != null ? department : "");
+        return true;
+    }
+
+    private boolean isFilterDefined(EntityManagerFactory emf) {
+        Boolean defined = filterDefined;
+        if (defined == null) {
+            defined = emf.unwrap(SessionFactory.class).getDefinedFilterNames().contains(DepartmentScope.FILTER);
+            filterDefined = defined;
+        }
+        return defined;
+    }
+}
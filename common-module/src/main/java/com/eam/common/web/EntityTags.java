@@ -0,0 +1,151 @@
+package com.eam.common.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * ETags dérivés des colonnes {@code @Version}, sans sérialiser la réponse.
+ * <p>
+ * Une ressource a pour ETag {@code "id-version"} ; une collection, une empreinte des couples
+ * (id, version) qu'elle contient. Avec If-None-Match, l'empreinte est lue par une requête légère
+ * et un GET qui correspond renvoie 304 sans charger ni sérialiser les entités ; sans en-tête, elle
+ * est calculée sur les entités chargées, sans requête de plus. Une mise à jour doit désigner la
+ * version modifiée : If-Match périmé, {@link PreconditionFailedException} (412) ; ni If-Match ni
+ * version, {@link PreconditionRequiredException} (428).
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String of(Object id, Long version) {
+        return "\"" + id + "-" + (version != null ? version : 0) + "\"";
+    }
+
+    /**
+     * Empreinte d'une collection à partir de lignes {@code [id, version]} ; {@code variant}
+     * distingue plusieurs représentations d'une même collection (ex. sélection de champs).
+     */
+    public static String ofCollection(List<Object[]> idVersions, String variant) {
+        return ofItems(idVersions, row -> row[0], row -> row[1], variant);
+    }
+
+    /**
+     * Même empreinte que {@link #ofCollection}, calculée sur des éléments déjà chargés.
+     */
+    public static <T> String ofItems(Collection<T> items, Function<? super T, ?> id, Function<? super T, ?> version,
+                                     String variant) {
+        long hash = 0x9E3779B97F4A7C15L;
+        if (variant != null) {
+            hash = mix(hash ^ variant.hashCode());
+        }
+        long sum = 0;
+        for (T item : items) {
+            Object itemVersion = version.apply(item);
+            // Somme de hachés : l'empreinte ne dépend pas de l'ordre des lignes
+            sum += mix(mix(((Number) id.apply(item)).longValue())
+                    ^ (itemVersion != null ? ((Number) itemVersion).longValue() : 0));
+        }
+        return "\"c" + items.size() + "-" + Long.toHexString(mix(hash ^ sum)) + "\"";
+    }
+
+    /**
+     * Vrai si l'en-tête (If-None-Match ou If-Match, liste éventuelle) désigne l'ETag.
+     * La comparaison est faible : le préfixe {@code W/} est ignoré.
+     */
+    public static boolean matches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 304 si le client a déjà cette version, sinon 200 avec le corps et l'ETag.
+     * Le corps n'est produit que dans le second cas.
+     */
+    public static <T> ResponseEntity<T> conditional(String ifNoneMatch, String etag, Supplier<T> body) {
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(body.get());
+    }
+
+    /**
+     * GET conditionnel sur une collection d'entités. La requête légère {@code idVersions} n'est
+     * faite qu'en présence d'un If-None-Match ; sinon (ou s'il ne correspond plus) la collection
+     * est chargée et son ETag calculé sur les entités lues.
+     */
+    public static <T> ResponseEntity<List<T>> conditionalCollection(String ifNoneMatch, Supplier<List<Object[]>> idVersions,
+                                                                  Supplier<List<T>> body, Function<? super T, ?> id,
+                                                                  Function<? super T, ?> version) {
+        if (ifNoneMatch != null) {
+            String etag = ofCollection(idVersions.get(), null);
+            if (matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        List<T> items = body.get();
+        return ResponseEntity.ok().eTag(ofItems(items, id, version, null)).body(items);
+    }
+
+    /**
+     * Version que la mise à jour doit respecter : celle de l'If-Match (vérifiée contre la version
+     * courante), sinon celle envoyée dans le corps, vérifiée par le verrou optimiste à l'écriture.
+     *
+     * @throws PreconditionFailedException   si l'If-Match ne désigne pas la version courante
+     * @throws PreconditionRequiredException si le client n'envoie ni If-Match ni version
+     */
+    public static Long requireVersion(String ifMatch, Long bodyVersion, Object id, Long currentVersion) {
+        if (ifMatch != null) {
+            return checkIfMatch(ifMatch, id, currentVersion);
+        }
+        if (bodyVersion == null) {
+            throw new PreconditionRequiredException("Updating resource " + id + " requires If-Match or a version");
+        }
+        return bodyVersion;
+    }
+
+    /**
+     * Version attendue par un If-Match, vérifiée contre la version courante de la ressource.
+     * Renvoie null sans If-Match.
+     *
+     * @throws PreconditionFailedException si l'If-Match ne désigne pas la version courante
+     */
+    public static Long checkIfMatch(String ifMatch, Object id, Long currentVersion) {
+        if (ifMatch == null) {
+            return null;
+        }
+        String current = of(id, currentVersion);
+        if (!matches(ifMatch, current)) {
+            throw new PreconditionFailedException("Resource " + id + " was modified: current ETag is " + current);
+        }
+        return currentVersion;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93fe53a87d3L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
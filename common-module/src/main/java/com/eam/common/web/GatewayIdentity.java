@@ -0,0 +1,136 @@
+package com.eam.common.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Mode « confiance gateway » : lit l'identité que l'api-gateway a extraite du JWT et signée
+ * en HMAC-SHA256 ({@code JwtIdentityGlobalFilter}). Une vérification HMAC sur quelques
+ * octets remplace alors le parsing complet du JWT.
+ * <p>
+ * Désactivé par défaut ; activer avec {@code gateway.identity.trusted=true} et le même
+ * {@code gateway.identity.secret} que la gateway.
+ */
+@Component
+public class GatewayIdentity {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayIdentity.class);
+
+    public static final String HEADER_USER_ID = "X-Eam-User-Id";
+    public static final String HEADER_EMAIL = "X-Eam-Email";
+    public static final String HEADER_ROLE = "X-Eam-Role";
+    public static final String HEADER_DEPARTMENT = "X-Eam-Department";
+    public static final String HEADER_JTI = "X-Eam-Jti";
+    public static final String HEADER_EXPIRES = "X-Eam-Expires";
+    public static final String HEADER_SIGNATURE = "X-Eam-Identity-Signature";
+
+    private final boolean trusted;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    public GatewayIdentity(@Value("${gateway.identity.trusted:false}") boolean trusted,
+                           @Value("${gateway.identity.secret:}") String secret) {
+        this.trusted = trusted && !secret.isEmpty();
+        if (trusted && secret.isEmpty()) {
+            log.warn("gateway.identity.trusted is set but gateway.identity.secret is empty; trusted mode disabled");
+        }
+        this.key = this.trusted ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256") : null;
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    public boolean isTrusted() {
+        return trusted;
+    }
+
+    /**
+     * Vrai si la requête porte une identité posée par la gateway (signée ou non).
+     */
+    public boolean isPresent(HttpServletRequest request) {
+        return trusted && request.getHeader(HEADER_SIGNATURE) != null;
+    }
+
+    /**
+     * Principal issu des en-têtes gateway, ou {@code null} si la signature ne correspond pas,
+     * si le token d'origine a expiré ou si un en-tête est mal formé.
+     */
+    public JwtPrincipal fromHeaders(HttpServletRequest request) {
+        String signature = request.getHeader(HEADER_SIGNATURE);
+        if (!trusted || signature == null) {
+            return null;
+        }
+        String userId = header(request, HEADER_USER_ID);
+        String email = header(request, HEADER_EMAIL);
+        String role = header(request, HEADER_ROLE);
+        String department = header(request, HEADER_DEPARTMENT);
+        String jti = header(request, HEADER_JTI);
+        String expires = header(request, HEADER_EXPIRES);
+        String payload = String.join("\n", userId, email, role, department, jti, expires);
+
+        Mac hmac = mac.get();
+        byte[] expected = hmac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            actual = new byte[0];
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            log.warn("Rejected gateway identity headers with an invalid signature");
+            return null;
+        }
+
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(expires);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            return null;
+        }
+        String decodedUserId = decode(userId);
+        Long parsedUserId;
+        try {
+            parsedUserId = decodedUserId != null ? Long.valueOf(decodedUserId) : null;
+        } catch (NumberFormatException e) {
+            // Claim userId non numérique : en-têtes traités comme invalides, pas comme une erreur 500
+            log.warn("Rejected gateway identity headers with a non-numeric user id");
+            return null;
+        }
+        return new JwtPrincipal(
+                decode(email),
+                decode(role),
+                decode(department),
+                parsedUserId,
+                decode(jti),
+                expiresAt);
+    }
+
+    private static String header(HttpServletRequest request, String name) {
+        String value = request.getHeader(name);
+        return value != null ? value : "";
+    }
+
+    private static String decode(String value) {
+        return value.isEmpty() ? null : URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,44 @@
+package com.eam.common.web;
+
+import com.eam.common.enums.DepartmentType;
+import lombok.Value;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * Identité extraite d'un JWT dont la signature a déjà été vérifiée.
+ * Immuable : une seule instance est partagée par toutes les lectures d'une même requête.
+ */
+@Value
+public class JwtPrincipal implements Principal, Serializable {
+
+    String email;
+    String role;
+    String department;
+    Long userId;
+    String jti;
+    /** Expiration du token en epoch millis ({@link Long#MAX_VALUE} si absente). */
+    long expiresAt;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean hasRole(String expected) {
+        return role != null && role.equals(expected);
+    }
+
+    public boolean isAdmin() {
+        return hasRole("ADMIN");
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt <= nowMillis;
+    }
+
+    public DepartmentType getDepartmentType() {
+        return department != null ? DepartmentType.valueOf(department) : null;
+    }
+}
@@ -1,53 +1,262 @@
 package com.eam.common.web;
 
+import com.eam.common.security.TokenRevocationRegistry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Vérifie les JWT et expose l'identité sous forme de {@link JwtPrincipal}.
+ * <p>
+ * Un token n'est vérifié (HMAC + parsing) qu'une fois par requête : le principal est
+ * conservé comme attribut de requête. Entre requêtes, un cache borné indexé par l'empreinte
+ * SHA-256 du token évite de refaire la crypto tant que le token n'a pas expiré.
+ * En mode confiance gateway ({@link GatewayIdentity}), l'identité signée par l'api-gateway
+ * est utilisée et le JWT n'est pas parsé du tout. Dans les deux cas, le jti est confronté
+ * au {@link TokenRevocationRegistry} : {@link #parseToken} refuse lui-même un token révoqué,
+ * y compris s'il est en cache, pour qu'aucun appelant ne puisse contourner la révocation.
+ */
 @Component
 public class JwtUtil {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
+    public static final String PRINCIPAL_ATTRIBUTE = JwtUtil.class.getName() + ".PRINCIPAL";
+    private static final Object NO_PRINCIPAL = new Object();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
     @Value("${jwt.secret:mySecretKey}")
     private String jwtSecret;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Autowired(required = false)
+    private GatewayIdentity gatewayIdentity;
+
+    @Autowired(required = false)
+    private TokenRevocationRegistry revocationRegistry;
+
+    private volatile JwtParser parser;
+
+    private final ConcurrentHashMap<String, JwtPrincipal> verifiedTokens = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
+
     private SecretKey getSigningKey() {
         byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            synchronized (this) {
+                current = parser;
+                if (current == null) {
+                    current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+                    parser = current;
+                }
+            }
+        }
+        return current;
+    }
+
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return getParser().parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Retourne le principal d'un token vérifié, depuis le cache si possible.
+     *
+     * @throws JwtException si le token est invalide, expiré ou révoqué
+     */
+    public JwtPrincipal parseToken(String token) {
+        String key = digest(token);
+        JwtPrincipal cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(System.currentTimeMillis())) {
+                cacheHits.increment();
+                return checkNotRevoked(key, cached);
+            }
+            verifiedTokens.remove(key, cached);
+        }
+        cacheMisses.increment();
+        JwtPrincipal principal = toPrincipal(getAllClaimsFromToken(token));
+        if (verifiedTokens.size() >= cacheMaxSize) {
+            evict();
+        }
+        verifiedTokens.put(key, principal);
+        return checkNotRevoked(key, principal);
+    }
+
+    private JwtPrincipal checkNotRevoked(String key, JwtPrincipal principal) {
+        if (isRevoked(principal)) {
+            verifiedTokens.remove(key, principal);
+            throw new JwtException("Token revoked");
+        }
+        return principal;
+    }
+
+    private boolean isRevoked(JwtPrincipal principal) {
+        return revocationRegistry != null && revocationRegistry.isRevoked(principal.getJti());
+    }
+
+    /**
+     * Résout le principal de la requête ; le résultat (y compris l'absence de token valide)
+     * est mémorisé sur la requête pour que l'aspect et les contrôleurs ne re-vérifient pas.
+     */
+    public JwtPrincipal resolvePrincipal(HttpServletRequest request) {
+        Object attribute = request.getAttribute(PRINCIPAL_ATTRIBUTE);
+        if (attribute != null) {
+            return attribute == NO_PRINCIPAL ? null : (JwtPrincipal) attribute;
+        }
+        JwtPrincipal principal = null;
+        String token = extractBearerToken(request);
+        if (gatewayIdentity != null && gatewayIdentity.isPresent(request)) {
+            principal = gatewayIdentity.fromHeaders(request);
+            if (principal != null && isRevoked(principal)) {
+                log.debug("Rejected revoked token jti={}", principal.getJti());
+                principal = null;
+            }
+        } else if (token != null) {
+            try {
+                principal = parseToken(token);
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Rejected bearer token: {}", e.getMessage());
+            }
+        }
+        bindPrincipal(request, principal);
+        return principal;
+    }
+
+    /**
+     * Enregistre le résultat d'une authentification faite en amont (filtre de sécurité),
+     * {@code null} signifiant « pas d'identité valide » : {@link #resolvePrincipal} ne re-parse pas.
+     */
+    public static void bindPrincipal(HttpServletRequest request, JwtPrincipal principal) {
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal != null ? principal : NO_PRINCIPAL);
+    }
+
+    /**
+     * Principal de la requête HTTP courante, ou {@code null} hors requête / sans token valide.
+     */
+    public JwtPrincipal currentPrincipal() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        return resolvePrincipal(servletAttributes.getRequest());
     }
 
     public String getEmailFromToken(String token) {
-        return getAllClaimsFromToken(token).getSubject();
+        return parseToken(token).getEmail();
     }
 
     public String getRoleFromToken(String token) {
-        return getAllClaimsFromToken(token).get("role", String.class);
+        return parseToken(token).getRole();
     }
 
     public String getDepartmentFromToken(String token) {
-        return getAllClaimsFromToken(token).get("department", String.class);
+        return parseToken(token).getDepartment();
     }
 
     public Long getUserIdFromToken(String token) {
-        Object id = getAllClaimsFromToken(token).get("userId");
+        return parseToken(token).getUserId();
+    }
+
+    public String getJtiFromToken(String token) {
+        return parseToken(token).getJti();
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", verifiedTokens.size());
+        stats.put("maxSize", cacheMaxSize);
+        stats.put("hits", cacheHits.sum());
+        stats.put("misses", cacheMisses.sum());
+        stats.put("evictions", cacheEvictions.sum());
+        return stats;
+    }
+
+    public static String extractBearerToken(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        return authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+    }
+
+    public static JwtPrincipal toPrincipal(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new JwtPrincipal(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("department", String.class),
+                toLong(claims.get("userId")),
+                claims.getId(),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+    }
+
+    private static Long toLong(Object id) {
         if (id instanceof Integer) return ((Integer) id).longValue();
         if (id instanceof Long) return (Long) id;
         if (id instanceof String) return Long.valueOf((String) id);
         return null;
     }
 
-    public String getJtiFromToken(String token) {
-        return getAllClaimsFromToken(token).getId();
+    /**
+     * Purge d'abord les entrées expirées ; si le cache reste plein, libère un dixième
+     * des entrées pour que la prochaine vague d'insertions ne repasse pas ici aussitôt.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(p -> {
+            boolean expired = p.isExpired(now);
+            if (expired) cacheEvictions.increment();
+            return expired;
+        });
+        int excess = verifiedTokens.size() - cacheMaxSize + Math.max(1, cacheMaxSize / 10);
+        Iterator<String> keys = verifiedTokens.keySet().iterator();
+        while (excess-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            cacheEvictions.increment();
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        return Base64.getEncoder().encodeToString(md.digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 }
@@ -0,0 +1,16 @@
+package com.eam.common.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Mise à jour sans version ni If-Match : le client doit dire quelle version il modifie,
+ * sinon il écraserait à l'aveugle une modification concurrente. Réponse 428.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_REQUIRED)
+public class PreconditionRequiredException extends RuntimeException {
+
+    public PreconditionRequiredException(String message) {
+        super(message);
+    }
+}
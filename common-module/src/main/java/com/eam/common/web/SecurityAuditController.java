@@ -0,0 +1,38 @@
+package com.eam.common.web;
+
+import com.eam.common.security.PermissionTable;
+import com.eam.common.security.RoleAllowed;
+import com.eam.common.security.TokenRevocationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Audit de la sécurité d'un service : table des permissions compilée, décisions par endpoint,
+ * cache des tokens vérifiés et registre des révocations.
+ */
+@RestController
+@RequestMapping("/api/security")
+@RequiredArgsConstructor
+public class SecurityAuditController {
+
+    private final PermissionTable permissionTable;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationRegistry revocationRegistry;
+
+    @GetMapping("/permissions")
+    @RoleAllowed({"ADMIN"})
+    public ResponseEntity<Map<String, Object>> getPermissions() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("roles", permissionTable.getRoleBits());
+        body.put("endpoints", permissionTable.describe());
+        body.put("tokenCache", jwtUtil.getCacheStats());
+        body.put("revocations", revocationRegistry.getStats());
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,135 @@
+package com.eam.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationRegistryTest {
+
+    private static final long HOUR = 3_600_000;
+    private static final long GAP_TIMEOUT_MS = 60_000;
+
+    @Test
+    void answersForRevokedAndUnknownTokens() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(1024, GAP_TIMEOUT_MS);
+        registry.revoke("revoked", System.currentTimeMillis() + HOUR);
+
+        assertThat(registry.isRevoked("revoked")).isTrue();
+        assertThat(registry.isRevoked("other")).isFalse();
+        assertThat(registry.isRevoked(null)).isFalse();
+        assertThat(registry.getStats()).containsEntry("entries", 1).containsEntry("revokedHits", 1L);
+    }
+
+    @Test
+    void ignoresRevocationsOfExpiredTokens() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(1024, GAP_TIMEOUT_MS);
+        registry.revoke("expired", System.currentTimeMillis() - 1);
+
+        assertThat(registry.isRevoked("expired")).isFalse();
+        assertThat(registry.getStats()).containsEntry("entries", 0);
+    }
+
+    @Test
+    void bloomFilterAnswersMostUnknownTokensWithoutTheTable() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(1024, GAP_TIMEOUT_MS);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        for (int i = 0; i < 1000; i++) {
+            registry.revoke("revoked-" + i, expiresAt);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(registry.isRevoked("unknown-" + i)).isFalse();
+        }
+
+        // About 1 % false positives at capacity; leave room for hash variance
+        long falsePositives = (Long) registry.getStats().get("falsePositives");
+        assertThat(falsePositives).isLessThan(300);
+        assertThat((Long) registry.getStats().get("filterRejects")).isEqualTo(10_000 - falsePositives);
+    }
+
+    @Test
+    void growsTheFilterPastItsCapacityWithoutLosingEntries() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(1024, GAP_TIMEOUT_MS);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        for (int i = 0; i < 3000; i++) {
+            registry.revoke("revoked-" + i, expiresAt);
+        }
+
+        assertThat((Integer) registry.getStats().get("filterCapacity")).isGreaterThanOrEqualTo(3000);
+        for (int i = 0; i < 3000; i++) {
+            assertThat(registry.isRevoked("revoked-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void purgeDropsExpiredEntriesAndShrinksTheFilter() throws InterruptedException {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(1024, GAP_TIMEOUT_MS);
+        long soon = System.currentTimeMillis() + 200;
+        for (int i = 0; i < 3000; i++) {
+            registry.revoke("short-" + i, soon);
+        }
+        registry.revoke("long", System.currentTimeMillis() + HOUR);
+
+        Thread.sleep(250);
+
+        assertThat(registry.isRevoked("short-1")).isFalse();
+        assertThat(registry.purgeExpired()).isEqualTo(3000);
+        assertThat(registry.getStats()).containsEntry("entries", 1).containsEntry("filterCapacity", 1024);
+        assertThat(registry.isRevoked("long")).isTrue();
+        assertThat(registry.purgeExpired()).isZero();
+    }
+
+    @Test
+    void readsPastEachPageWhateverItsSize() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(1024, GAP_TIMEOUT_MS);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+
+        // A page smaller than any re-read window must still move the cursor forward
+        for (long sequence = 1; sequence <= 10; sequence++) {
+            registry.apply(sequence, "jti-" + sequence, expiresAt);
+            assertThat(registry.getSyncCursor()).isEqualTo(sequence);
+        }
+        assertThat(registry.getLastSequence()).isEqualTo(10);
+        assertThat(registry.getMissingSequences()).isEmpty();
+    }
+
+    @Test
+    void waitsForARevocationCommittedFarBehindTheCursor() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(1024, GAP_TIMEOUT_MS);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+
+        // Sequence 5 commits after 96 later logouts
+        for (long sequence = 1; sequence <= 101; sequence++) {
+            if (sequence != 5) {
+                registry.apply(sequence, "jti-" + sequence, expiresAt);
+            }
+        }
+        assertThat(registry.getSyncCursor()).isEqualTo(101);
+        assertThat(registry.getLastSequence()).isEqualTo(4);
+        assertThat(registry.getMissingSequences()).containsExactly(5L);
+
+        registry.apply(5, "late", expiresAt);
+        assertThat(registry.isRevoked("late")).isTrue();
+        assertThat(registry.getLastSequence()).isEqualTo(101);
+        assertThat(registry.getMissingSequences()).isEmpty();
+        assertThat(registry.getStats()).containsEntry("openGaps", 0);
+    }
+
+    @Test
+    void givesUpASkippedSequenceAfterTheGapTimeout() {
+        AtomicLong clock = new AtomicLong(1_000_000);
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(1024, GAP_TIMEOUT_MS, clock::get);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        registry.apply(1, "a", expiresAt);
+        registry.apply(3, "c", expiresAt);
+
+        clock.addAndGet(GAP_TIMEOUT_MS - 1);
+        assertThat(registry.getMissingSequences()).containsExactly(2L);
+
+        clock.addAndGet(1);
+        assertThat(registry.getMissingSequences()).isEmpty();
+        assertThat(registry.getLastSequence()).isEqualTo(3);
+    }
+}
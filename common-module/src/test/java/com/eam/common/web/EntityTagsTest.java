@@ -0,0 +1,109 @@
+package com.eam.common.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EntityTagsTest {
+
+    private record Item(Long id, Long version) {
+    }
+
+    @Test
+    void tagsAResourceByIdAndVersion() {
+        assertThat(EntityTags.of(12L, 3L)).isEqualTo("\"12-3\"");
+        assertThat(EntityTags.of(12L, null)).isEqualTo("\"12-0\"");
+    }
+
+    @Test
+    void collectionTagIsTheSameFromRowsOrLoadedItemsAndIgnoresOrder() {
+        List<Item> items = List.of(new Item(1L, 0L), new Item(2L, 4L), new Item(3L, null));
+        List<Object[]> rows = List.of(new Object[]{3L, null}, new Object[]{1L, 0L}, new Object[]{2L, 4L});
+
+        String fromItems = EntityTags.ofItems(items, Item::id, Item::version, null);
+
+        assertThat(EntityTags.ofCollection(rows, null)).isEqualTo(fromItems);
+        assertThat(EntityTags.ofCollection(rows, "nom,statut")).isNotEqualTo(fromItems);
+    }
+
+    @Test
+    void collectionTagChangesWithAnyVersionOrMembership() {
+        List<Object[]> rows = List.of(new Object[]{1L, 0L}, new Object[]{2L, 4L});
+        String before = EntityTags.ofCollection(rows, null);
+
+        List<Object[]> bumped = List.of(new Object[]{1L, 1L}, new Object[]{2L, 4L});
+        List<Object[]> removed = List.<Object[]>of(new Object[]{1L, 0L});
+
+        assertThat(EntityTags.ofCollection(bumped, null)).isNotEqualTo(before);
+        assertThat(EntityTags.ofCollection(removed, null)).isNotEqualTo(before);
+    }
+
+    @Test
+    void matchesListsWeakTagsAndWildcard() {
+        String etag = EntityTags.of(5L, 2L);
+
+        assertThat(EntityTags.matches("\"5-1\", \"5-2\"", etag)).isTrue();
+        assertThat(EntityTags.matches("W/\"5-2\"", etag)).isTrue();
+        assertThat(EntityTags.matches("*", etag)).isTrue();
+        assertThat(EntityTags.matches("\"5-1\"", etag)).isFalse();
+        assertThat(EntityTags.matches(null, etag)).isFalse();
+    }
+
+    @Test
+    void unconditionalCollectionGetSkipsTheVersionQuery() {
+        AtomicInteger versionQueries = new AtomicInteger();
+        List<Item> items = List.of(new Item(1L, 0L), new Item(2L, 1L));
+
+        ResponseEntity<List<Item>> response = EntityTags.conditionalCollection(null,
+                counting(versionQueries, List.of()), () -> items, Item::id, Item::version);
+
+        assertThat(versionQueries.get()).isZero();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(items);
+        assertThat(response.getHeaders().getETag()).isEqualTo(EntityTags.ofItems(items, Item::id, Item::version, null));
+    }
+
+    @Test
+    void conditionalCollectionGetAnswers304WithoutLoadingTheBody() {
+        List<Object[]> rows = List.of(new Object[]{1L, 0L}, new Object[]{2L, 1L});
+        String etag = EntityTags.ofCollection(rows, null);
+        AtomicInteger bodyLoads = new AtomicInteger();
+
+        ResponseEntity<List<Item>> notModified = EntityTags.conditionalCollection(etag, () -> rows,
+                counting(bodyLoads, List.<Item>of()), Item::id, Item::version);
+        ResponseEntity<List<Item>> stale = EntityTags.conditionalCollection("\"c2-0\"", () -> rows,
+                counting(bodyLoads, List.of(new Item(1L, 0L), new Item(2L, 1L))), Item::id, Item::version);
+
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(stale.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(bodyLoads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void updatesMustNameTheVersionTheyChange() {
+        assertThat(EntityTags.requireVersion("\"9-4\"", null, 9L, 4L)).isEqualTo(4L);
+        assertThat(EntityTags.requireVersion("*", null, 9L, 4L)).isEqualTo(4L);
+        assertThat(EntityTags.requireVersion(null, 3L, 9L, 4L)).isEqualTo(3L);
+
+        assertThatThrownBy(() -> EntityTags.requireVersion("\"9-3\"", 4L, 9L, 4L))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> EntityTags.requireVersion(null, null, 9L, 4L))
+                .isInstanceOf(PreconditionRequiredException.class);
+    }
+
+    private static <T> Supplier<T> counting(AtomicInteger calls, T value) {
+        return () -> {
+            calls.incrementAndGet();
+            return value;
+        };
+    }
+}
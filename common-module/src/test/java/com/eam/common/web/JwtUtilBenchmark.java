@@ -0,0 +1,77 @@
+package com.eam.common.web;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'une authentification : vérification complète du JWT (HMAC + parsing) contre une lecture
+ * du cache de {@link JwtUtil}. Lancer {@link #main} depuis l'IDE, ou :
+ * <pre>
+ * mvn -pl common-module test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.eam.common.web.JwtUtilBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final byte[] KEY = new byte[64];
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", Base64.getEncoder().encodeToString(KEY));
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 10_000);
+        token = Jwts.builder()
+                .setSubject("bench@example.com")
+                .claim("role", "TECHNICIEN")
+                .claim("userId", 1)
+                .claim("department", "PRODUCTION")
+                .setId("bench")
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(KEY), SignatureAlgorithm.HS512)
+                .compact();
+        jwtUtil.parseToken(token);
+    }
+
+    /** Ce que coûtait chaque lecture d'un claim avant le cache. */
+    @Benchmark
+    public JwtPrincipal fullVerification() {
+        return JwtUtil.toPrincipal(jwtUtil.getAllClaimsFromToken(token));
+    }
+
+    @Benchmark
+    public JwtPrincipal cachedVerification() {
+        return jwtUtil.parseToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+}
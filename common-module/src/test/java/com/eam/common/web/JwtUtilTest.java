@@ -0,0 +1,126 @@
+package com.eam.common.web;
+
+import com.eam.common.security.TokenRevocationRegistry;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+    private static final long HOUR = 3_600_000;
+
+    private JwtUtil jwtUtil;
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new TokenRevocationRegistry(1024, 60_000);
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 10);
+        ReflectionTestUtils.setField(jwtUtil, "revocationRegistry", registry);
+    }
+
+    @Test
+    void verifiesATokenOnceAndThenServesItFromTheCache() {
+        String token = token("jti-1", "alice@example.com", "CHEFOP");
+
+        JwtPrincipal first = jwtUtil.parseToken(token);
+        JwtPrincipal second = jwtUtil.parseToken(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getEmail()).isEqualTo("alice@example.com");
+        assertThat(first.getRole()).isEqualTo("CHEFOP");
+        assertThat(first.getUserId()).isEqualTo(7L);
+        assertThat(first.getDepartment()).isEqualTo("PRODUCTION");
+        assertThat(jwtUtil.getCacheStats()).containsEntry("misses", 1L).containsEntry("hits", 1L).containsEntry("size", 1);
+    }
+
+    @Test
+    void rejectsATokenSignedWithAnotherKey() {
+        String forged = Jwts.builder()
+                .setSubject("mallory@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + HOUR))
+                .signWith(Keys.hmacShaKeyFor(otherKey()), SignatureAlgorithm.HS512)
+                .compact();
+
+        assertThatThrownBy(() -> jwtUtil.parseToken(forged)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.getCacheStats()).containsEntry("size", 0);
+    }
+
+    @Test
+    void rejectsARevokedTokenEvenWhenItIsCached() {
+        String token = token("jti-2", "bob@example.com", "TECHNICIEN");
+        jwtUtil.parseToken(token);
+
+        registry.revoke("jti-2", System.currentTimeMillis() + HOUR);
+
+        assertThatThrownBy(() -> jwtUtil.parseToken(token)).isInstanceOf(JwtException.class).hasMessage("Token revoked");
+        assertThat(jwtUtil.getCacheStats()).containsEntry("size", 0);
+    }
+
+    @Test
+    void staysWithinItsMaximumSize() {
+        for (int i = 0; i < 25; i++) {
+            jwtUtil.parseToken(token("jti-" + i, "user" + i + "@example.com", "TECHNICIEN"));
+        }
+
+        assertThat((Integer) jwtUtil.getCacheStats().get("size")).isLessThanOrEqualTo(10);
+        assertThat((Long) jwtUtil.getCacheStats().get("evictions")).isPositive();
+    }
+
+    @Test
+    void resolvesEachRequestOnce() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token("jti-3", "carol@example.com", "ADMIN"));
+
+        JwtPrincipal principal = jwtUtil.resolvePrincipal(request);
+
+        assertThat(principal.isAdmin()).isTrue();
+        assertThat(jwtUtil.resolvePrincipal(request)).isSameAs(principal);
+        // The second lookup reads the request attribute, not even the cache
+        assertThat(jwtUtil.getCacheStats()).containsEntry("misses", 1L).containsEntry("hits", 0L);
+    }
+
+    @Test
+    void remembersThatARequestHasNoValidToken() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer not-a-jwt");
+
+        assertThat(jwtUtil.resolvePrincipal(request)).isNull();
+        assertThat(jwtUtil.resolvePrincipal(request)).isNull();
+        assertThat(jwtUtil.getCacheStats()).containsEntry("misses", 1L);
+    }
+
+    private static String token(String jti, String email, String role) {
+        return Jwts.builder()
+                .setSubject(email)
+                .claim("role", role)
+                .claim("userId", 7)
+                .claim("department", "PRODUCTION")
+                .setId(jti)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + HOUR))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    private static byte[] otherKey() {
+        byte[] key = new byte[64];
+        key[0] = 1;
+        return key;
+    }
+}
@@ -0,0 +1,136 @@
+package com.eam.odoo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs the sync in to the EAM gateway with its service account and caches the bearer token.
+ * <p>
+ * The EAM endpoints the sync calls (lookups, bulk updates) are ADMIN-only, so the account set
+ * in {@code eam.service.email} / {@code eam.service.password} must be an ADMIN user. The token
+ * is kept for {@code eam.auth.token-ttl-ms}, which must stay below the JWT lifetime of
+ * user-service; when the gateway rejects it earlier (revoked, secret rotated),
+ * {@link #invalidate(String)} drops it and the next call logs in again.
+ */
+@Service
+public class EamAuthService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EamAuthService.class);
+
+    static final String LOGIN_PATH = "/api/auth/login";
+
+    private final RestTemplate restTemplate;
+    private final String gatewayUrl;
+    private final String email;
+    private final String password;
+    private final long tokenTtlMs;
+
+    private final Object loginLock = new Object();
+    private volatile CachedToken cached;
+
+    private final LongAdder logins = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public EamAuthService(@Value("${eam.gateway-url:http://localhost:8080}") String gatewayUrl,
+                          @Value("${eam.service.email:}") String email,
+                          @Value("${eam.service.password:}") String password,
+                          @Value("${eam.auth.token-ttl-ms:3600000}") long tokenTtlMs,
+                          @Value("${eam.client.connect-timeout:8000}") int connectTimeout,
+                          @Value("${eam.client.read-timeout:60000}") int readTimeout) {
+        this(new RestTemplate(EamClientConfig.requestFactory(connectTimeout, readTimeout)),
+                gatewayUrl, email, password, tokenTtlMs);
+    }
+
+    EamAuthService(RestTemplate restTemplate, String gatewayUrl, String email, String password, long tokenTtlMs) {
+        this.restTemplate = restTemplate;
+        this.gatewayUrl = gatewayUrl;
+        this.email = email;
+        this.password = password;
+        this.tokenTtlMs = tokenTtlMs;
+    }
+
+    public String getGatewayUrl() {
+        return gatewayUrl;
+    }
+
+    /**
+     * Bearer token of the service account, from the cache while it is fresh.
+     */
+    public String token() {
+        CachedToken current = cached;
+        if (current != null && current.isFresh()) {
+            return current.token;
+        }
+        synchronized (loginLock) {
+            // Another caller may have logged in while this one was waiting
+            current = cached;
+            if (current != null && current.isFresh()) {
+                return current.token;
+            }
+            String token = login();
+            cached = new CachedToken(token, System.nanoTime() + tokenTtlMs * 1_000_000);
+            return token;
+        }
+    }
+
+    /**
+     * Forgets the token if it is still the cached one, so the next call logs in again.
+     */
+    public void invalidate(String token) {
+        synchronized (loginLock) {
+            CachedToken current = cached;
+            if (current != null && current.token.equals(token)) {
+                cached = null;
+                invalidations.increment();
+                logger.info("EAM gateway rejected the sync token, logging in again");
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("logins", logins.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("tokenTtlMs", tokenTtlMs);
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String login() {
+        if (email == null || email.isBlank()) {
+            throw new IllegalStateException("No EAM service account configured (eam.service.email)");
+        }
+        logins.increment();
+        Map<String, String> credentials = new LinkedHashMap<>();
+        credentials.put("email", email);
+        credentials.put("password", password);
+        ResponseEntity<Map> response = restTemplate.postForEntity(gatewayUrl + LOGIN_PATH, credentials, Map.class);
+        Object token = response.getBody() != null ? response.getBody().get("token") : null;
+        if (!(token instanceof String)) {
+            throw new IllegalStateException("EAM login of " + email + " returned no token");
+        }
+        return (String) token;
+    }
+
+    private static final class CachedToken {
+        private final String token;
+        private final long expiresAtNanos;
+
+        private CachedToken(String token, long expiresAtNanos) {
+            this.token = token;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isFresh() {
+            return System.nanoTime() - expiresAtNanos < 0;
+        }
+    }
+}
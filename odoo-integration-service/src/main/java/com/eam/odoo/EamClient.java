@@ -0,0 +1,158 @@
+package com.eam.odoo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calls of the sync to the EAM services, through the API gateway routes
+ * ({@code /api/machine/**} to asset-service, {@code /api/ordreTravail/**} to work-order-service)
+ * and as the sync's service account (see {@link EamAuthService}).
+ * <p>
+ * Records pulled from Odoo overwrite their EAM copy: updates are sent with {@code If-Match: *}.
+ */
+@Service
+public class EamClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(EamClient.class);
+
+    static final String MACHINE_API = "/api/machine";
+    static final String WORK_ORDER_API = "/api/ordreTravail";
+    // Cap of the EAM by-odoo-ids endpoints
+    static final int LOOKUP_MAX_IDS = 1000;
+
+    private final RestTemplate restTemplate;
+    private final String machineUrl;
+    private final String workOrderUrl;
+
+    @Autowired
+    public EamClient(@Qualifier("eamRestTemplate") RestTemplate restTemplate, EamAuthService authService) {
+        this(restTemplate, authService.getGatewayUrl());
+    }
+
+    EamClient(RestTemplate restTemplate, String gatewayUrl) {
+        this.restTemplate = restTemplate;
+        this.machineUrl = gatewayUrl + MACHINE_API;
+        this.workOrderUrl = gatewayUrl + WORK_ORDER_API;
+    }
+
+    /**
+     * EAM record synced from an Odoo record, with the fingerprint of the data last written to it
+     * (null if the sync has not written it yet).
+     */
+    public record EamLink(Long id, String syncHash) {
+    }
+
+    public List<Map<String, Object>> getMachines(int limit) {
+        try {
+            String url = machineUrl + "/paginated?page=0&size=" + limit;
+            ResponseEntity<List> response = restTemplate.getForEntity(url, List.class);
+            return response.getBody();
+        } catch (Exception e) {
+            logger.error("Failed to get EAM machines: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * EAM machines of the given Odoo assets; assets without a machine are left out. Errors
+     * propagate: a failed lookup must not read as "not found".
+     */
+    public Map<Integer, EamLink> findMachineLinks(List<Integer> odooAssetIds) {
+        return findLinks(machineUrl, odooAssetIds);
+    }
+
+    /**
+     * EAM work orders of the given Odoo maintenance requests, as {@link #findMachineLinks}.
+     */
+    public Map<Integer, EamLink> findWorkOrderLinks(List<Integer> odooRequestIds) {
+        return findLinks(workOrderUrl, odooRequestIds);
+    }
+
+    /**
+     * Sets odooAssetId on the machines with one bulk-sync-update call; returns the error of
+     * each machine the update did not apply to, keyed by machine id.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Object, String> linkMachines(List<Map<String, Object>> links) {
+        ResponseEntity<Map> response = restTemplate.exchange(machineUrl + "/bulk-sync-update", HttpMethod.PUT,
+                new HttpEntity<>(links, jsonHeaders()), Map.class);
+        Map<String, Object> report = response.getBody() != null ? (Map<String, Object>) response.getBody().get("report") : null;
+        Map<Object, String> errors = new HashMap<>();
+        if (report == null) {
+            links.forEach(link -> errors.put(link.get("id"), "No report in bulk update response"));
+            return errors;
+        }
+        for (Map<String, Object> row : (List<Map<String, Object>>) report.get("rows")) {
+            if (!"UPDATED".equals(row.get("status"))) {
+                Object machineId = links.get(((Number) row.get("index")).intValue()).get("id");
+                errors.put(machineId, row.get("error") != null ? (String) row.get("error") : String.valueOf(row.get("status")));
+            }
+        }
+        return errors;
+    }
+
+    public Map<String, Object> createMachine(Map<String, Object> machineData) {
+        ResponseEntity<Map> response = restTemplate.postForEntity(machineUrl + "/add-machine",
+                new HttpEntity<>(machineData, jsonHeaders()), Map.class);
+        return response.getBody();
+    }
+
+    public void updateMachine(Long machineId, Map<String, Object> machineData) {
+        overwrite(machineUrl + "/update-machine", machineId, machineData);
+    }
+
+    public Map<String, Object> createWorkOrder(Map<String, Object> workOrderData) {
+        ResponseEntity<Map> response = restTemplate.postForEntity(workOrderUrl + "/add-ordreTravail",
+                new HttpEntity<>(workOrderData, jsonHeaders()), Map.class);
+        return response.getBody();
+    }
+
+    public void updateWorkOrder(Long workOrderId, Map<String, Object> workOrderData) {
+        overwrite(workOrderUrl + "/update-ordreTravail", workOrderId, workOrderData);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, EamLink> findLinks(String serviceUrl, List<Integer> odooIds) {
+        Map<Integer, EamLink> eamLinks = new HashMap<>();
+        for (int from = 0; from < odooIds.size(); from += LOOKUP_MAX_IDS) {
+            List<Integer> chunk = odooIds.subList(from, Math.min(odooIds.size(), from + LOOKUP_MAX_IDS));
+            ResponseEntity<Map> response = restTemplate.postForEntity(serviceUrl + "/by-odoo-ids",
+                    new HttpEntity<>(chunk, jsonHeaders()), Map.class);
+            if (response.getBody() != null) {
+                // JSON object keys come back as strings
+                ((Map<String, Map<String, Object>>) response.getBody()).forEach((odooId, link) ->
+                        eamLinks.put(Integer.valueOf(odooId), new EamLink(((Number) link.get("id")).longValue(),
+                                (String) link.get(OdooMappingService.SYNC_HASH_FIELD))));
+            }
+        }
+        return eamLinks;
+    }
+
+    private void overwrite(String url, Long id, Map<String, Object> data) {
+        Map<String, Object> body = new HashMap<>(data);
+        body.put("id", id);
+        HttpHeaders headers = jsonHeaders();
+        headers.setIfMatch("*");
+        restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(body, headers), Map.class);
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
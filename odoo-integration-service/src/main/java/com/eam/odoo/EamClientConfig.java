@@ -0,0 +1,58 @@
+package com.eam.odoo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class EamClientConfig {
+
+    @Value("${eam.client.connect-timeout:8000}")
+    private int connectTimeout;
+
+    @Value("${eam.client.read-timeout:60000}")
+    private int readTimeout;
+
+    /**
+     * Client of the EAM gateway, authenticated as the sync's service account.
+     */
+    @Bean(name = "eamRestTemplate")
+    public RestTemplate eamRestTemplate(EamAuthService authService) {
+        return authenticated(requestFactory(connectTimeout, readTimeout), authService);
+    }
+
+    static ClientHttpRequestFactory requestFactory(int connectTimeout, int readTimeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
+
+    /**
+     * Sends the service token with every request. A 401 means the token is no longer accepted:
+     * it is dropped and the request is sent once more with a fresh one.
+     */
+    static RestTemplate authenticated(ClientHttpRequestFactory requestFactory, EamAuthService authService) {
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        ClientHttpRequestInterceptor bearer = (request, body, execution) -> {
+            String token = authService.token();
+            request.getHeaders().setBearerAuth(token);
+            ClientHttpResponse response = execution.execute(request, body);
+            if (response.getStatusCode() != HttpStatus.UNAUTHORIZED) {
+                return response;
+            }
+            response.close();
+            authService.invalidate(token);
+            request.getHeaders().setBearerAuth(authService.token());
+            return execution.execute(request, body);
+        };
+        restTemplate.getInterceptors().add(bearer);
+        return restTemplate;
+    }
+}
@@ -8,6 +8,9 @@ import java.util.*;
 @Service
 public class OdooAssetService {
 
+    public static final String MODEL = "account.asset";
+    private static final String[] FIELDS = {"name", "original_value", "acquisition_date", "state", "write_date"};
+
     private final OdooXmlRpc rpc;
 
     public OdooAssetService(OdooXmlRpc rpc) {
@@ -15,34 +18,69 @@ public class OdooAssetService {
     }
 
     public List<AssetDTO> listAssets(int limit) {
-        Object[] rows = rpc.searchRead(
-                "account.asset",
-                new Object[]{},
-                new String[]{"name", "original_value", "acquisition_date", "state"},
-                0, limit, "id desc"
-        );
+        return listAssets(0, limit);
+    }
+
+    /**
+     * One page of the newest records first, for paged sync.
+     */
+    public List<AssetDTO> listAssets(int offset, int limit) {
+        return toDtos(rpc.searchRead(MODEL, new Object[]{}, FIELDS, offset, limit, "id desc"));
+    }
+
+    /**
+     * Assets written after the (write_date, id) position, oldest first: passing the last
+     * record of a page as the next position pages through every change exactly once.
+     */
+    public List<AssetDTO> listAssetsChangedSince(String writeDate, Integer afterId, int limit) {
+        return toDtos(rpc.searchRead(MODEL, OdooDomains.changedSince(writeDate, afterId), FIELDS,
+                null, limit, OdooDomains.CHANGE_ORDER));
+    }
+
+    public Integer createAsset(String name, double value, String acquisitionDate) {
+        return rpc.create(MODEL, toVals(name, value, acquisitionDate));
+    }
+
+    /**
+     * Creates the assets in batched calls; one result per asset, in input order.
+     */
+    public List<OdooXmlRpc.RecordResult> createAssets(List<AssetDTO> assets) {
+        List<Map<String, Object>> valsList = new ArrayList<>(assets.size());
+        for (AssetDTO asset : assets) {
+            valsList.add(toVals(asset.name, asset.value != null ? asset.value : 0.0, asset.acquisitionDate));
+        }
+        return rpc.createMany(MODEL, valsList);
+    }
+
+    private static List<AssetDTO> toDtos(Object[] rows) {
         List<AssetDTO> out = new ArrayList<>();
         for (Object row : rows) {
             @SuppressWarnings("unchecked")
             Map<String, Object> m = (Map<String, Object>) row;
             AssetDTO dto = new AssetDTO();
             dto.id = (Integer) m.get("id");
-            dto.name = (String) m.get("name");
+            dto.name = text(m.get("name"));
             Object val = m.get("original_value");
             dto.value = val instanceof Number ? ((Number) val).doubleValue() : null;
-            dto.acquisitionDate = (String) m.get("acquisition_date");
-            dto.state = (String) m.get("state");
+            dto.acquisitionDate = text(m.get("acquisition_date"));
+            dto.state = text(m.get("state"));
+            dto.writeDate = text(m.get("write_date"));
             out.add(dto);
         }
         return out;
     }
 
-    public Integer createAsset(String name, double value, String acquisitionDate) {
+    private static Map<String, Object> toVals(String name, double value, String acquisitionDate) {
         Map<String, Object> vals = new HashMap<>();
         vals.put("name", name);
         vals.put("original_value", value);
         if (acquisitionDate != null) vals.put("acquisition_date", acquisitionDate);
         // Depending on Odoo version/model you may need 'model_id', 'method', etc.
-        return rpc.create("account.asset", vals);
+        return vals;
+    }
+
+    // Odoo sends False for empty fields
+    private static String text(Object value) {
+        return value instanceof String s ? s : null;
     }
-}
\ No newline at end of file
+}
@@ -2,15 +2,30 @@ package com.eam.odoo;
 
 import org.apache.xmlrpc.XmlRpcException;
 import org.apache.xmlrpc.client.XmlRpcClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Resolves and caches the Odoo uid of the integration user.
+ * <p>
+ * The uid is kept for {@code odoo.auth.uid-ttl-ms}, so object calls no longer pay an extra
+ * round trip to /xmlrpc/2/common each. When the cache is empty or expired, a single caller
+ * authenticates while concurrent callers wait for its result. {@link #invalidate(int)} drops
+ * a uid that Odoo has rejected.
+ */
 @Service
 public class OdooAuthService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OdooAuthService.class);
+
     private final XmlRpcClient commonClient;
 
     @Value("${odoo.db}")
@@ -19,15 +34,82 @@ public class OdooAuthService {
     private String username;
     @Value("${odoo.password}")
     private String password;
+    @Value("${odoo.auth.uid-ttl-ms:3600000}")
+    private long uidTtlMs;
+
+    private final Object authLock = new Object();
+    private volatile CachedUid cached;
+
+    private final LongAdder authCalls = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
 
     public OdooAuthService(@Qualifier("odooCommonClient") XmlRpcClient commonClient) {
         this.commonClient = commonClient;
     }
 
     /**
-     * Authenticate and return uid.
+     * Authenticate and return uid, from the cache while it is fresh.
      */
     public int authenticate() {
+        CachedUid current = cached;
+        if (current != null && current.isFresh()) {
+            cacheHits.increment();
+            return current.uid;
+        }
+        synchronized (authLock) {
+            // Another caller may have refreshed it while this one was waiting
+            current = cached;
+            if (current != null && current.isFresh()) {
+                cacheHits.increment();
+                return current.uid;
+            }
+            int uid = authenticateRemotely();
+            cached = new CachedUid(uid, System.nanoTime() + uidTtlMs * 1_000_000);
+            return uid;
+        }
+    }
+
+    /**
+     * Forgets the uid if it is still the cached one, so the next call authenticates again.
+     */
+    public void invalidate(int uid) {
+        synchronized (authLock) {
+            CachedUid current = cached;
+            if (current != null && current.uid == uid) {
+                cached = null;
+                invalidations.increment();
+                logger.info("Odoo rejected uid {}, re-authenticating", uid);
+            }
+        }
+    }
+
+    /**
+     * Number of authenticate round trips made so far; diff two readings to get a run's share.
+     */
+    public long getAuthCallCount() {
+        return authCalls.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("authCalls", authCalls.sum());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("uidTtlMs", uidTtlMs);
+        return stats;
+    }
+
+    public String getDb() {
+        return db;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    private int authenticateRemotely() {
+        authCalls.increment();
         try {
             Object uid = commonClient.execute("authenticate",
                     new Object[]{db, username, password, Collections.emptyMap()});
@@ -42,11 +124,17 @@ public class OdooAuthService {
         }
     }
 
-    public String getDb() {
-        return db;
-    }
+    private static final class CachedUid {
+        private final int uid;
+        private final long expiresAtNanos;
 
-    public String getPassword() {
-        return password;
+        private CachedUid(int uid, long expiresAtNanos) {
+            this.uid = uid;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isFresh() {
+            return System.nanoTime() - expiresAtNanos < 0;
+        }
     }
-}
\ No newline at end of file
+}
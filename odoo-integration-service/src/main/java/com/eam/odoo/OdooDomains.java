@@ -0,0 +1,30 @@
+package com.eam.odoo;
+
+/**
+ * Search domains shared by the Odoo model services.
+ */
+final class OdooDomains {
+
+    /** Keyset order matching {@link #changedSince}. */
+    static final String CHANGE_ORDER = "write_date asc, id asc";
+
+    private OdooDomains() {
+    }
+
+    /**
+     * Records strictly after (writeDate, afterId) in {@link #CHANGE_ORDER}; every record when
+     * writeDate is null.
+     */
+    static Object[] changedSince(String writeDate, Integer afterId) {
+        if (writeDate == null) {
+            return new Object[]{};
+        }
+        return new Object[]{
+                "|",
+                new Object[]{"write_date", ">", writeDate},
+                "&",
+                new Object[]{"write_date", "=", writeDate},
+                new Object[]{"id", ">", afterId != null ? afterId : 0}
+        };
+    }
+}
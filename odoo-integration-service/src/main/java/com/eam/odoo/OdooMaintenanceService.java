@@ -8,6 +8,10 @@ import java.util.*;
 @Service
 public class OdooMaintenanceService {
 
+    public static final String MODEL = "maintenance.request";
+    private static final String[] FIELDS =
+            {"name", "equipment_id", "description", "request_date", "stage_id", "create_uid", "write_date"};
+
     private final OdooXmlRpc rpc;
 
     public OdooMaintenanceService(OdooXmlRpc rpc) {
@@ -15,39 +19,67 @@ public class OdooMaintenanceService {
     }
 
     public List<MaintenanceRequestDTO> listRequests(int limit) {
-        Object[] rows = rpc.searchRead(
-                "maintenance.request",
-                new Object[]{},
-                new String[]{"name","equipment_id","description","request_date","stage_id","create_uid"},
-                0, limit, "id desc"
-        );
+        return listRequests(0, limit);
+    }
+
+    /**
+     * One page of the newest records first, for paged sync.
+     */
+    public List<MaintenanceRequestDTO> listRequests(int offset, int limit) {
+        return toDtos(rpc.searchRead(MODEL, new Object[]{}, FIELDS, offset, limit, "id desc"));
+    }
+
+    /**
+     * Requests written after the (write_date, id) position, oldest first: passing the last
+     * record of a page as the next position pages through every change exactly once.
+     */
+    public List<MaintenanceRequestDTO> listRequestsChangedSince(String writeDate, Integer afterId, int limit) {
+        return toDtos(rpc.searchRead(MODEL, OdooDomains.changedSince(writeDate, afterId), FIELDS,
+                null, limit, OdooDomains.CHANGE_ORDER));
+    }
+
+    public Integer createRequest(String title, Integer equipmentId, String description) {
+        return rpc.create(MODEL, toVals(title, equipmentId, description));
+    }
+
+    private static List<MaintenanceRequestDTO> toDtos(Object[] rows) {
         List<MaintenanceRequestDTO> out = new ArrayList<>();
         for (Object row : rows) {
             @SuppressWarnings("unchecked")
             Map<String, Object> m = (Map<String, Object>) row;
             MaintenanceRequestDTO dto = new MaintenanceRequestDTO();
             dto.id = (Integer) m.get("id");
-            dto.name = (String) m.get("name");
-            Object[] equipment = (Object[]) m.get("equipment_id"); // many2one returns [id, display_name]
+            dto.name = text(m.get("name"));
+            Object[] equipment = many2one(m.get("equipment_id")); // many2one returns [id, display_name]
             dto.equipmentId = equipment != null && equipment.length > 0 && equipment[0] instanceof Number
                     ? ((Number) equipment[0]).intValue() : null;
-            dto.description = (String) m.get("description");
-            dto.requestDate = (String) m.get("request_date");
-            Object[] stage = (Object[]) m.get("stage_id");
+            dto.description = text(m.get("description"));
+            dto.requestDate = text(m.get("request_date"));
+            Object[] stage = many2one(m.get("stage_id"));
             dto.stage = stage != null && stage.length > 1 ? String.valueOf(stage[1]) : null;
-            Object[] creator = (Object[]) m.get("create_uid");
+            Object[] creator = many2one(m.get("create_uid"));
             dto.createdBy = creator != null && creator.length > 0 && creator[0] instanceof Number
                     ? ((Number) creator[0]).intValue() : null;
+            dto.writeDate = text(m.get("write_date"));
             out.add(dto);
         }
         return out;
     }
 
-    public Integer createRequest(String title, Integer equipmentId, String description) {
+    private static Map<String, Object> toVals(String title, Integer equipmentId, String description) {
         Map<String, Object> vals = new HashMap<>();
         vals.put("name", title);
         if (equipmentId != null) vals.put("equipment_id", equipmentId);
         if (description != null) vals.put("description", description);
-        return rpc.create("maintenance.request", vals);
+        return vals;
+    }
+
+    // Odoo sends False for empty fields
+    private static String text(Object value) {
+        return value instanceof String s ? s : null;
+    }
+
+    private static Object[] many2one(Object value) {
+        return value instanceof Object[] pair ? pair : null;
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,12 @@ import org.springframework.stereotype.Service;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.TreeMap;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.text.ParseException;
 
@@ -16,7 +22,21 @@ import java.text.ParseException;
 @Service
 public class OdooMappingService {
 
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    /**
+     * EAM field holding the fingerprint of the mapped data last written by the sync
+     */
+    public static final String SYNC_HASH_FIELD = "odooSyncHash";
+
+    // Part of every fingerprint: bump it when a mapping changes so every record is rewritten once
+    private static final String FINGERPRINT_VERSION = "1";
+
+    // Defaults computed from the current time, not from Odoo: left out of the fingerprints
+    private static final Set<String> MACHINE_DEFAULTED_FIELDS = Set.of("dateProchaineMainenance");
+    private static final Set<String> ORDRE_TRAVAIL_DEFAULTED_FIELDS = Set.of("dateEcheance");
+
+    // SimpleDateFormat is not thread-safe and the sync pipeline maps records concurrently
+    private final ThreadLocal<SimpleDateFormat> dateFormat =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd"));
 
     /**
      * Maps EAM Machine entity fields to Odoo Asset DTO
@@ -41,7 +61,7 @@ public class OdooMappingService {
         // Map maintenance date
         Date maintenanceDate = (Date) machineData.get("dateDernièreMaintenance");
         if (maintenanceDate != null) {
-            asset.acquisitionDate = dateFormat.format(maintenanceDate);
+            asset.acquisitionDate = dateFormat.get().format(maintenanceDate);
         }
         
         return asset;
@@ -62,7 +82,7 @@ public class OdooMappingService {
         // Parse acquisition date to maintenance date
         if (asset.acquisitionDate != null) {
             try {
-                Date date = dateFormat.parse(asset.acquisitionDate);
+                Date date = dateFormat.get().parse(asset.acquisitionDate);
                 machineData.put("dateDernièreMaintenance", date);
             } catch (ParseException e) {
                 // Handle parsing error gracefully
@@ -91,7 +111,7 @@ public class OdooMappingService {
         // Map EAM date to Odoo format
         Date dateCreation = (Date) ordreTravailData.get("dateCreation");
         if (dateCreation != null) {
-            request.requestDate = dateFormat.format(dateCreation);
+            request.requestDate = dateFormat.get().format(dateCreation);
         }
         
         // Map EAM status to Odoo stage
@@ -115,7 +135,7 @@ public class OdooMappingService {
         // Parse request date
         if (request.requestDate != null) {
             try {
-                Date date = dateFormat.parse(request.requestDate);
+                Date date = dateFormat.get().parse(request.requestDate);
                 ordreTravailData.put("dateCreation", date);
             } catch (ParseException e) {
                 ordreTravailData.put("dateCreation", new Date());
@@ -132,6 +152,43 @@ public class OdooMappingService {
         return ordreTravailData;
     }
 
+    /**
+     * Fingerprint of the machine data mapped from an Odoo asset
+     */
+    public String fingerprintMachine(Map<String, Object> machineData) {
+        return fingerprint(machineData, MACHINE_DEFAULTED_FIELDS);
+    }
+
+    /**
+     * Fingerprint of the work order data mapped from an Odoo maintenance request
+     */
+    public String fingerprintOrdreTravail(Map<String, Object> ordreTravailData) {
+        return fingerprint(ordreTravailData, ORDRE_TRAVAIL_DEFAULTED_FIELDS);
+    }
+
+    /**
+     * SHA-256 (hex) of the mapped fields in key order. Dates count by day, the precision Odoo
+     * sends them with; keys and values are length-prefixed so no two field sets collide.
+     */
+    private String fingerprint(Map<String, Object> data, Set<String> ignoredFields) {
+        StringBuilder canonical = new StringBuilder(FINGERPRINT_VERSION);
+        for (Map.Entry<String, Object> field : new TreeMap<>(data).entrySet()) {
+            if (ignoredFields.contains(field.getKey()) || SYNC_HASH_FIELD.equals(field.getKey())) {
+                continue;
+            }
+            Object value = field.getValue();
+            String text = value instanceof Date date ? dateFormat.get().format(date) : value == null ? null : value.toString();
+            canonical.append('|').append(field.getKey().length()).append(':').append(field.getKey());
+            canonical.append(text == null ? "-" : "=" + text.length() + ":" + text);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     // Status mapping methods
     private String mapEamStatutToOdooState(String eamStatut) {
         if (eamStatut == null) return "draft";
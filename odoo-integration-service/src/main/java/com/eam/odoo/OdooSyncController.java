@@ -1,9 +1,14 @@
 package com.eam.odoo;
 
+import com.eam.odoo.entity.SyncRunError;
+import com.eam.odoo.entity.SyncWatermark;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,15 +22,26 @@ public class OdooSyncController {
     @Autowired
     private OdooSyncService syncService;
 
+    @Autowired
+    private OdooAuthService authService;
+
+    @Autowired
+    private SyncWatermarks watermarks;
+
+    @Autowired
+    private SyncRuns runs;
+
     /**
      * Synchronize assets from Odoo to EAM system
-     * Creates/updates EAM machines based on Odoo assets
+     * Creates/updates EAM machines based on Odoo assets; by default only those changed since the last pull
+     * (incremental=false reads the newest "limit" assets instead)
      */
     @PostMapping("/assets/from-odoo")
     public ResponseEntity<Map<String, Object>> syncAssetsFromOdoo(
-            @RequestParam(defaultValue = "50") int limit) {
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "true") boolean incremental) {
         try {
-            Map<String, Object> result = syncService.syncAssetsFromOdoo(limit);
+            Map<String, Object> result = syncService.syncAssetsFromOdoo(limit, incremental);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
@@ -51,13 +67,14 @@ public class OdooSyncController {
 
     /**
      * Synchronize maintenance requests from Odoo to EAM work orders
-     * Creates/updates EAM work orders based on Odoo maintenance requests
+     * Creates/updates EAM work orders based on Odoo maintenance requests; by default only those changed since the last pull
      */
     @PostMapping("/maintenance/from-odoo")
     public ResponseEntity<Map<String, Object>> syncMaintenanceFromOdoo(
-            @RequestParam(defaultValue = "50") int limit) {
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "true") boolean incremental) {
         try {
-            Map<String, Object> result = syncService.syncMaintenanceFromOdoo(limit);
+            Map<String, Object> result = syncService.syncMaintenanceFromOdoo(limit, incremental);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
@@ -67,22 +84,91 @@ public class OdooSyncController {
 
     /**
      * Full bidirectional synchronization
-     * Syncs both assets and maintenance data in both directions
+     * Syncs both assets and maintenance data in both directions, independent phases in parallel
      */
     @PostMapping("/full-sync")
     public ResponseEntity<Map<String, Object>> fullSync(
-            @RequestParam(defaultValue = "50") int limit) {
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "true") boolean incremental) {
         try {
-            Map<String, Object> assetsFromOdoo = syncService.syncAssetsFromOdoo(limit);
-            Map<String, Object> assetsToOdoo = syncService.syncAssetsToOdoo(limit);
-            Map<String, Object> maintenanceFromOdoo = syncService.syncMaintenanceFromOdoo(limit);
-
-            return ResponseEntity.ok(Map.of(
-                    "assetsFromOdoo", assetsFromOdoo,
-                    "assetsToOdoo", assetsToOdoo,
-                    "maintenanceFromOdoo", maintenanceFromOdoo,
-                    "success", true
-            ));
+            return ResponseEntity.ok(syncService.fullSync(limit, incremental));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage(), "success", false));
+        }
+    }
+
+    /**
+     * Incremental pull positions, one per Odoo model
+     */
+    @GetMapping("/watermarks")
+    public ResponseEntity<List<SyncWatermark>> getWatermarks() {
+        return ResponseEntity.ok(watermarks.findAll());
+    }
+
+    /**
+     * Forget a model's watermark so the next incremental pull re-reads every record
+     */
+    @DeleteMapping("/watermarks/{model}")
+    public ResponseEntity<Map<String, Object>> resetWatermark(@PathVariable String model) {
+        if (watermarks.get(model) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        watermarks.reset(model);
+        return ResponseEntity.ok(Map.of("model", model, "reset", true));
+    }
+
+    /**
+     * Sync run history, newest first, with per-phase counts, timings and throughput
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<Map<String, Object>>> getRuns(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(runs.history(page, Math.min(size, 100)));
+    }
+
+    /**
+     * Runs in progress, with the progress of each phase as of its last committed page
+     */
+    @GetMapping("/runs/active")
+    public ResponseEntity<List<Map<String, Object>>> getActiveRuns() {
+        return ResponseEntity.ok(runs.active());
+    }
+
+    /**
+     * One run: live progress while it runs, its outcome afterwards
+     */
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<Map<String, Object>> getRun(@PathVariable Long runId) {
+        Map<String, Object> progress = runs.progress(runId);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Records that failed to sync in a run (up to odoo.sync.history.max-errors-per-phase per phase)
+     */
+    @GetMapping("/runs/{runId}/errors")
+    public ResponseEntity<List<SyncRunError>> getRunErrors(
+            @PathVariable Long runId,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (runs.get(runId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(runs.errors(runId, Math.min(limit, 1000)));
+    }
+
+    /**
+     * Resume a failed or interrupted run from its checkpoints, as a new run
+     */
+    @PostMapping("/runs/{runId}/resume")
+    public ResponseEntity<Map<String, Object>> resumeRun(@PathVariable Long runId) {
+        try {
+            Map<String, Object> result = syncService.resume(runId);
+            return result != null ? ResponseEntity.ok(result) : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage(), "success", false));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", e.getMessage(), "success", false));
@@ -94,15 +180,17 @@ public class OdooSyncController {
      */
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getSyncStatus() {
-        // This could be enhanced to show last sync times, counts, etc.
-        return ResponseEntity.ok(Map.of(
-                "status", "ready",
-                "services", Map.of(
-                        "odoo-integration", "active",
-                        "asset-service", "connected",
-                        "work-order-service", "connected"
-                ),
-                "lastSync", "Not implemented yet"
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", "ready");
+        status.put("services", Map.of(
+                "odoo-integration", "active",
+                "asset-service", "connected",
+                "work-order-service", "connected"
         ));
+        // Null before the first run
+        status.put("lastSync", runs.lastFinished());
+        status.put("activeRuns", runs.active().size());
+        status.put("odooAuth", authService.getStats());
+        return ResponseEntity.ok(status);
     }
 }
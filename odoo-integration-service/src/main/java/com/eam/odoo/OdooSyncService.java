@@ -1,22 +1,30 @@
 package com.eam.odoo;
 
+import com.eam.odoo.EamClient.EamLink;
 import com.eam.odoo.dto.AssetDTO;
+import com.eam.odoo.SyncPipeline.PageSource;
+import com.eam.odoo.SyncPipeline.PhaseListener;
+import com.eam.odoo.SyncPipeline.Target;
 import com.eam.odoo.dto.MaintenanceRequestDTO;
+import com.eam.odoo.entity.SyncRun;
+import com.eam.odoo.entity.SyncRunPhase;
+import com.eam.odoo.entity.SyncWatermark;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.Objects;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Service for bidirectional synchronization between EAM system and Odoo
@@ -36,299 +44,520 @@ public class OdooSyncService {
     @Autowired
     private OdooMappingService mappingService;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private EamClient eamClient;
+
+    @Autowired
+    private SyncPipeline pipeline;
+
+    @Autowired
+    private SyncWatermarks watermarks;
+
+    @Autowired
+    private SyncRuns runs;
+
+    @Value("${odoo.sync.push-batch-size:100}")
+    private int pushBatchSize;
+
 
-    // EAM service URLs (through API Gateway)
-    private static final String EAM_GATEWAY_URL = "http://localhost:8080";
-    private static final String ASSET_SERVICE_URL = EAM_GATEWAY_URL + "/api/assets";
-    private static final String WORK_ORDER_SERVICE_URL = EAM_GATEWAY_URL + "/api/work-orders";
+    // Phase names, also the keys of the full sync result; a single-phase run is typed by its phase
+    public static final String ASSETS_FROM_ODOO = "assetsFromOdoo";
+    public static final String ASSETS_TO_ODOO = "assetsToOdoo";
+    public static final String MAINTENANCE_FROM_ODOO = "maintenanceFromOdoo";
+    public static final String FULL_SYNC = "fullSync";
 
     /**
      * Synchronizes assets from Odoo to EAM system
      * Creates or updates EAM machines based on Odoo assets
      */
     public Map<String, Object> syncAssetsFromOdoo(int limit) {
-        logger.info("Starting asset synchronization from Odoo to EAM (limit: {})", limit);
-        
-        try {
-            // Get assets from Odoo
-            List<AssetDTO> odooAssets = odooAssetService.listAssets(limit);
-            logger.info("Retrieved {} assets from Odoo", odooAssets.size());
-
-            List<Map<String, Object>> syncResults = new ArrayList<>();
-            int created = 0, updated = 0, errors = 0;
-
-            for (AssetDTO odooAsset : odooAssets) {
-                try {
-                    // Map Odoo asset to EAM machine format
-                    Map<String, Object> machineData = mappingService.mapOdooAssetToMachine(odooAsset);
-                    
-                    // Check if machine already exists in EAM
-                    Map<String, Object> existingMachine = findEamMachineByOdooId(odooAsset.id);
-                    
-                    if (existingMachine != null) {
-                        // Update existing machine
-                        Long machineId = (Long) existingMachine.get("id");
-                        updateEamMachine(machineId, machineData);
-                        updated++;
-                        logger.debug("Updated EAM machine {} from Odoo asset {}", machineId, odooAsset.id);
-                    } else {
-                        // Create new machine
-                        Map<String, Object> createdMachine = createEamMachine(machineData);
-                        created++;
-                        logger.debug("Created EAM machine from Odoo asset {}", odooAsset.id);
-                    }
-
-                    syncResults.add(Map.of(
-                        "odooAssetId", odooAsset.id,
-                        "status", existingMachine != null ? "updated" : "created",
-                        "success", true
-                    ));
-
-                } catch (Exception e) {
-                    errors++;
-                    logger.error("Error syncing Odoo asset {}: {}", odooAsset.id, e.getMessage());
-                    syncResults.add(Map.of(
-                        "odooAssetId", odooAsset.id,
-                        "status", "error",
-                        "success", false,
-                        "error", e.getMessage()
-                    ));
-                }
-            }
+        return syncAssetsFromOdoo(limit, false);
+    }
+
+    /**
+     * With incremental, only the assets written in Odoo since the last successful pull are read
+     * (up to limit per call; the next call continues where this one stopped).
+     */
+    public Map<String, Object> syncAssetsFromOdoo(int limit, boolean incremental) {
+        return tracked(ASSETS_FROM_ODOO, limit, incremental, null, Map.of(),
+                context -> assetsFromOdoo(context, limit, incremental));
+    }
+
+    /**
+     * Synchronizes assets from EAM to Odoo
+     * Creates or updates Odoo assets based on EAM machines
+     */
+    public Map<String, Object> syncAssetsToOdoo(int limit) {
+        return tracked(ASSETS_TO_ODOO, limit, false, null, Map.of(), context -> assetsToOdoo(context, limit));
+    }
+
+    /**
+     * Synchronizes maintenance requests from Odoo to EAM work orders
+     */
+    public Map<String, Object> syncMaintenanceFromOdoo(int limit) {
+        return syncMaintenanceFromOdoo(limit, false);
+    }
+
+    /**
+     * With incremental, only the requests written in Odoo since the last successful pull are read.
+     */
+    public Map<String, Object> syncMaintenanceFromOdoo(int limit, boolean incremental) {
+        return tracked(MAINTENANCE_FROM_ODOO, limit, incremental, null, Map.of(),
+                context -> maintenanceFromOdoo(context, limit, incremental));
+    }
 
-            Map<String, Object> result = new HashMap<>();
-            result.put("totalProcessed", odooAssets.size());
-            result.put("created", created);
-            result.put("updated", updated);
-            result.put("errors", errors);
-            result.put("details", syncResults);
+    /**
+     * Full bidirectional synchronization. Maintenance runs alongside the assets; the two asset
+     * directions stay in sequence, otherwise the pull could re-import assets the push has just
+     * created in Odoo but not yet linked in EAM.
+     */
+    public Map<String, Object> fullSync(int limit) {
+        return fullSync(limit, false);
+    }
+
+    public Map<String, Object> fullSync(int limit, boolean incremental) {
+        return tracked(FULL_SYNC, limit, incremental, null, Map.of(), context -> fullSync(context, limit, incremental));
+    }
+
+    /**
+     * Runs a failed or interrupted run again as a new run, with the same settings. Phases that
+     * completed in it (or in the runs it resumed) are not run again. A non-incremental pull
+     * restarts from its checkpoint, an incremental one from its watermark, both saved after
+     * every committed page; the push starts over, the machines it already linked being skipped.
+     * Records that failed before a checkpoint stay in the old run's errors and are not retried.
+     *
+     * @return the new run's result, or null if there is no such run
+     * @throws IllegalStateException if the run is still running or has completed
+     */
+    public Map<String, Object> resume(Long runId) {
+        SyncRun previous = runs.get(runId);
+        if (previous == null) {
+            return null;
+        }
+        if (previous.getStatus() != SyncRun.Status.FAILED && previous.getStatus() != SyncRun.Status.INTERRUPTED) {
+            throw new IllegalStateException("Sync run " + runId + " is " + previous.getStatus()
+                    + ", only failed or interrupted runs can be resumed");
+        }
+        // Latest state of each phase along the chain of resumed runs
+        Map<String, SyncRunPhase> phases = new HashMap<>();
+        for (SyncRun run = previous; run != null; run = run.getResumedFrom() != null ? runs.get(run.getResumedFrom()) : null) {
+            runs.phasesByName(run.getId()).forEach(phases::putIfAbsent);
+        }
+
+        int limit = previous.getLimit();
+        boolean incremental = previous.isIncremental();
+        return tracked(previous.getType(), limit, incremental, runId, phases, context -> switch (previous.getType()) {
+            case FULL_SYNC -> fullSync(context, limit, incremental);
+            case ASSETS_FROM_ODOO -> assetsFromOdoo(context, limit, incremental);
+            case ASSETS_TO_ODOO -> assetsToOdoo(context, limit);
+            case MAINTENANCE_FROM_ODOO -> maintenanceFromOdoo(context, limit, incremental);
+            default -> throw new IllegalStateException("Unknown sync run type " + previous.getType());
+        });
+    }
 
-            logger.info("Asset sync completed: {} created, {} updated, {} errors", created, updated, errors);
+    /**
+     * The run being executed, and the phases of the run it resumes (empty for a new run).
+     */
+    private record RunContext(SyncRun run, Map<String, SyncRunPhase> previous) {
+
+        boolean completed(String phase) {
+            SyncRunPhase previousPhase = previous.get(phase);
+            return previousPhase != null && previousPhase.getStatus() == SyncRun.Status.COMPLETED;
+        }
+
+        int checkpoint(String phase) {
+            SyncRunPhase previousPhase = previous.get(phase);
+            return previousPhase != null ? previousPhase.getCheckpoint() : 0;
+        }
+
+        Map<String, Object> alreadyCompleted(String phase) {
+            SyncRunPhase previousPhase = previous.get(phase);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("resumed", true);
+            result.put("completedInRun", previousPhase.getRunId());
+            result.put("totalProcessed", previousPhase.getProcessed());
             return result;
+        }
+    }
 
+    /**
+     * Records the call as a sync run: started before the body, completed or failed after it.
+     */
+    private Map<String, Object> tracked(String type, int limit, boolean incremental, Long resumedFrom,
+                                        Map<String, SyncRunPhase> previous,
+                                        Function<RunContext, Map<String, Object>> body) {
+        SyncRun run = runs.start(type, limit, incremental, resumedFrom);
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("runId", run.getId());
+            result.putAll(body.apply(new RunContext(run, previous)));
+            runs.complete(run);
+            return result;
+        } catch (RuntimeException e) {
+            runs.fail(run, e);
+            throw e;
+        }
+    }
+
+    // Phases, run on the calling thread (or the pipeline's phase threads for a full sync)
+
+    private Map<String, Object> assetsFromOdoo(RunContext context, int limit, boolean incremental) {
+        if (context.completed(ASSETS_FROM_ODOO)) {
+            return context.alreadyCompleted(ASSETS_FROM_ODOO);
+        }
+        logger.info("Starting asset synchronization from Odoo to EAM (limit: {}, incremental: {})", limit, incremental);
+        SyncRuns.Phase phase = runs.startPhase(context.run(), ASSETS_FROM_ODOO, "odooAssetId",
+                incremental ? 0 : context.checkpoint(ASSETS_FROM_ODOO));
+
+        try {
+            // EAM machines of the pulled assets, resolved once per page
+            Map<Integer, EamLink> machines = new ConcurrentHashMap<>();
+            Map<Integer, String> failedLookups = new ConcurrentHashMap<>();
+            Function<PageSource<AssetDTO>, PageSource<AssetDTO>> resolve = source -> resolvingEamLinks(source,
+                    asset -> asset.id, eamClient::findMachineLinks, machines, failedLookups);
+            Function<AssetDTO, Map<String, Object>> handler =
+                    asset -> syncAssetFromOdoo(asset, linkOf(asset.id, machines, failedLookups));
+            Map<String, Object> result;
+            if (incremental) {
+                result = pullChanges("Asset sync from Odoo", OdooAssetService.MODEL, limit,
+                        odooAssetService::listAssetsChangedSince, asset -> asset.writeDate, asset -> asset.id,
+                        "odooAssetId", resolve, handler, phase);
+            } else {
+                result = pipeline.run("Asset sync from Odoo", phase.getStartOffset(), limit,
+                        resolve.apply((offset, size) -> pipeline.call(Target.ODOO, () -> odooAssetService.listAssets(offset, size))),
+                        asset -> asset.id, "odooAssetId", handler, phase);
+            }
+            phase.finished();
+            return result;
         } catch (Exception e) {
+            phase.failed(e);
             logger.error("Failed to sync assets from Odoo: {}", e.getMessage());
             throw new RuntimeException("Asset synchronization failed", e);
         }
     }
 
-    /**
-     * Synchronizes assets from EAM to Odoo
-     * Creates or updates Odoo assets based on EAM machines
-     */
-    public Map<String, Object> syncAssetsToOdoo(int limit) {
+    private Map<String, Object> assetsToOdoo(RunContext context, int limit) {
+        if (context.completed(ASSETS_TO_ODOO)) {
+            return context.alreadyCompleted(ASSETS_TO_ODOO);
+        }
         logger.info("Starting asset synchronization from EAM to Odoo (limit: {})", limit);
-        
+        SyncRuns.Phase phase = runs.startPhase(context.run(), ASSETS_TO_ODOO, "eamMachineId", 0);
+
         try {
             // Get machines from EAM
-            List<Map<String, Object>> eamMachines = getEamMachines(limit);
+            List<Map<String, Object>> eamMachines = pipeline.call(Target.EAM, () -> eamClient.getMachines(limit));
             logger.info("Retrieved {} machines from EAM", eamMachines.size());
 
-            List<Map<String, Object>> syncResults = new ArrayList<>();
-            int created = 0, updated = 0, errors = 0;
-
-            for (Map<String, Object> eamMachine : eamMachines) {
-                try {
-                    Integer odooAssetId = (Integer) eamMachine.get("odooAssetId");
-                    
-                    // Map EAM machine to Odoo asset format
-                    AssetDTO assetData = mappingService.mapMachineToOdooAsset(eamMachine);
-                    
-                    if (odooAssetId != null) {
-                        // Update existing Odoo asset (if update API exists)
-                        // For now, we'll skip updates as the basic Odoo service doesn't have update
-                        logger.debug("Skipping update for existing Odoo asset {}", odooAssetId);
-                    } else {
-                        // Create new Odoo asset
-                        Map<String, Object> createData = new HashMap<>();
-                        createData.put("name", assetData.name);
-                        createData.put("value", assetData.value);
-                        createData.put("acquisitionDate", assetData.acquisitionDate);
-                        
-                        Integer newOdooId = odooAssetService.createAsset(
-                            assetData.name, 
-                            assetData.value, 
-                            assetData.acquisitionDate
-                        );
-                        
-                        // Update EAM machine with Odoo ID
-                        eamMachine.put("odooAssetId", newOdooId);
-                        updateEamMachine((Long) eamMachine.get("id"), eamMachine);
-                        
-                        created++;
-                        logger.debug("Created Odoo asset {} from EAM machine {}", newOdooId, eamMachine.get("id"));
-                    }
-
-                    syncResults.add(Map.of(
-                        "eamMachineId", eamMachine.get("id"),
-                        "status", odooAssetId != null ? "skipped" : "created",
-                        "success", true
-                    ));
-
-                } catch (Exception e) {
-                    errors++;
-                    logger.error("Error syncing EAM machine {}: {}", eamMachine.get("id"), e.getMessage());
-                    syncResults.add(Map.of(
-                        "eamMachineId", eamMachine.get("id"),
-                        "status", "error",
-                        "success", false,
-                        "error", e.getMessage()
-                    ));
-                }
-            }
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("totalProcessed", eamMachines.size());
-            result.put("created", created);
-            result.put("updated", updated);
-            result.put("errors", errors);
-            result.put("details", syncResults);
-
-            logger.info("Asset sync to Odoo completed: {} created, {} updated, {} errors", created, updated, errors);
+            Map<String, Object> result = pipeline.runBatched("Asset sync to Odoo", 0, limit, PageSource.of(eamMachines),
+                    machine -> machine.get("id"), "eamMachineId", pushBatchSize, this::syncAssetsToOdoo, phase);
+            phase.finished();
             return result;
-
         } catch (Exception e) {
+            phase.failed(e);
             logger.error("Failed to sync assets to Odoo: {}", e.getMessage());
             throw new RuntimeException("Asset synchronization to Odoo failed", e);
         }
     }
 
-    /**
-     * Synchronizes maintenance requests from Odoo to EAM work orders
-     */
-    public Map<String, Object> syncMaintenanceFromOdoo(int limit) {
-        logger.info("Starting maintenance synchronization from Odoo to EAM (limit: {})", limit);
-        
+    private Map<String, Object> maintenanceFromOdoo(RunContext context, int limit, boolean incremental) {
+        if (context.completed(MAINTENANCE_FROM_ODOO)) {
+            return context.alreadyCompleted(MAINTENANCE_FROM_ODOO);
+        }
+        logger.info("Starting maintenance synchronization from Odoo to EAM (limit: {}, incremental: {})", limit, incremental);
+        SyncRuns.Phase phase = runs.startPhase(context.run(), MAINTENANCE_FROM_ODOO, "odooRequestId",
+                incremental ? 0 : context.checkpoint(MAINTENANCE_FROM_ODOO));
+
         try {
-            // Get maintenance requests from Odoo
-            List<MaintenanceRequestDTO> odooRequests = odooMaintenanceService.listRequests(limit);
-            logger.info("Retrieved {} maintenance requests from Odoo", odooRequests.size());
-
-            List<Map<String, Object>> syncResults = new ArrayList<>();
-            int created = 0, updated = 0, errors = 0;
-
-            for (MaintenanceRequestDTO odooRequest : odooRequests) {
-                try {
-                    // Map Odoo request to EAM work order format
-                    Map<String, Object> workOrderData = mappingService.mapMaintenanceRequestToOrdreTravail(odooRequest);
-                    
-                    // Check if work order already exists
-                    Map<String, Object> existingWorkOrder = findEamWorkOrderByOdooId(odooRequest.id);
-                    
-                    if (existingWorkOrder != null) {
-                        // Update existing work order
-                        Long workOrderId = (Long) existingWorkOrder.get("id");
-                        updateEamWorkOrder(workOrderId, workOrderData);
-                        updated++;
-                        logger.debug("Updated EAM work order {} from Odoo request {}", workOrderId, odooRequest.id);
-                    } else {
-                        // Create new work order
-                        Map<String, Object> createdWorkOrder = createEamWorkOrder(workOrderData);
-                        created++;
-                        logger.debug("Created EAM work order from Odoo request {}", odooRequest.id);
-                    }
-
-                    syncResults.add(Map.of(
-                        "odooRequestId", odooRequest.id,
-                        "status", existingWorkOrder != null ? "updated" : "created",
-                        "success", true
-                    ));
-
-                } catch (Exception e) {
-                    errors++;
-                    logger.error("Error syncing Odoo maintenance request {}: {}", odooRequest.id, e.getMessage());
-                    syncResults.add(Map.of(
-                        "odooRequestId", odooRequest.id,
-                        "status", "error",
-                        "success", false,
-                        "error", e.getMessage()
-                    ));
-                }
+            Map<Integer, EamLink> workOrders = new ConcurrentHashMap<>();
+            Map<Integer, String> failedLookups = new ConcurrentHashMap<>();
+            Function<PageSource<MaintenanceRequestDTO>, PageSource<MaintenanceRequestDTO>> resolve = source -> resolvingEamLinks(source,
+                    request -> request.id, eamClient::findWorkOrderLinks, workOrders, failedLookups);
+            Function<MaintenanceRequestDTO, Map<String, Object>> handler =
+                    request -> syncMaintenanceRequestFromOdoo(request, linkOf(request.id, workOrders, failedLookups));
+            Map<String, Object> result;
+            if (incremental) {
+                result = pullChanges("Maintenance sync from Odoo", OdooMaintenanceService.MODEL, limit,
+                        odooMaintenanceService::listRequestsChangedSince, request -> request.writeDate, request -> request.id,
+                        "odooRequestId", resolve, handler, phase);
+            } else {
+                result = pipeline.run("Maintenance sync from Odoo", phase.getStartOffset(), limit,
+                        resolve.apply((offset, size) -> pipeline.call(Target.ODOO, () -> odooMaintenanceService.listRequests(offset, size))),
+                        request -> request.id, "odooRequestId", handler, phase);
             }
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("totalProcessed", odooRequests.size());
-            result.put("created", created);
-            result.put("updated", updated);
-            result.put("errors", errors);
-            result.put("details", syncResults);
-
-            logger.info("Maintenance sync completed: {} created, {} updated, {} errors", created, updated, errors);
+            phase.finished();
             return result;
-
         } catch (Exception e) {
+            phase.failed(e);
             logger.error("Failed to sync maintenance from Odoo: {}", e.getMessage());
             throw new RuntimeException("Maintenance synchronization failed", e);
         }
     }
 
-    // Helper methods for EAM service communication
-    private List<Map<String, Object>> getEamMachines(int limit) {
-        try {
-            String url = ASSET_SERVICE_URL + "?limit=" + limit;
-            ResponseEntity<List> response = restTemplate.getForEntity(url, List.class);
-            return response.getBody();
-        } catch (Exception e) {
-            logger.error("Failed to get EAM machines: {}", e.getMessage());
-            return new ArrayList<>();
+    private Map<String, Object> fullSync(RunContext context, int limit, boolean incremental) {
+        Map<String, Callable<Map<String, Object>>> phases = new LinkedHashMap<>();
+        phases.put("assets", () -> {
+            Map<String, Object> assets = new LinkedHashMap<>();
+            assets.put(ASSETS_FROM_ODOO, assetsFromOdoo(context, limit, incremental));
+            assets.put(ASSETS_TO_ODOO, assetsToOdoo(context, limit));
+            return assets;
+        });
+        phases.put(MAINTENANCE_FROM_ODOO, () -> maintenanceFromOdoo(context, limit, incremental));
+
+        long start = System.nanoTime();
+        Map<String, Object> results = pipeline.inParallel(phases);
+        Map<String, Object> result = new LinkedHashMap<>();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> assets = (Map<String, Object>) results.get("assets");
+        result.putAll(assets);
+        result.put(MAINTENANCE_FROM_ODOO, results.get(MAINTENANCE_FROM_ODOO));
+        result.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+        result.put("success", true);
+        return result;
+    }
+
+    /**
+     * Lists changed records of an Odoo model after a (write_date, id) position, oldest first.
+     */
+    @FunctionalInterface
+    private interface ChangeLister<T> {
+        List<T> list(String writeDate, Integer afterId, int limit);
+    }
+
+    /**
+     * Incremental pull: keyset pages from the model's watermark, through the pipeline. The
+     * watermark moves past each committed page while every record so far has been synced, so
+     * it doubles as the phase checkpoint.
+     */
+    private <T> Map<String, Object> pullChanges(String phase, String model, int limit, ChangeLister<T> lister,
+                                                Function<T, String> writeDateOf, Function<T, Integer> idOf,
+                                                String idKey, Function<PageSource<T>, PageSource<T>> resolve,
+                                                Function<T, Map<String, Object>> handler, SyncRuns.Phase tracker) {
+        SyncWatermark start = watermarks.get(model);
+        // Pages are fetched and committed one after another on the phase thread, so plain fields are enough
+        String[] writeDate = {start != null ? start.getWriteDate() : null};
+        Integer[] afterId = {start != null ? start.getRecordId() : null};
+        PageSource<T> changes = (offset, size) -> {
+            List<T> page = pipeline.call(Target.ODOO, () -> lister.list(writeDate[0], afterId[0], size));
+            if (!page.isEmpty()) {
+                T last = page.get(page.size() - 1);
+                writeDate[0] = writeDateOf.apply(last);
+                afterId[0] = idOf.apply(last);
+            }
+            return page;
+        };
+        SyncWatermark[] end = {start};
+        boolean[] stuck = {false};
+        PhaseListener<T> advance = (nextOffset, records, results) -> {
+            if (stuck[0] || records.isEmpty()) {
+                return;
+            }
+            end[0] = watermarks.advance(model, records, results, writeDateOf, idOf);
+            // Past a record that was not synced, later pages must wait for the next pull
+            T last = records.get(records.size() - 1);
+            stuck[0] = end[0] == null || !Objects.equals(end[0].getRecordId(), idOf.apply(last))
+                    || !Objects.equals(end[0].getWriteDate(), writeDateOf.apply(last));
+        };
+
+        Map<String, Object> result = new LinkedHashMap<>(pipeline.run(phase, 0, limit, resolve.apply(changes),
+                idOf::apply, idKey, handler, advance.andThen(tracker)));
+        result.put("watermarkFrom", describe(start));
+        result.put("watermarkTo", describe(end[0]));
+        return result;
+    }
+
+    /**
+     * Wraps a page source so that each fetched page has its EAM records looked up in one call
+     * before its records reach the workers. Records without an EAM counterpart stay absent
+     * from eamLinks. If the lookup fails, the page's ids go to failedLookups with the error
+     * instead: those records end up as errors (see {@link #linkOf}) rather than being created
+     * again, and the phase goes on with the next page.
+     */
+    private <T> PageSource<T> resolvingEamLinks(PageSource<T> source, Function<T, Integer> odooIdOf,
+                                                Function<List<Integer>, Map<Integer, EamLink>> lookup,
+                                                Map<Integer, EamLink> eamLinks, Map<Integer, String> failedLookups) {
+        return (offset, size) -> {
+            List<T> page = source.fetch(offset, size);
+            List<Integer> odooIds = new ArrayList<>(page.size());
+            for (T record : page) {
+                odooIds.add(odooIdOf.apply(record));
+            }
+            try {
+                eamLinks.putAll(pipeline.call(Target.EAM, () -> lookup.apply(odooIds)));
+                odooIds.forEach(failedLookups::remove);
+            } catch (RuntimeException e) {
+                logger.warn("EAM lookup of {} Odoo records failed, they are reported as errors: {}", odooIds.size(), e.getMessage());
+                String error = "EAM lookup failed: " + e.getMessage();
+                odooIds.forEach(odooId -> failedLookups.put(odooId, error));
+            }
+            return page;
+        };
+    }
+
+    /**
+     * EAM record of the Odoo record from its page lookup, or null if it has none. Throws if the
+     * lookup failed, so that the pipeline reports the record as an error.
+     */
+    private static EamLink linkOf(Integer odooId, Map<Integer, EamLink> eamLinks, Map<Integer, String> failedLookups) {
+        String error = failedLookups.get(odooId);
+        if (error != null) {
+            throw new IllegalStateException(error);
         }
+        return eamLinks.get(odooId);
     }
 
-    private Map<String, Object> findEamMachineByOdooId(Integer odooId) {
-        try {
-            String url = ASSET_SERVICE_URL + "/by-odoo-id/" + odooId;
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-            return response.getBody();
-        } catch (Exception e) {
-            // Machine not found or error - return null
+    private static Map<String, Object> describe(SyncWatermark watermark) {
+        if (watermark == null) {
             return null;
         }
+        Map<String, Object> position = new LinkedHashMap<>();
+        position.put("writeDate", watermark.getWriteDate());
+        position.put("id", watermark.getRecordId());
+        return position;
     }
 
-    private Map<String, Object> createEamMachine(Map<String, Object> machineData) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(machineData, headers);
-        
-        ResponseEntity<Map> response = restTemplate.postForEntity(ASSET_SERVICE_URL, request, Map.class);
-        return response.getBody();
-    }
+    // Per-record steps, run on the pipeline workers
 
-    private void updateEamMachine(Long machineId, Map<String, Object> machineData) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(machineData, headers);
-        
-        String url = ASSET_SERVICE_URL + "/" + machineId;
-        restTemplate.exchange(url, HttpMethod.PUT, request, Map.class);
+    /**
+     * machine is the EAM machine already linked to the asset (from the page lookup), or null.
+     * An asset that maps to the fingerprint last written to its machine is skipped.
+     */
+    private Map<String, Object> syncAssetFromOdoo(AssetDTO odooAsset, EamLink machine) {
+        // Map Odoo asset to EAM machine format
+        Map<String, Object> machineData = mappingService.mapOdooAssetToMachine(odooAsset);
+        String fingerprint = mappingService.fingerprintMachine(machineData);
+        if (machine != null && fingerprint.equals(machine.syncHash())) {
+            logger.debug("Odoo asset {} unchanged since last sync, machine {} not rewritten", odooAsset.id, machine.id());
+            return unchanged("odooAssetId", odooAsset.id);
+        }
+        machineData.put(OdooMappingService.SYNC_HASH_FIELD, fingerprint);
+        Long machineId = machine != null ? machine.id() : null;
+
+        if (machineId != null) {
+            // Update existing machine
+            pipeline.call(Target.EAM, () -> {
+                eamClient.updateMachine(machineId, machineData);
+                return null;
+            });
+            logger.debug("Updated EAM machine {} from Odoo asset {}", machineId, odooAsset.id);
+        } else {
+            // Create new machine
+            pipeline.call(Target.EAM, () -> eamClient.createMachine(machineData));
+            logger.debug("Created EAM machine from Odoo asset {}", odooAsset.id);
+        }
+        return Map.of(
+            "odooAssetId", odooAsset.id,
+            "status", machineId != null ? "updated" : "created",
+            "success", true
+        );
     }
 
-    private Map<String, Object> findEamWorkOrderByOdooId(Integer odooId) {
-        try {
-            String url = WORK_ORDER_SERVICE_URL + "/by-odoo-id/" + odooId;
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-            return response.getBody();
-        } catch (Exception e) {
-            return null;
+    /**
+     * Creates the missing Odoo assets of a batch in one create call, then links them back to
+     * their machines in one EAM bulk update. Per-record failures are matched back by position.
+     */
+    private List<Map<String, Object>> syncAssetsToOdoo(List<Map<String, Object>> eamMachines) {
+        List<Map<String, Object>> details = new ArrayList<>(Collections.nCopies(eamMachines.size(), null));
+        List<Integer> toCreate = new ArrayList<>();
+        List<AssetDTO> assets = new ArrayList<>();
+        for (int i = 0; i < eamMachines.size(); i++) {
+            Map<String, Object> eamMachine = eamMachines.get(i);
+            if (eamMachine.get("odooAssetId") != null) {
+                // Update existing Odoo asset (if update API exists)
+                // For now, we'll skip updates: the EAM side has no asset value to push
+                logger.debug("Skipping update for existing Odoo asset {}", eamMachine.get("odooAssetId"));
+                details.set(i, recordResult(eamMachine.get("id"), "skipped", null));
+            } else {
+                // Map EAM machine to Odoo asset format
+                toCreate.add(i);
+                assets.add(mappingService.mapMachineToOdooAsset(eamMachine));
+            }
+        }
+        if (assets.isEmpty()) {
+            return details;
         }
+
+        List<OdooXmlRpc.RecordResult> created = pipeline.call(Target.ODOO, () -> odooAssetService.createAssets(assets));
+        List<Map<String, Object>> links = new ArrayList<>();
+        for (int j = 0; j < toCreate.size(); j++) {
+            Map<String, Object> eamMachine = eamMachines.get(toCreate.get(j));
+            OdooXmlRpc.RecordResult result = created.get(j);
+            if (result.isSuccess()) {
+                Map<String, Object> link = new HashMap<>();
+                link.put("id", eamMachine.get("id"));
+                link.put("odooAssetId", result.id());
+                links.add(link);
+            } else {
+                details.set(toCreate.get(j), recordResult(eamMachine.get("id"), "error", result.error()));
+            }
+        }
+
+        // Update EAM machines with their Odoo IDs
+        Map<Object, String> linkErrors = links.isEmpty() ? Map.of() : pipeline.call(Target.EAM, () -> eamClient.linkMachines(links));
+        for (int j = 0; j < toCreate.size(); j++) {
+            int position = toCreate.get(j);
+            if (details.get(position) != null) {
+                continue;
+            }
+            Object machineId = eamMachines.get(position).get("id");
+            String linkError = linkErrors.get(machineId);
+            if (linkError != null) {
+                details.set(position, recordResult(machineId, "error",
+                        "Created Odoo asset " + created.get(j).id() + " but could not link it: " + linkError));
+            } else {
+                details.set(position, recordResult(machineId, "created", null));
+                logger.debug("Created Odoo asset {} from EAM machine {}", created.get(j).id(), machineId);
+            }
+        }
+        return details;
+    }
+
+    private static Map<String, Object> unchanged(String idKey, Integer odooId) {
+        return Map.of(
+            idKey, odooId,
+            "status", "skipped",
+            "reason", "unchanged",
+            "success", true
+        );
     }
 
-    private Map<String, Object> createEamWorkOrder(Map<String, Object> workOrderData) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(workOrderData, headers);
-        
-        ResponseEntity<Map> response = restTemplate.postForEntity(WORK_ORDER_SERVICE_URL, request, Map.class);
-        return response.getBody();
+    private static Map<String, Object> recordResult(Object eamMachineId, String status, String error) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("eamMachineId", eamMachineId);
+        result.put("status", status);
+        result.put("success", error == null);
+        if (error != null) {
+            result.put("error", error);
+        }
+        return result;
     }
 
-    private void updateEamWorkOrder(Long workOrderId, Map<String, Object> workOrderData) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(workOrderData, headers);
-        
-        String url = WORK_ORDER_SERVICE_URL + "/" + workOrderId;
-        restTemplate.exchange(url, HttpMethod.PUT, request, Map.class);
+    private Map<String, Object> syncMaintenanceRequestFromOdoo(MaintenanceRequestDTO odooRequest, EamLink workOrder) {
+        // Map Odoo request to EAM work order format
+        Map<String, Object> workOrderData = mappingService.mapMaintenanceRequestToOrdreTravail(odooRequest);
+        String fingerprint = mappingService.fingerprintOrdreTravail(workOrderData);
+        if (workOrder != null && fingerprint.equals(workOrder.syncHash())) {
+            logger.debug("Odoo request {} unchanged since last sync, work order {} not rewritten", odooRequest.id, workOrder.id());
+            return unchanged("odooRequestId", odooRequest.id);
+        }
+        workOrderData.put(OdooMappingService.SYNC_HASH_FIELD, fingerprint);
+        Long workOrderId = workOrder != null ? workOrder.id() : null;
+
+        if (workOrderId != null) {
+            // Update existing work order
+            pipeline.call(Target.EAM, () -> {
+                eamClient.updateWorkOrder(workOrderId, workOrderData);
+                return null;
+            });
+            logger.debug("Updated EAM work order {} from Odoo request {}", workOrderId, odooRequest.id);
+        } else {
+            // Create new work order
+            pipeline.call(Target.EAM, () -> eamClient.createWorkOrder(workOrderData));
+            logger.debug("Created EAM work order from Odoo request {}", odooRequest.id);
+        }
+        return Map.of(
+            "odooRequestId", odooRequest.id,
+            "status", workOrderId != null ? "updated" : "created",
+            "success", true
+        );
     }
 }
@@ -2,85 +2,148 @@ package com.eam.odoo;
 
 import org.apache.xmlrpc.XmlRpcException;
 import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientException;
+import org.apache.xmlrpc.client.XmlRpcHttpTransportException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
 public class OdooXmlRpc {
 
+    /** XML-RPC fault code Odoo returns for odoo.exceptions.AccessDenied. */
+    private static final int ACCESS_DENIED_FAULT = 3;
+
     private final XmlRpcClient objectClient;
     private final OdooAuthService authService;
+    private final int createBatchSize;
 
-    public OdooXmlRpc(@Qualifier("odooObjectClient") XmlRpcClient objectClient, OdooAuthService authService) {
+    public OdooXmlRpc(@Qualifier("odooObjectClient") XmlRpcClient objectClient, OdooAuthService authService,
+                      @Value("${odoo.batch.create-size:100}") int createBatchSize) {
         this.objectClient = objectClient;
         this.authService = authService;
+        this.createBatchSize = Math.max(1, createBatchSize);
+    }
+
+    /**
+     * Outcome of one record of a batch call: the record id, or the error that rejected it.
+     */
+    public record RecordResult(Integer id, String error) {
+
+        public boolean isSuccess() {
+            return error == null;
+        }
     }
 
     @SuppressWarnings("unchecked")
     public Object[] searchRead(String model, Object[] domain, String[] fields, Integer offset, Integer limit, String order) {
-        int uid = authService.authenticate();
         Map<String, Object> kwargs = new HashMap<>();
         if (fields != null) kwargs.put("fields", fields);
         if (offset != null) kwargs.put("offset", offset);
         if (limit != null) kwargs.put("limit", limit);
         if (order != null) kwargs.put("order", order);
 
-        try {
-            return (Object[]) objectClient.execute("execute_kw", new Object[]{
-                    authService.getDb(), uid, authService.getPassword(),
-                    model, "search_read",
-                    new Object[]{domain == null ? new Object[]{} : domain},
-                    kwargs
-            });
-        } catch (XmlRpcException e) {
-            throw new RuntimeException("Odoo search_read failed: " + e.getMessage(), e);
-        }
+        return (Object[]) execute(model, "search_read",
+                new Object[]{domain == null ? new Object[]{} : domain}, kwargs);
     }
 
     public Integer create(String model, Map<String, Object> vals) {
-        int uid = authService.authenticate();
-        try {
-            Object id = objectClient.execute("execute_kw", new Object[]{
-                    authService.getDb(), uid, authService.getPassword(),
-                    model, "create",
-                    new Object[]{vals}
-            });
-            if (id instanceof Integer) return (Integer) id;
-            if (id instanceof Number) return ((Number) id).intValue();
-            throw new RuntimeException("Unexpected ID type from create: " + id);
-        } catch (XmlRpcException e) {
-            throw new RuntimeException("Odoo create failed: " + e.getMessage(), e);
-        }
+        Object id = execute(model, "create", new Object[]{vals}, null);
+        if (id instanceof Integer) return (Integer) id;
+        if (id instanceof Number) return ((Number) id).intValue();
+        throw new RuntimeException("Unexpected ID type from create: " + id);
     }
 
     public Boolean write(String model, Integer id, Map<String, Object> vals) {
-        int uid = authService.authenticate();
-        try {
-            Object ok = objectClient.execute("execute_kw", new Object[]{
-                    authService.getDb(), uid, authService.getPassword(),
-                    model, "write",
-                    new Object[]{new Object[]{id}, vals}
-            });
-            return Boolean.TRUE.equals(ok);
-        } catch (XmlRpcException e) {
-            throw new RuntimeException("Odoo write failed: " + e.getMessage(), e);
+        Object ok = execute(model, "write", new Object[]{new Object[]{id}, vals}, null);
+        return Boolean.TRUE.equals(ok);
+    }
+
+    /**
+     * Creates the records with one create call per {@code odoo.batch.create-size} records (Odoo
+     * create accepts a list of value dicts). Results are in input order. A batch Odoo rejects with
+     * a fault is retried record by record, so one bad record only fails itself.
+     */
+    public List<RecordResult> createMany(String model, List<Map<String, Object>> valsList) {
+        List<RecordResult> results = new ArrayList<>(valsList.size());
+        for (int start = 0; start < valsList.size(); start += createBatchSize) {
+            List<Map<String, Object>> batch = valsList.subList(start, Math.min(valsList.size(), start + createBatchSize));
+            try {
+                Object ids = execute(model, "create", new Object[]{batch.toArray()}, null);
+                Object[] created = ids instanceof Object[] array ? array : new Object[]{ids};
+                if (created.length != batch.size()) {
+                    throw new IllegalStateException("Odoo returned " + created.length + " ids for " + batch.size() + " records");
+                }
+                for (Object id : created) {
+                    results.add(new RecordResult(((Number) id).intValue(), null));
+                }
+            } catch (RuntimeException batchError) {
+                // Only an Odoo fault proves nothing was created; after a transport error the
+                // batch may have gone through, and creating record by record could duplicate it
+                if (batch.size() == 1 || !isFault(batchError)) {
+                    batch.forEach(vals -> results.add(new RecordResult(null, batchError.getMessage())));
+                    continue;
+                }
+                for (Map<String, Object> vals : batch) {
+                    try {
+                        results.add(new RecordResult(create(model, vals), null));
+                    } catch (RuntimeException e) {
+                        results.add(new RecordResult(null, e.getMessage()));
+                    }
+                }
+            }
         }
+        return results;
     }
 
     public Boolean unlink(String model, Integer id) {
+        Object ok = execute(model, "unlink", new Object[]{new Object[]{id}}, null);
+        return Boolean.TRUE.equals(ok);
+    }
+
+    /**
+     * execute_kw with the cached uid. If Odoo rejects the credentials (uid expired on the
+     * Odoo side, password rotated), the uid is dropped and the call retried once.
+     */
+    private Object execute(String model, String method, Object[] args, Map<String, Object> kwargs) {
         int uid = authService.authenticate();
         try {
-            Object ok = objectClient.execute("execute_kw", new Object[]{
-                    authService.getDb(), uid, authService.getPassword(),
-                    model, "unlink",
-                    new Object[]{new Object[]{id}}
-            });
-            return Boolean.TRUE.equals(ok);
+            return executeAs(uid, model, method, args, kwargs);
         } catch (XmlRpcException e) {
-            throw new RuntimeException("Odoo unlink failed: " + e.getMessage(), e);
+            if (!isAccessDenied(e)) {
+                throw new RuntimeException("Odoo " + method + " failed: " + e.getMessage(), e);
+            }
+            authService.invalidate(uid);
+            try {
+                return executeAs(authService.authenticate(), model, method, args, kwargs);
+            } catch (XmlRpcException retryError) {
+                throw new RuntimeException("Odoo " + method + " failed: " + retryError.getMessage(), retryError);
+            }
         }
     }
-}
\ No newline at end of file
+
+    private Object executeAs(int uid, String model, String method, Object[] args, Map<String, Object> kwargs)
+            throws XmlRpcException {
+        Object[] params = kwargs != null
+                ? new Object[]{authService.getDb(), uid, authService.getPassword(), model, method, args, kwargs}
+                : new Object[]{authService.getDb(), uid, authService.getPassword(), model, method, args};
+        return objectClient.execute("execute_kw", params);
+    }
+
+    private static boolean isFault(RuntimeException e) {
+        return e.getCause() instanceof XmlRpcException cause
+                && !(cause instanceof XmlRpcClientException)
+                && !(cause instanceof XmlRpcHttpTransportException);
+    }
+
+    private static boolean isAccessDenied(XmlRpcException e) {
+        String message = e.getMessage();
+        return e.code == ACCESS_DENIED_FAULT
+                || (message != null && (message.contains("AccessDenied") || message.contains("Access Denied")));
+    }
+}
@@ -0,0 +1,333 @@
+package com.eam.odoo;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Staged, bounded-concurrency engine for the sync phases.
+ * <p>
+ * A phase fetches its source page by page on the calling thread and hands each record to a
+ * shared worker pool, which maps it, looks it up and writes it. Remote calls go through
+ * {@link #call(Target, Supplier)}, which caps the concurrent calls per target (EAM gateway,
+ * Odoo) so neither side is flooded. At most {@code odoo.sync.max-in-flight} records of a phase
+ * are queued or running: when the workers fall behind, fetching blocks instead of buffering
+ * the whole source. Targets with batch APIs get records in groups through {@link #runBatched}.
+ * Independent phases can run in parallel with {@link #inParallel}.
+ * <p>
+ * A page is committed once every record of it and of the pages before it has a result; a
+ * {@link PhaseListener} sees the committed pages in order, which is what checkpoints build on.
+ */
+@Component
+public class SyncPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncPipeline.class);
+
+    public enum Target {
+        EAM,
+        ODOO
+    }
+
+    /**
+     * A page of source records; a page shorter than {@code size} ends the phase.
+     */
+    @FunctionalInterface
+    public interface PageSource<S> {
+        List<S> fetch(int offset, int size);
+
+        /**
+         * A source already fully loaded, served as a single page.
+         */
+        static <S> PageSource<S> of(List<S> records) {
+            return (offset, size) -> offset == 0 ? records : List.of();
+        }
+    }
+
+    /**
+     * Told about each committed page, in source order, on the thread running the phase.
+     */
+    @FunctionalInterface
+    public interface PhaseListener<S> {
+        /**
+         * @param nextOffset source offset of the first record not committed yet
+         * @param results one per record of the page, same order
+         */
+        void pageCommitted(int nextOffset, List<? extends S> records, List<Map<String, Object>> results);
+
+        default PhaseListener<S> andThen(PhaseListener<? super S> next) {
+            return (nextOffset, records, results) -> {
+                pageCommitted(nextOffset, records, results);
+                next.pageCommitted(nextOffset, records, results);
+            };
+        }
+
+        static <S> PhaseListener<S> none() {
+            return (nextOffset, records, results) -> { };
+        }
+    }
+
+    private final OdooAuthService authService;
+    private final ExecutorService workers;
+    private final ExecutorService phases;
+    private final Map<Target, Semaphore> permits = new HashMap<>();
+    private final Map<Target, Integer> limits = new HashMap<>();
+    private final int pageSize;
+    private final int maxInFlight;
+
+    public SyncPipeline(OdooAuthService authService,
+                        @Value("${odoo.sync.eam-concurrency:8}") int eamConcurrency,
+                        @Value("${odoo.sync.odoo-concurrency:4}") int odooConcurrency,
+                        @Value("${odoo.sync.page-size:100}") int pageSize,
+                        @Value("${odoo.sync.max-in-flight:64}") int maxInFlight) {
+        this.authService = authService;
+        limits.put(Target.EAM, Math.max(1, eamConcurrency));
+        limits.put(Target.ODOO, Math.max(1, odooConcurrency));
+        limits.forEach((target, limit) -> permits.put(target, new Semaphore(limit, true)));
+        this.pageSize = Math.max(1, pageSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        // Enough workers to saturate both targets at once; the semaphores do the actual limiting
+        this.workers = Executors.newFixedThreadPool(limits.get(Target.EAM) + limits.get(Target.ODOO),
+                daemonThreads("odoo-sync-worker-"));
+        this.phases = Executors.newCachedThreadPool(daemonThreads("odoo-sync-phase-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+        phases.shutdownNow();
+    }
+
+    /**
+     * Runs a remote call to the target once one of its permits is free.
+     */
+    public <T> T call(Target target, Supplier<T> remoteCall) {
+        Semaphore semaphore = permits.get(target);
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + target, e);
+        }
+        try {
+            return remoteCall.get();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Runs one phase over at most {@code limit} records. The handler returns the per-record
+     * result (with a "status" entry); a handler exception becomes an "error" result. The
+     * returned summary counts results by status and lists them in source order.
+     */
+    public <S> Map<String, Object> run(String phase, int limit, PageSource<S> source,
+                                       Function<S, Object> idOf, String idKey,
+                                       Function<S, Map<String, Object>> handler) {
+        return run(phase, 0, limit, source, idOf, idKey, handler, PhaseListener.none());
+    }
+
+    /**
+     * Same as {@link #run}, starting at source offset {@code startOffset} (a checkpoint) and
+     * reporting committed pages to the listener. {@code limit} is the end offset, not a count.
+     */
+    public <S> Map<String, Object> run(String phase, int startOffset, int limit, PageSource<S> source,
+                                       Function<S, Object> idOf, String idKey,
+                                       Function<S, Map<String, Object>> handler, PhaseListener<? super S> listener) {
+        return runBatched(phase, startOffset, limit, source, idOf, idKey, 1,
+                batch -> List.of(handler.apply(batch.get(0))), listener);
+    }
+
+    /**
+     * Same as {@link #run}, but the workers receive the records in groups of up to
+     * {@code batchSize} (cut from each page), for targets that accept batched writes. The
+     * handler returns one result per record of its batch, in batch order; if it throws, every
+     * record of the batch gets the error.
+     */
+    public <S> Map<String, Object> runBatched(String phase, int limit, PageSource<S> source,
+                                              Function<S, Object> idOf, String idKey, int batchSize,
+                                              Function<List<S>, List<Map<String, Object>>> handler) {
+        return runBatched(phase, 0, limit, source, idOf, idKey, batchSize, handler, PhaseListener.none());
+    }
+
+    public <S> Map<String, Object> runBatched(String phase, int startOffset, int limit, PageSource<S> source,
+                                              Function<S, Object> idOf, String idKey, int batchSize,
+                                              Function<List<S>, List<Map<String, Object>>> handler,
+                                              PhaseListener<? super S> listener) {
+        long start = System.nanoTime();
+        long authCallsBefore = authService.getAuthCallCount();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Deque<PendingPage<S>> pending = new ArrayDeque<>();
+        List<Map<String, Object>> details = new ArrayList<>();
+        Map<String, Integer> byStatus = new HashMap<>();
+        int offset = startOffset;
+        while (offset < limit) {
+            int size = Math.min(pageSize, limit - offset);
+            List<S> page = source.fetch(offset, size);
+            List<Future<List<Map<String, Object>>>> results = new ArrayList<>();
+            for (int from = 0; from < page.size(); from += batchSize) {
+                List<S> batch = page.subList(from, Math.min(page.size(), from + batchSize));
+                acquire(inFlight);
+                try {
+                    results.add(workers.submit(() -> {
+                        try {
+                            return handler.apply(batch);
+                        } catch (RuntimeException e) {
+                            List<Map<String, Object>> errors = new ArrayList<>(batch.size());
+                            for (S record : batch) {
+                                logger.error("Error in {} for {} {}: {}", phase, idKey, idOf.apply(record), e.getMessage());
+                                Map<String, Object> error = new HashMap<>();
+                                error.put(idKey, idOf.apply(record));
+                                error.put("status", "error");
+                                error.put("success", false);
+                                error.put("error", String.valueOf(e.getMessage()));
+                                errors.add(error);
+                            }
+                            return errors;
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+            offset += page.size();
+            pending.add(new PendingPage<>(page, results, offset));
+            // Commit what is already finished without waiting for the rest
+            while (!pending.isEmpty() && pending.peek().isDone()) {
+                commit(pending.poll(), details, byStatus, listener);
+            }
+            if (page.size() < size) {
+                break;
+            }
+        }
+        while (!pending.isEmpty()) {
+            commit(pending.poll(), details, byStatus, listener);
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("totalProcessed", details.size());
+        summary.put("created", byStatus.getOrDefault("created", 0));
+        summary.put("updated", byStatus.getOrDefault("updated", 0));
+        summary.put("skipped", byStatus.getOrDefault("skipped", 0));
+        summary.put("errors", byStatus.getOrDefault("error", 0));
+        summary.put("elapsedMs", elapsedMs);
+        // Includes phases running at the same time, the uid cache being shared
+        summary.put("odooAuthCalls", authService.getAuthCallCount() - authCallsBefore);
+        summary.put("details", details);
+        logger.info("{} completed in {} ms: {} records, {}", phase, elapsedMs, details.size(), byStatus);
+        return summary;
+    }
+
+    /**
+     * Runs independent phases at the same time and returns their results by name, in the
+     * given order. The first failure is rethrown once every phase has finished.
+     */
+    public Map<String, Object> inParallel(Map<String, Callable<Map<String, Object>>> namedPhases) {
+        Map<String, CompletableFuture<Map<String, Object>>> running = new LinkedHashMap<>();
+        namedPhases.forEach((name, phase) -> running.put(name, CompletableFuture.supplyAsync(() -> {
+            try {
+                return phase.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, phases)));
+        CompletableFuture.allOf(running.values().toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .join();
+        Map<String, Object> results = new LinkedHashMap<>();
+        running.forEach((name, future) -> results.put(name, await(future)));
+        return results;
+    }
+
+    public Map<String, Object> getSettings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("eamConcurrency", limits.get(Target.EAM));
+        settings.put("odooConcurrency", limits.get(Target.ODOO));
+        settings.put("pageSize", pageSize);
+        settings.put("maxInFlight", maxInFlight);
+        return settings;
+    }
+
+    private static <S> void commit(PendingPage<S> page, List<Map<String, Object>> details,
+                                   Map<String, Integer> byStatus, PhaseListener<? super S> listener) {
+        List<Map<String, Object>> pageResults = new ArrayList<>(page.records().size());
+        for (Future<List<Map<String, Object>>> result : page.results()) {
+            pageResults.addAll(await(result));
+        }
+        for (Map<String, Object> detail : pageResults) {
+            details.add(detail);
+            byStatus.merge(String.valueOf(detail.get("status")), 1, Integer::sum);
+        }
+        listener.pageCommitted(page.nextOffset(), page.records(), pageResults);
+    }
+
+    private record PendingPage<S>(List<S> records, List<Future<List<Map<String, Object>>>> results, int nextOffset) {
+        boolean isDone() {
+            for (Future<?> result : results) {
+                if (!result.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing sync records", e);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for sync results", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,257 @@
+package com.eam.odoo;
+
+import com.eam.odoo.entity.SyncRun;
+import com.eam.odoo.entity.SyncRunError;
+import com.eam.odoo.entity.SyncRunPhase;
+import com.eam.odoo.repository.SyncRunErrorRepository;
+import com.eam.odoo.repository.SyncRunPhaseRepository;
+import com.eam.odoo.repository.SyncRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Persisted history of the sync runs: each run, the progress of its phases (saved after every
+ * committed page, so it can be watched while the run goes on) and its failed records.
+ * <p>
+ * The saved phase checkpoints are what an interrupted run resumes from. History writes never
+ * fail a sync: if one does not go through, it is logged and the sync carries on.
+ */
+@Service
+public class SyncRuns {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncRuns.class);
+
+    private final SyncRunRepository runRepository;
+    private final SyncRunPhaseRepository phaseRepository;
+    private final SyncRunErrorRepository errorRepository;
+    private final int maxErrorsPerPhase;
+    private final int retentionDays;
+
+    public SyncRuns(SyncRunRepository runRepository,
+                    SyncRunPhaseRepository phaseRepository,
+                    SyncRunErrorRepository errorRepository,
+                    @Value("${odoo.sync.history.max-errors-per-phase:1000}") int maxErrorsPerPhase,
+                    @Value("${odoo.sync.history.retention-days:90}") int retentionDays) {
+        this.runRepository = runRepository;
+        this.phaseRepository = phaseRepository;
+        this.errorRepository = errorRepository;
+        this.maxErrorsPerPhase = Math.max(0, maxErrorsPerPhase);
+        this.retentionDays = Math.max(1, retentionDays);
+    }
+
+    /**
+     * Runs still RUNNING at startup died with the previous process (this service runs as a
+     * single instance); they become INTERRUPTED and can be resumed. Old runs are pruned.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        Date now = new Date();
+        int interrupted = runRepository.updateStatus(SyncRun.Status.RUNNING, SyncRun.Status.INTERRUPTED, now);
+        phaseRepository.updateStatus(SyncRun.Status.RUNNING, SyncRun.Status.INTERRUPTED, now);
+        if (interrupted > 0) {
+            logger.warn("{} sync run(s) interrupted by the last shutdown, resumable", interrupted);
+        }
+        Date cutoff = new Date(now.getTime() - Duration.ofDays(retentionDays).toMillis());
+        int pruned = runRepository.deleteStartedBefore(cutoff, SyncRun.Status.RUNNING);
+        if (pruned > 0) {
+            phaseRepository.deleteOrphans();
+            errorRepository.deleteOrphans();
+            logger.info("Pruned {} sync runs older than {} days", pruned, retentionDays);
+        }
+    }
+
+    public SyncRun start(String type, int limit, boolean incremental, Long resumedFrom) {
+        SyncRun run = runRepository.save(new SyncRun(type, limit, incremental, resumedFrom));
+        logger.info("Sync run {} started: {} (limit {}, incremental {}{})", run.getId(), type, limit, incremental,
+                resumedFrom != null ? ", resuming run " + resumedFrom : "");
+        return run;
+    }
+
+    public void complete(SyncRun run) {
+        finish(run, SyncRun.Status.COMPLETED, null);
+    }
+
+    public void fail(SyncRun run, Exception e) {
+        finish(run, SyncRun.Status.FAILED, String.valueOf(e.getMessage()));
+    }
+
+    private void finish(SyncRun run, SyncRun.Status status, String error) {
+        run.finish(status, error);
+        try {
+            runRepository.save(run);
+        } catch (RuntimeException e) {
+            logger.warn("Could not save the end of sync run {}: {}", run.getId(), e.getMessage());
+        }
+        logger.info("Sync run {} {}", run.getId(), status);
+    }
+
+    /**
+     * Starts tracking a phase of the run from the given source offset.
+     */
+    public Phase startPhase(SyncRun run, String name, String idKey, int startOffset) {
+        return new Phase(phaseRepository.save(new SyncRunPhase(run.getId(), name, startOffset)), idKey);
+    }
+
+    public SyncRun get(Long runId) {
+        return runRepository.findById(runId).orElse(null);
+    }
+
+    public List<SyncRunPhase> phases(Long runId) {
+        return phaseRepository.findByRunIdOrderById(runId);
+    }
+
+    /**
+     * Latest phase row of each name in the run, by name.
+     */
+    public Map<String, SyncRunPhase> phasesByName(Long runId) {
+        return phases(runId).stream()
+                .collect(Collectors.toMap(SyncRunPhase::getName, phase -> phase, (first, last) -> last, LinkedHashMap::new));
+    }
+
+    public List<SyncRunError> errors(Long runId, int limit) {
+        return errorRepository.findByRunIdOrderById(runId, PageRequest.of(0, Math.max(1, limit)));
+    }
+
+    /**
+     * Newest runs first, each with its phases.
+     */
+    public List<Map<String, Object>> history(int page, int size) {
+        List<SyncRun> runs = runRepository.findAllByOrderByIdDesc(PageRequest.of(Math.max(0, page), Math.max(1, size)));
+        Map<Long, List<SyncRunPhase>> phases = phaseRepository
+                .findByRunIdInOrderById(runs.stream().map(SyncRun::getId).toList()).stream()
+                .collect(Collectors.groupingBy(SyncRunPhase::getRunId));
+        List<Map<String, Object>> history = new ArrayList<>(runs.size());
+        for (SyncRun run : runs) {
+            history.add(describe(run, phases.getOrDefault(run.getId(), List.of())));
+        }
+        return history;
+    }
+
+    /**
+     * Runs in progress with their phases, as saved at their last committed page.
+     */
+    public List<Map<String, Object>> active() {
+        List<Map<String, Object>> active = new ArrayList<>();
+        for (SyncRun run : runRepository.findByStatusOrderByIdDesc(SyncRun.Status.RUNNING)) {
+            active.add(describe(run, phases(run.getId())));
+        }
+        return active;
+    }
+
+    /**
+     * The run with its phases and error count, or null if there is no such run.
+     */
+    public Map<String, Object> progress(Long runId) {
+        SyncRun run = get(runId);
+        if (run == null) {
+            return null;
+        }
+        Map<String, Object> progress = describe(run, phases(runId));
+        progress.put("errorCount", errorRepository.countByRunId(runId));
+        return progress;
+    }
+
+    /**
+     * Summary of the last finished run, or null before the first one.
+     */
+    public Map<String, Object> lastFinished() {
+        return runRepository.findFirstByFinishedAtIsNotNullOrderByIdDesc()
+                .map(run -> describe(run, phases(run.getId())))
+                .orElse(null);
+    }
+
+    private static Map<String, Object> describe(SyncRun run, List<SyncRunPhase> phases) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("runId", run.getId());
+        description.put("type", run.getType());
+        description.put("status", run.getStatus());
+        description.put("limit", run.getLimit());
+        description.put("incremental", run.isIncremental());
+        description.put("resumedFrom", run.getResumedFrom());
+        description.put("startedAt", run.getStartedAt());
+        description.put("finishedAt", run.getFinishedAt());
+        long end = run.getFinishedAt() != null ? run.getFinishedAt().getTime() : System.currentTimeMillis();
+        description.put("elapsedMs", end - run.getStartedAt().getTime());
+        description.put("error", run.getError());
+        description.put("phases", phases);
+        return description;
+    }
+
+    /**
+     * Saves a phase's progress as the pipeline commits its pages, on the phase thread.
+     */
+    public class Phase implements SyncPipeline.PhaseListener<Object> {
+
+        private final SyncRunPhase row;
+        private final String idKey;
+        private int savedErrors;
+
+        private Phase(SyncRunPhase row, String idKey) {
+            this.row = row;
+            this.idKey = idKey;
+        }
+
+        public int getStartOffset() {
+            return row.getStartOffset();
+        }
+
+        @Override
+        public void pageCommitted(int nextOffset, List<?> records, List<Map<String, Object>> results) {
+            int created = 0;
+            int updated = 0;
+            int skipped = 0;
+            List<SyncRunError> errors = new ArrayList<>();
+            for (Map<String, Object> result : results) {
+                switch (String.valueOf(result.get("status"))) {
+                    case "created" -> created++;
+                    case "updated" -> updated++;
+                    case "skipped" -> skipped++;
+                    case "error" -> errors.add(new SyncRunError(row.getRunId(), row.getName(), idKey,
+                            result.get(idKey), String.valueOf(result.get("error"))));
+                    default -> { }
+                }
+            }
+            row.commit(nextOffset, results.size(), created, updated, skipped, errors.size());
+            try {
+                phaseRepository.save(row);
+                List<SyncRunError> kept = errors.subList(0, Math.min(errors.size(), maxErrorsPerPhase - savedErrors));
+                if (!kept.isEmpty()) {
+                    errorRepository.saveAll(kept);
+                    savedErrors += kept.size();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not save the progress of {} in sync run {}: {}", row.getName(), row.getRunId(), e.getMessage());
+            }
+        }
+
+        public void finished() {
+            finish(SyncRun.Status.COMPLETED, null);
+        }
+
+        public void failed(Exception e) {
+            finish(SyncRun.Status.FAILED, String.valueOf(e.getMessage()));
+        }
+
+        private void finish(SyncRun.Status status, String error) {
+            row.finish(status, error);
+            try {
+                phaseRepository.save(row);
+            } catch (RuntimeException e) {
+                logger.warn("Could not save the end of {} in sync run {}: {}", row.getName(), row.getRunId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.eam.odoo;
+
+import com.eam.odoo.entity.SyncWatermark;
+import com.eam.odoo.repository.SyncWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Persisted positions of the incremental Odoo pulls, one per model.
+ * <p>
+ * A pull reads the records changed after the stored (write_date, id) in that order. As its pages
+ * are committed, the watermark moves to the last record of the longest run of successfully
+ * synced records from the start of the pull, so a pull that dies halfway keeps its progress,
+ * and a failed record (and everything after it) is read again next time; the EAM writes are
+ * upserts, so replaying is harmless.
+ */
+@Service
+public class SyncWatermarks {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncWatermarks.class);
+
+    private final SyncWatermarkRepository repository;
+
+    public SyncWatermarks(SyncWatermarkRepository repository) {
+        this.repository = repository;
+    }
+
+    public SyncWatermark get(String model) {
+        return repository.findById(model).orElse(null);
+    }
+
+    public List<SyncWatermark> findAll() {
+        return repository.findAll();
+    }
+
+    /**
+     * Forgets the watermark: the next pull of the model reads every record again.
+     */
+    public void reset(String model) {
+        repository.deleteById(model);
+        logger.info("Watermark of {} reset", model);
+    }
+
+    /**
+     * @param records pulled records following the current watermark, in pull order
+     * @param results the sync result of each record, same order (a "success" entry)
+     * @return the new watermark, or the current one if no record at the start succeeded
+     */
+    public <T> SyncWatermark advance(String model, List<? extends T> records, List<Map<String, Object>> results,
+                                     Function<T, String> writeDateOf, Function<T, Integer> idOf) {
+        T last = null;
+        for (int i = 0; i < records.size() && i < results.size(); i++) {
+            if (!Boolean.TRUE.equals(results.get(i).get("success")) || writeDateOf.apply(records.get(i)) == null) {
+                break;
+            }
+            last = records.get(i);
+        }
+        if (last == null) {
+            return get(model);
+        }
+        SyncWatermark watermark = repository.save(new SyncWatermark(model, writeDateOf.apply(last), idOf.apply(last)));
+        logger.info("Watermark of {} advanced to ({}, {})", model, watermark.getWriteDate(), watermark.getRecordId());
+        return watermark;
+    }
+}
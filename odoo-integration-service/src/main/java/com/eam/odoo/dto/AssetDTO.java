@@ -6,6 +6,7 @@ public class AssetDTO {
     public Double value;
     public String acquisitionDate;
     public String state;
+    public String writeDate;       // write_date, for incremental pulls
 
     public AssetDTO() {}
 }
\ No newline at end of file
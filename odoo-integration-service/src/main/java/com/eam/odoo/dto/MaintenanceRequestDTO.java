@@ -8,6 +8,7 @@ public class MaintenanceRequestDTO {
     public String requestDate;     // date
     public String stage;           // stage_id display
     public Integer createdBy;      // create_uid
+    public String writeDate;       // write_date, for incremental pulls
 
     public MaintenanceRequestDTO() {}
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.eam.odoo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+import java.util.Date;
+
+/**
+ * One sync call (a single direction or a full sync) and how it ended. Its phases are
+ * {@link SyncRunPhase} rows, its failed records {@link SyncRunError} rows.
+ */
+@Entity
+@Table(name = "odoo_sync_run", indexes = @Index(name = "idx_odoo_sync_run_status", columnList = "status"))
+public class SyncRun {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        /** Still RUNNING when the service restarted: the process died mid-run. */
+        INTERRUPTED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** What was run, e.g. fullSync or assetsFromOdoo. */
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "record_limit", nullable = false)
+    private int limit;
+
+    @Column(nullable = false)
+    private boolean incremental;
+
+    /** Run this one resumes, if any. */
+    @Column(name = "resumed_from")
+    private Long resumedFrom;
+
+    @Column(name = "started_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date startedAt;
+
+    @Column(name = "finished_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+
+    public SyncRun() {
+    }
+
+    public SyncRun(String type, int limit, boolean incremental, Long resumedFrom) {
+        this.type = type;
+        this.status = Status.RUNNING;
+        this.limit = limit;
+        this.incremental = incremental;
+        this.resumedFrom = resumedFrom;
+        this.startedAt = new Date();
+    }
+
+    public void finish(Status status, String error) {
+        this.status = status;
+        this.error = SyncRunError.truncate(error);
+        this.finishedAt = new Date();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public Long getResumedFrom() {
+        return resumedFrom;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
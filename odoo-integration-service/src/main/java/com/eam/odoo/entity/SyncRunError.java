@@ -0,0 +1,91 @@
+package com.eam.odoo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+import java.util.Date;
+
+/**
+ * A record that failed to sync in a run, e.g. odooAssetId 42 with the EAM error message.
+ */
+@Entity
+@Table(name = "odoo_sync_run_error", indexes = @Index(name = "idx_odoo_sync_run_error_run", columnList = "run_id"))
+public class SyncRunError {
+
+    private static final int MAX_MESSAGE = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(nullable = false, length = 32)
+    private String phase;
+
+    /** Id field of the record, e.g. odooAssetId or eamMachineId. */
+    @Column(name = "record_key", nullable = false, length = 32)
+    private String recordKey;
+
+    @Column(name = "record_id", length = 64)
+    private String recordId;
+
+    @Column(length = MAX_MESSAGE)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    public SyncRunError() {
+    }
+
+    public SyncRunError(Long runId, String phase, String recordKey, Object recordId, String message) {
+        this.runId = runId;
+        this.phase = phase;
+        this.recordKey = recordKey;
+        this.recordId = recordId != null ? String.valueOf(recordId) : null;
+        this.message = truncate(message);
+        this.createdAt = new Date();
+    }
+
+    static String truncate(String message) {
+        return message != null && message.length() > MAX_MESSAGE ? message.substring(0, MAX_MESSAGE) : message;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public String getRecordKey() {
+        return recordKey;
+    }
+
+    public String getRecordId() {
+        return recordId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,168 @@
+package com.eam.odoo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+import java.util.Date;
+
+/**
+ * Progress of one phase of a sync run, saved after every committed page: the counts so far
+ * and the checkpoint, the source offset every record before which has been synced.
+ */
+@Entity
+@Table(name = "odoo_sync_run_phase", indexes = @Index(name = "idx_odoo_sync_run_phase_run", columnList = "run_id"))
+public class SyncRunPhase {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    /** e.g. assetsFromOdoo, as in the sync results. */
+    @Column(nullable = false, length = 32)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private SyncRun.Status status;
+
+    @Column(name = "start_offset", nullable = false)
+    private int startOffset;
+
+    @Column(nullable = false)
+    private int checkpoint;
+
+    private int processed;
+    private int created;
+    private int updated;
+    private int skipped;
+    private int errors;
+
+    @Column(name = "records_per_second")
+    private double recordsPerSecond;
+
+    @Column(name = "started_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+
+    @Column(name = "finished_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+
+    public SyncRunPhase() {
+    }
+
+    public SyncRunPhase(Long runId, String name, int startOffset) {
+        this.runId = runId;
+        this.name = name;
+        this.status = SyncRun.Status.RUNNING;
+        this.startOffset = startOffset;
+        this.checkpoint = startOffset;
+        this.startedAt = new Date();
+        this.updatedAt = startedAt;
+    }
+
+    /**
+     * Adds a committed page: its per-status counts, and the offset reached.
+     */
+    public void commit(int nextOffset, int processed, int created, int updated, int skipped, int errors) {
+        this.checkpoint = nextOffset;
+        this.processed += processed;
+        this.created += created;
+        this.updated += updated;
+        this.skipped += skipped;
+        this.errors += errors;
+        this.updatedAt = new Date();
+        long elapsedMs = Math.max(1, updatedAt.getTime() - startedAt.getTime());
+        this.recordsPerSecond = this.processed * 1000.0 / elapsedMs;
+    }
+
+    public void finish(SyncRun.Status status, String error) {
+        this.status = status;
+        this.error = SyncRunError.truncate(error);
+        this.finishedAt = new Date();
+        this.updatedAt = finishedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SyncRun.Status getStatus() {
+        return status;
+    }
+
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+    public int getCheckpoint() {
+        return checkpoint;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
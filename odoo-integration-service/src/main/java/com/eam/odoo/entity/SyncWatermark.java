@@ -0,0 +1,62 @@
+package com.eam.odoo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+import java.util.Date;
+
+/**
+ * Position of the incremental pull of one Odoo model: the (write_date, id) of the last record
+ * synced, every record before it included. The next pull asks Odoo only for later records.
+ */
+@Entity
+@Table(name = "odoo_sync_watermark")
+public class SyncWatermark {
+
+    /** Odoo model name, e.g. account.asset. */
+    @Id
+    @Column(length = 64)
+    private String model;
+
+    /** Odoo write_date of the last synced record, as Odoo formats it (UTC, "yyyy-MM-dd HH:mm:ss"). */
+    @Column(name = "write_date", nullable = false, length = 32)
+    private String writeDate;
+
+    /** Odoo id of the last synced record, breaking write_date ties. */
+    @Column(name = "record_id", nullable = false)
+    private Integer recordId;
+
+    @Column(name = "updated_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+
+    public SyncWatermark() {
+    }
+
+    public SyncWatermark(String model, String writeDate, Integer recordId) {
+        this.model = model;
+        this.writeDate = writeDate;
+        this.recordId = recordId;
+        this.updatedAt = new Date();
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getWriteDate() {
+        return writeDate;
+    }
+
+    public Integer getRecordId() {
+        return recordId;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+}
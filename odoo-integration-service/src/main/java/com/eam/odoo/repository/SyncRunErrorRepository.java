@@ -0,0 +1,22 @@
+package com.eam.odoo.repository;
+
+import com.eam.odoo.entity.SyncRunError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface SyncRunErrorRepository extends JpaRepository<SyncRunError, Long> {
+
+    List<SyncRunError> findByRunIdOrderById(Long runId, Pageable pageable);
+
+    long countByRunId(Long runId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SyncRunError e WHERE e.runId NOT IN (SELECT r.id FROM SyncRun r)")
+    int deleteOrphans();
+}
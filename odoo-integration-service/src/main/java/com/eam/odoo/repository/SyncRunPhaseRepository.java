@@ -0,0 +1,30 @@
+package com.eam.odoo.repository;
+
+import com.eam.odoo.entity.SyncRun;
+import com.eam.odoo.entity.SyncRunPhase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface SyncRunPhaseRepository extends JpaRepository<SyncRunPhase, Long> {
+
+    List<SyncRunPhase> findByRunIdOrderById(Long runId);
+
+    List<SyncRunPhase> findByRunIdInOrderById(Collection<Long> runIds);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SyncRunPhase p SET p.status = :to, p.finishedAt = :at WHERE p.status = :from")
+    int updateStatus(@Param("from") SyncRun.Status from, @Param("to") SyncRun.Status to, @Param("at") Date at);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SyncRunPhase p WHERE p.runId NOT IN (SELECT r.id FROM SyncRun r)")
+    int deleteOrphans();
+}
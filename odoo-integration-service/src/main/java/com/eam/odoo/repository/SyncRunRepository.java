@@ -0,0 +1,32 @@
+package com.eam.odoo.repository;
+
+import com.eam.odoo.entity.SyncRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+public interface SyncRunRepository extends JpaRepository<SyncRun, Long> {
+
+    List<SyncRun> findAllByOrderByIdDesc(Pageable pageable);
+
+    List<SyncRun> findByStatusOrderByIdDesc(SyncRun.Status status);
+
+    Optional<SyncRun> findFirstByFinishedAtIsNotNullOrderByIdDesc();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SyncRun r SET r.status = :to, r.finishedAt = :at WHERE r.status = :from")
+    int updateStatus(@Param("from") SyncRun.Status from, @Param("to") SyncRun.Status to, @Param("at") Date at);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SyncRun r WHERE r.startedAt < :before AND r.status <> :running")
+    int deleteStartedBefore(@Param("before") Date before, @Param("running") SyncRun.Status running);
+}
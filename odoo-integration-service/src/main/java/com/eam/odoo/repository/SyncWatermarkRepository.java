@@ -0,0 +1,7 @@
+package com.eam.odoo.repository;
+
+import com.eam.odoo.entity.SyncWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SyncWatermarkRepository extends JpaRepository<SyncWatermark, String> {
+}
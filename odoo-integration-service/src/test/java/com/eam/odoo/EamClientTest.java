@@ -0,0 +1,124 @@
+package com.eam.odoo;
+
+import com.eam.odoo.EamClient.EamLink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class EamClientTest {
+
+    private static final String GATEWAY = "http://gateway";
+
+    private MockRestServiceServer gateway;
+    private EamAuthService authService;
+    private EamClient client;
+
+    @BeforeEach
+    void setUp() {
+        // Login and API calls go through the same mocked gateway
+        RestTemplate loginTemplate = new RestTemplate();
+        gateway = MockRestServiceServer.bindTo(loginTemplate).build();
+        authService = new EamAuthService(loginTemplate, GATEWAY, "sync@example.com", "secret", 3_600_000);
+        client = new EamClient(EamClientConfig.authenticated(loginTemplate.getRequestFactory(), authService), GATEWAY);
+    }
+
+    @Test
+    void looksUpThroughTheGatewayRoutesAsTheServiceAccount() {
+        expectLogin("token-1");
+        gateway.expect(requestTo(GATEWAY + "/api/machine/by-odoo-ids"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer token-1"))
+                .andExpect(content().json("[7, 8]"))
+                .andRespond(withSuccess("{\"7\": {\"id\": 70, \"odooSyncHash\": \"abc\"}}", MediaType.APPLICATION_JSON));
+        gateway.expect(requestTo(GATEWAY + "/api/ordreTravail/by-odoo-ids"))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer token-1"))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        Map<Integer, EamLink> machines = client.findMachineLinks(List.of(7, 8));
+        Map<Integer, EamLink> workOrders = client.findWorkOrderLinks(List.of(9));
+
+        assertThat(machines).containsOnlyKeys(7);
+        assertThat(machines.get(7)).isEqualTo(new EamLink(70L, "abc"));
+        assertThat(workOrders).isEmpty();
+        assertThat(authService.getStats()).containsEntry("logins", 1L);
+        gateway.verify();
+    }
+
+    @Test
+    void logsInAgainWhenTheTokenIsRejected() {
+        expectLogin("stale");
+        gateway.expect(requestTo(GATEWAY + "/api/machine/by-odoo-ids"))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer stale"))
+                .andRespond(withStatus(HttpStatus.UNAUTHORIZED));
+        expectLogin("fresh");
+        gateway.expect(requestTo(GATEWAY + "/api/machine/by-odoo-ids"))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer fresh"))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        assertThat(client.findMachineLinks(List.of(1))).isEmpty();
+        assertThat(authService.getStats()).containsEntry("logins", 2L).containsEntry("invalidations", 1L);
+        gateway.verify();
+    }
+
+    @Test
+    void splitsLookupsAtTheEndpointCap() {
+        expectLogin("token");
+        gateway.expect(requestTo(GATEWAY + "/api/ordreTravail/by-odoo-ids"))
+                .andExpect(jsonPath("$.length()").value(EamClient.LOOKUP_MAX_IDS))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        gateway.expect(requestTo(GATEWAY + "/api/ordreTravail/by-odoo-ids"))
+                .andExpect(content().json("[" + (EamClient.LOOKUP_MAX_IDS + 1) + "]"))
+                .andRespond(withSuccess("{\"" + (EamClient.LOOKUP_MAX_IDS + 1) + "\": {\"id\": 5}}", MediaType.APPLICATION_JSON));
+
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= EamClient.LOOKUP_MAX_IDS + 1; id++) {
+            ids.add(id);
+        }
+        assertThat(client.findWorkOrderLinks(ids)).containsOnlyKeys(EamClient.LOOKUP_MAX_IDS + 1);
+        gateway.verify();
+    }
+
+    @Test
+    void updatesOverwriteTheEamCopy() {
+        expectLogin("token");
+        gateway.expect(requestTo(GATEWAY + "/api/machine/update-machine"))
+                .andExpect(method(HttpMethod.PUT))
+                .andExpect(header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(jsonPath("$.id").value(42))
+                .andExpect(jsonPath("$.nom").value("Pompe"))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        gateway.expect(requestTo(GATEWAY + "/api/ordreTravail/add-ordreTravail"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andRespond(withSuccess("{\"id\": 3}", MediaType.APPLICATION_JSON));
+
+        client.updateMachine(42L, Map.of("nom", "Pompe"));
+        assertThat(client.createWorkOrder(Map.of("description", "Fuite"))).containsEntry("id", 3);
+        gateway.verify();
+    }
+
+    private void expectLogin(String token) {
+        gateway.expect(requestTo(GATEWAY + EamAuthService.LOGIN_PATH))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.email").value("sync@example.com"))
+                .andRespond(withSuccess("{\"token\": \"" + token + "\"}", MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,130 @@
+package com.eam.odoo;
+
+import com.eam.odoo.OdooXmlRpc.RecordResult;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OdooXmlRpcTest {
+
+    private static final String MODEL = "account.asset";
+
+    /** Odoo method and arguments of each execute_kw call, in call order. */
+    private final List<Object[]> calls = new ArrayList<>();
+    private XmlRpcClient objectClient;
+    private OdooAuthService authService;
+    private OdooXmlRpc xmlRpc;
+
+    @BeforeEach
+    void setUp() {
+        objectClient = mock(XmlRpcClient.class);
+        authService = mock(OdooAuthService.class);
+        when(authService.authenticate()).thenReturn(2);
+        when(authService.getDb()).thenReturn("eam");
+        when(authService.getPassword()).thenReturn("secret");
+        xmlRpc = new OdooXmlRpc(objectClient, authService, 2);
+    }
+
+    @Test
+    void createsInBatchesAndKeepsInputOrder() throws XmlRpcException {
+        answer(params -> {
+            Object[] batch = (Object[]) args(params)[0];
+            Object[] ids = new Object[batch.length];
+            for (int i = 0; i < batch.length; i++) {
+                ids[i] = 100 + (Integer) ((Map<?, ?>) batch[i]).get("seq");
+            }
+            return ids;
+        });
+
+        List<RecordResult> results = xmlRpc.createMany(MODEL, List.of(vals(1), vals(2), vals(3), vals(4), vals(5)));
+
+        assertThat(results).extracting(RecordResult::id).containsExactly(101, 102, 103, 104, 105);
+        assertThat(results).allMatch(RecordResult::isSuccess);
+        assertThat(calls).hasSize(3);
+    }
+
+    @Test
+    void retriesARejectedBatchRecordByRecord() throws XmlRpcException {
+        answer(params -> {
+            Object arg = args(params)[0];
+            if (arg instanceof Object[]) {
+                throw new XmlRpcException(1, "ValidationError: name is required");
+            }
+            Map<?, ?> vals = (Map<?, ?>) arg;
+            if (Integer.valueOf(2).equals(vals.get("seq"))) {
+                throw new XmlRpcException(1, "ValidationError: name is required");
+            }
+            return 100 + (Integer) vals.get("seq");
+        });
+
+        List<RecordResult> results = xmlRpc.createMany(MODEL, List.of(vals(1), vals(2)));
+
+        assertThat(results.get(0)).isEqualTo(new RecordResult(101, null));
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).error()).contains("ValidationError");
+    }
+
+    @Test
+    void doesNotRetryABatchLostInTransport() throws XmlRpcException {
+        answer(params -> {
+            throw new XmlRpcClientException("Connection reset", null);
+        });
+
+        List<RecordResult> results = xmlRpc.createMany(MODEL, List.of(vals(1), vals(2)));
+
+        // The batch may have been created: retrying record by record could duplicate it
+        assertThat(calls).hasSize(1);
+        assertThat(results).hasSize(2).noneMatch(RecordResult::isSuccess);
+    }
+
+    @Test
+    void reauthenticatesOnceWhenOdooRejectsTheUid() throws XmlRpcException {
+        boolean[] rejected = {false};
+        answer(params -> {
+            if (!rejected[0]) {
+                rejected[0] = true;
+                throw new XmlRpcException(3, "AccessDenied");
+            }
+            return 7;
+        });
+
+        assertThat(xmlRpc.create(MODEL, vals(1))).isEqualTo(7);
+        verify(authService).invalidate(2);
+        assertThat(calls).hasSize(2);
+    }
+
+    @FunctionalInterface
+    private interface OdooAnswer {
+        Object answer(Object[] params) throws XmlRpcException;
+    }
+
+    private void answer(OdooAnswer answer) throws XmlRpcException {
+        when(objectClient.execute(eq("execute_kw"), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] params = invocation.getArgument(1);
+            calls.add(params);
+            return answer.answer(params);
+        });
+    }
+
+    /** Positional arguments of an execute_kw call. */
+    private static Object[] args(Object[] params) {
+        return (Object[]) params[5];
+    }
+
+    private static Map<String, Object> vals(int seq) {
+        return Map.of("name", "Asset " + seq, "seq", seq);
+    }
+}
@@ -0,0 +1,241 @@
+package com.eam.odoo;
+
+import com.eam.odoo.SyncPipeline.PageSource;
+import com.eam.odoo.SyncPipeline.PhaseListener;
+import com.eam.odoo.SyncPipeline.Target;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SyncPipelineTest {
+
+    private SyncPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void commitsPagesInSourceOrderWhateverOrderRecordsFinishIn() {
+        pipeline = pipeline(8, 4, 10, 64);
+        List<Integer> committedOffsets = new CopyOnWriteArrayList<>();
+        List<Integer> committedRecords = new CopyOnWriteArrayList<>();
+        PhaseListener<Integer> listener = (nextOffset, records, results) -> {
+            committedOffsets.add(nextOffset);
+            committedRecords.addAll(records);
+            assertThat(ids(results)).containsExactlyElementsOf(records);
+        };
+
+        // Early records are the slowest, so later pages finish first
+        Map<String, Object> summary = pipeline.run("order", 0, 35, source(35),
+                record -> record, "recordId", record -> {
+                    sleep(record < 10 ? 30 : 1);
+                    return result(record, "created");
+                }, listener);
+
+        assertThat(committedOffsets).containsExactly(10, 20, 30, 35);
+        assertThat(committedRecords).containsExactlyElementsOf(range(0, 35));
+        assertThat(ids(details(summary))).containsExactlyElementsOf(range(0, 35));
+        assertThat(summary).containsEntry("totalProcessed", 35).containsEntry("created", 35);
+    }
+
+    @Test
+    void neverHasMoreThanMaxInFlightRecordsQueuedOrRunning() {
+        int maxInFlight = 3;
+        pipeline = pipeline(8, 4, 2, maxInFlight);
+        AtomicInteger handled = new AtomicInteger();
+        AtomicInteger fetched = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        PageSource<Integer> source = (offset, size) -> {
+            // Records handed out but not handled yet: the queue the pipeline has to bound
+            maxAhead.accumulateAndGet(fetched.get() - handled.get(), Math::max);
+            fetched.addAndGet(Math.min(size, 40 - offset));
+            return source(40).fetch(offset, size);
+        };
+
+        pipeline.run("bounded", 0, 40, source, record -> record, "recordId", record -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(5);
+            running.decrementAndGet();
+            handled.incrementAndGet();
+            return result(record, "updated");
+        }, PhaseListener.none());
+
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(maxInFlight);
+        // Fetching waits for the workers instead of buffering the source
+        assertThat(maxAhead.get()).isLessThanOrEqualTo(maxInFlight);
+        assertThat(handled.get()).isEqualTo(40);
+    }
+
+    @Test
+    void handlerFailuresBecomeErrorResultsAndThePhaseGoesOn() {
+        pipeline = pipeline(4, 2, 5, 16);
+        List<Map<String, Object>> committed = new CopyOnWriteArrayList<>();
+
+        Map<String, Object> summary = pipeline.run("errors", 0, 12, source(12), record -> record, "recordId",
+                record -> {
+                    if (record % 4 == 1) {
+                        throw new IllegalStateException("boom " + record);
+                    }
+                    return result(record, record % 2 == 0 ? "created" : "skipped");
+                }, (nextOffset, records, results) -> committed.addAll(results));
+
+        assertThat(summary).containsEntry("totalProcessed", 12).containsEntry("errors", 3)
+                .containsEntry("created", 6).containsEntry("skipped", 3);
+        Map<String, Object> error = details(summary).get(5);
+        assertThat(error).containsEntry("recordId", 5).containsEntry("status", "error")
+                .containsEntry("success", false).containsEntry("error", "boom 5");
+        assertThat(committed).hasSize(12);
+    }
+
+    @Test
+    void batchesAreCutFromEachPageAndAFailedBatchFailsEachOfItsRecords() {
+        pipeline = pipeline(4, 2, 5, 16);
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        Map<String, Object> summary = pipeline.runBatched("batched", 0, 12, source(12), record -> record, "recordId", 2,
+                batch -> {
+                    batches.add(List.copyOf(batch));
+                    if (batch.contains(6)) {
+                        throw new IllegalStateException("batch rejected");
+                    }
+                    return batch.stream().map(record -> result(record, "created")).toList();
+                }, PhaseListener.none());
+
+        // Pages of 5: [0..4], [5..9], [10, 11]
+        assertThat(batches).containsExactlyInAnyOrder(List.of(0, 1), List.of(2, 3), List.of(4),
+                List.of(5, 6), List.of(7, 8), List.of(9), List.of(10, 11));
+        assertThat(summary).containsEntry("errors", 2).containsEntry("created", 10);
+        assertThat(details(summary).get(5)).containsEntry("status", "error").containsEntry("error", "batch rejected");
+        assertThat(details(summary).get(6)).containsEntry("recordId", 6).containsEntry("status", "error");
+    }
+
+    @Test
+    void resumesAtTheStartOffsetAndStopsAtTheLimitOrAShortPage() {
+        pipeline = pipeline(4, 2, 10, 16);
+        List<Integer> fetchedOffsets = new CopyOnWriteArrayList<>();
+        List<Integer> fetchedSizes = new CopyOnWriteArrayList<>();
+        PageSource<Integer> source = (offset, size) -> {
+            fetchedOffsets.add(offset);
+            fetchedSizes.add(size);
+            return source(25).fetch(offset, size);
+        };
+
+        Map<String, Object> limited = pipeline.run("limited", 5, 20, source, record -> record, "recordId",
+                record -> result(record, "created"), PhaseListener.none());
+        assertThat(fetchedOffsets).containsExactly(5, 15);
+        assertThat(fetchedSizes).containsExactly(10, 5);
+        assertThat(ids(details(limited))).containsExactlyElementsOf(range(5, 20));
+
+        fetchedOffsets.clear();
+        Map<String, Object> toTheEnd = pipeline.run("short page", 0, 100, source, record -> record, "recordId",
+                record -> result(record, "created"), PhaseListener.none());
+        assertThat(fetchedOffsets).containsExactly(0, 10, 20);
+        assertThat(toTheEnd).containsEntry("totalProcessed", 25);
+    }
+
+    @Test
+    void capsConcurrentCallsPerTarget() {
+        pipeline = pipeline(2, 1, 10, 64);
+        AtomicInteger eamCalls = new AtomicInteger();
+        AtomicInteger maxEamCalls = new AtomicInteger();
+        AtomicInteger odooCalls = new AtomicInteger();
+        AtomicInteger maxOdooCalls = new AtomicInteger();
+
+        pipeline.run("targets", 0, 30, source(30), record -> record, "recordId", record -> {
+            pipeline.call(Target.ODOO, () -> busy(odooCalls, maxOdooCalls));
+            pipeline.call(Target.EAM, () -> busy(eamCalls, maxEamCalls));
+            return result(record, "created");
+        }, PhaseListener.none());
+
+        assertThat(maxEamCalls.get()).isBetween(1, 2);
+        assertThat(maxOdooCalls.get()).isEqualTo(1);
+    }
+
+    /**
+     * Throughput against stubs of Odoo and EAM with a fixed latency per call: the pipeline
+     * must overlap the calls instead of running them one after another.
+     */
+    @Test
+    void overlapsRemoteCallsAgainstStubbedTargets() {
+        int records = 200;
+        int latencyMs = 5;
+        pipeline = pipeline(8, 4, 50, 64);
+        PageSource<Integer> odooStub = (offset, size) -> pipeline.call(Target.ODOO, () -> {
+            sleep(latencyMs);
+            return source(records).fetch(offset, size);
+        });
+        Function<Integer, Map<String, Object>> eamStub = record -> pipeline.call(Target.EAM, () -> {
+            sleep(latencyMs);
+            return result(record, "updated");
+        });
+
+        long start = System.nanoTime();
+        Map<String, Object> summary = pipeline.run("throughput", 0, records, odooStub, record -> record, "recordId",
+                eamStub, PhaseListener.none());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(summary).containsEntry("updated", records);
+        // One call after another would take at least records * latencyMs
+        assertThat(elapsedMs).isLessThan((long) records * latencyMs / 2);
+    }
+
+    private static SyncPipeline pipeline(int eamConcurrency, int odooConcurrency, int pageSize, int maxInFlight) {
+        return new SyncPipeline(mock(OdooAuthService.class), eamConcurrency, odooConcurrency, pageSize, maxInFlight);
+    }
+
+    /** Records 0..count-1, served in pages. */
+    private static PageSource<Integer> source(int count) {
+        return (offset, size) -> range(Math.min(offset, count), Math.min(offset + size, count));
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().toList();
+    }
+
+    private static Map<String, Object> result(Integer record, String status) {
+        return Map.of("recordId", record, "status", status, "success", true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> details(Map<String, Object> summary) {
+        return (List<Map<String, Object>>) summary.get("details");
+    }
+
+    private static List<Object> ids(List<Map<String, Object>> results) {
+        return results.stream().map(result -> result.get("recordId")).toList();
+    }
+
+    private static Object busy(AtomicInteger calls, AtomicInteger maxCalls) {
+        maxCalls.accumulateAndGet(calls.incrementAndGet(), Math::max);
+        sleep(2);
+        calls.decrementAndGet();
+        return null;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
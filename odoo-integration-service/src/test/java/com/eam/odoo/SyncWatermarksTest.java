@@ -0,0 +1,92 @@
+package com.eam.odoo;
+
+import com.eam.odoo.entity.SyncWatermark;
+import com.eam.odoo.repository.SyncWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncWatermarksTest {
+
+    private static final String MODEL = "account.asset";
+
+    private record Change(int id, String writeDate) {
+    }
+
+    private SyncWatermarkRepository repository;
+    private SyncWatermarks watermarks;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SyncWatermarkRepository.class);
+        when(repository.save(any(SyncWatermark.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        watermarks = new SyncWatermarks(repository);
+    }
+
+    @Test
+    void movesToTheLastRecordWhenEverythingSynced() {
+        List<Change> page = List.of(change(1, "2024-01-01 10:00:00"), change(2, "2024-01-01 10:00:00"),
+                change(3, "2024-01-02 08:00:00"));
+
+        SyncWatermark watermark = advance(page, ok(), ok(), ok());
+
+        assertThat(watermark.getRecordId()).isEqualTo(3);
+        assertThat(watermark.getWriteDate()).isEqualTo("2024-01-02 08:00:00");
+    }
+
+    @Test
+    void stopsBeforeTheFirstFailedRecord() {
+        List<Change> page = List.of(change(1, "2024-01-01 10:00:00"), change(2, "2024-01-01 11:00:00"),
+                change(3, "2024-01-01 12:00:00"));
+
+        SyncWatermark watermark = advance(page, ok(), failed(), ok());
+
+        assertThat(watermark.getRecordId()).isEqualTo(1);
+        assertThat(watermark.getWriteDate()).isEqualTo("2024-01-01 10:00:00");
+    }
+
+    @Test
+    void stopsBeforeARecordWithoutWriteDate() {
+        List<Change> page = List.of(change(1, "2024-01-01 10:00:00"), change(2, null), change(3, "2024-01-01 12:00:00"));
+
+        assertThat(advance(page, ok(), ok(), ok()).getRecordId()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsTheStoredWatermarkWhenTheFirstRecordFailed() {
+        SyncWatermark stored = new SyncWatermark(MODEL, "2023-12-31 23:00:00", 99);
+        when(repository.findById(MODEL)).thenReturn(Optional.of(stored));
+
+        SyncWatermark watermark = advance(List.of(change(100, "2024-01-01 10:00:00")), failed());
+
+        assertThat(watermark).isSameAs(stored);
+        verify(repository, never()).save(any());
+    }
+
+    @SafeVarargs
+    private SyncWatermark advance(List<Change> records, Map<String, Object>... results) {
+        return watermarks.advance(MODEL, records, List.of(results), Change::writeDate, Change::id);
+    }
+
+    private static Change change(int id, String writeDate) {
+        return new Change(id, writeDate);
+    }
+
+    private static Map<String, Object> ok() {
+        return Map.of("status", "updated", "success", true);
+    }
+
+    private static Map<String, Object> failed() {
+        return Map.of("status", "error", "success", false);
+    }
+}
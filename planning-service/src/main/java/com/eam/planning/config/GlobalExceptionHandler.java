@@ -2,6 +2,9 @@ package com.eam.planning.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.eam.common.web.PreconditionFailedException;
+import com.eam.common.web.PreconditionRequiredException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -35,6 +38,17 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(Map.of("error", "Resource not found."), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler({PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Object> handleConcurrentModification(Exception ex) {
+        log.info("Update rejected, planning modified concurrently: {}", ex.getMessage());
+        return new ResponseEntity<>(Map.of("error", "The planning was modified by someone else. Reload it and retry."), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<Object> handlePreconditionRequired(PreconditionRequiredException ex) {
+        return new ResponseEntity<>(Map.of("error", "Send the planning version you are updating (If-Match header or version field)."), HttpStatus.PRECONDITION_REQUIRED);
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<Object> handleAccessDeniedException(Exception ex) {
         log.warn("Access denied: {}", ex.getMessage());
@@ -3,13 +3,16 @@ package com.eam.planning.control;
 import com.eam.planning.entity.Planning;
 import com.eam.planning.service.IPlanningService;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.util.List;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import com.eam.common.security.RoleAllowed;
+import com.eam.common.web.JwtPrincipal;
+import com.eam.common.web.EntityTags;
+import com.eam.common.web.JwtUtil;
 import org.springframework.security.access.AccessDeniedException;
 
 @RestController
@@ -19,55 +22,40 @@ public class PlanningRestController {
 
     private final IPlanningService planningService;
 
-    private final com.eam.planning.config.JwtUtil jwtUtil;
+    private final JwtUtil jwtUtil;
 
+    // Department scoping is applied by the Hibernate department filter (DepartmentFilterInterceptor):
+    // non-admins only ever load plannings of their own department.
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @GetMapping("/retrieve-all-plannings")
-    public List<Planning> getPlannings(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+    public ResponseEntity<List<Planning>> getPlannings(
             @RequestParam(name = "page", required = false) Integer page,
             @RequestParam(name = "size", required = false) Integer size,
             @RequestParam(name = "sortBy", required = false) String sortBy,
-            @RequestParam(name = "direction", required = false) String direction
+            @RequestParam(name = "direction", required = false) String direction,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? jwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? jwtUtil.getDepartmentFromToken(token) : null;
-        if (role == null) throw new AccessDeniedException("Missing role in token.");
-        if (role.equals("ADMIN")) {
-            return planningService.retrieveAllPlannings();
-        } else if (role.equals("CHEFOP") || role.equals("CHEFTECH") || role.equals("TECHNICIEN")) {
-            if (department == null) throw new AccessDeniedException("Department information missing from token.");
-            return planningService.retrievePlanningsByDepartment(com.eam.common.enums.DepartmentType.valueOf(department));
-        } else {
-            throw new AccessDeniedException("Access denied: role not allowed to list plannings.");
-        }
+        // The ETag comes from (id, version) pairs: an unchanged list costs one light query and a 304,
+        // and that query only runs for conditional requests
+        return EntityTags.conditionalCollection(ifNoneMatch, planningService::retrievePlanningVersions,
+                planningService::retrieveAllPlannings, Planning::getId, Planning::getVersion);
     }
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @GetMapping("/retrieve-planning/{id}")
-    public ResponseEntity<Planning> getPlanning(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @PathVariable Long id) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? jwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? jwtUtil.getDepartmentFromToken(token) : null;
+    public ResponseEntity<Planning> getPlanning(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Planning planning = planningService.retrievePlanning(id);
         if (planning == null) return ResponseEntity.notFound().build();
-        if (role == null) throw new AccessDeniedException("Missing role in token.");
-        if (role.equals("ADMIN")) {
-            return ResponseEntity.ok(planning);
-        } else if ((role.equals("CHEFOP") || role.equals("CHEFTECH") || role.equals("TECHNICIEN")) && department != null && planning.getDepartment() != null && planning.getDepartment().name().equals(department)) {
-            return ResponseEntity.ok(planning);
-        } else {
-            throw new AccessDeniedException("Access denied: Non-admins can only access plannings within their department.");
-        }
+        return EntityTags.conditional(ifNoneMatch, EntityTags.of(planning.getId(), planning.getVersion()), () -> planning);
     }
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
     @PostMapping("/add-planning")
-    public ResponseEntity<Planning> addPlanning(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @Valid @RequestBody Planning planning) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? jwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? jwtUtil.getDepartmentFromToken(token) : null;
+    public ResponseEntity<Planning> addPlanning(@Valid @RequestBody Planning planning) {
+        JwtPrincipal principal = jwtUtil.currentPrincipal();
+        String role = principal != null ? principal.getRole() : null;
+        String department = principal != null ? principal.getDepartment() : null;
         if (role == null) throw new AccessDeniedException("Missing role in token.");
         if (role.equals("ADMIN")) {
             return ResponseEntity.ok(planningService.addPlanning(planning));
@@ -81,25 +69,34 @@ public class PlanningRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
     @PutMapping("/update-planning")
-    public ResponseEntity<Planning> updatePlanning(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @Valid @RequestBody Planning planning) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? jwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? jwtUtil.getDepartmentFromToken(token) : null;
+    public ResponseEntity<Planning> updatePlanning(@Valid @RequestBody Planning planning,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        JwtPrincipal principal = jwtUtil.currentPrincipal();
+        String role = principal != null ? principal.getRole() : null;
         if (role == null) throw new AccessDeniedException("Missing role in token.");
+        if (planning.getId() == null) return ResponseEntity.badRequest().build();
+        Planning existing = planningService.retrievePlanning(planning.getId());
+        if (existing == null) return ResponseEntity.notFound().build();
+        // No blind overwrite: the client must say which version it is updating
+        planning.setVersion(EntityTags.requireVersion(ifMatch, planning.getVersion(), existing.getId(), existing.getVersion()));
         if (role.equals("ADMIN")) {
             return ResponseEntity.ok(planningService.modifyPlanning(planning));
-        } else if ((role.equals("CHEFOP") || role.equals("CHEFTECH")) && department != null && planning.getDepartment() != null && planning.getDepartment().name().equals(department)) {
+        }
+        String department = principal.getDepartment();
+        if ((role.equals("CHEFOP") || role.equals("CHEFTECH")) && department != null
+                && existing.getDepartment() != null && existing.getDepartment().name().equals(department)) {
+            // enforce department scope on the stored planning and prevent department change
+            planning.setDepartment(existing.getDepartment());
             return ResponseEntity.ok(planningService.modifyPlanning(planning));
-        } else {
-            throw new AccessDeniedException("Only ADMIN, CHEFOP, or CHEFTECH can update plannings. CHEF roles can only modify plannings in their own department.");
         }
+        throw new AccessDeniedException("Only ADMIN, CHEFOP, or CHEFTECH can update plannings. CHEF roles can only modify plannings in their own department.");
     }
 
     @RoleAllowed({"ADMIN"})
     @DeleteMapping("/delete-planning/{id}")
-    public ResponseEntity<Void> deletePlanning(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @PathVariable Long id) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? jwtUtil.getRoleFromToken(token) : null;
+    public ResponseEntity<Void> deletePlanning(@PathVariable Long id) {
+        JwtPrincipal principal = jwtUtil.currentPrincipal();
+        String role = principal != null ? principal.getRole() : null;
         if (role == null) throw new AccessDeniedException("Missing role in token.");
         if (role.equals("ADMIN")) {
             planningService.removePlanning(id);
@@ -2,15 +2,23 @@ package com.eam.planning.entity;
 
 import com.eam.planning.enums.TypePlanning;
 import com.eam.common.enums.DepartmentType;
+import com.eam.common.security.DepartmentScope;
 import java.util.Date;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
 
 
 @Entity
+@Table(indexes = @Index(name = "idx_planning_department", columnList = "department"))
+@FilterDef(name = DepartmentScope.FILTER, defaultCondition = DepartmentScope.CONDITION,
+        parameters = @ParamDef(name = DepartmentScope.PARAMETER, type = String.class))
+@Filter(name = DepartmentScope.FILTER)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -31,4 +39,9 @@ public class Planning {
     @Enumerated(EnumType.STRING)
     private DepartmentType department;
 
+    // Verrou optimiste : sert aussi d'ETag ; les lignes existantes démarrent à 0
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
 }
\ No newline at end of file
@@ -2,13 +2,26 @@ package com.eam.planning.repository;
 
 import com.eam.planning.entity.Planning;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import com.eam.common.enums.DepartmentType;
 
 @Repository
 public interface PlanningRepository extends JpaRepository<Planning, Long> {
     // You can add custom query methods here if needed
     List<Planning> findByDepartment(DepartmentType department);
+
+    // findById bypasses Hibernate filters; reads exposed to users go through this query
+    // so the department filter applies.
+    @Query("SELECT p FROM Planning p WHERE p.id = :id")
+    Optional<Planning> findScopedById(@Param("id") Long id);
+
+    // (id, version) of the visible plannings: enough to compute the collection ETag
+    // without loading the entities. The department filter applies here too.
+    @Query("SELECT p.id, p.version FROM Planning p")
+    List<Object[]> findVersions();
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import com.eam.common.enums.DepartmentType;
 
 public interface IPlanningService {
     List<Planning> retrieveAllPlannings();
+    List<Object[]> retrievePlanningVersions();
     Planning retrievePlanning(Long id);
     Planning addPlanning(Planning planning);
     void removePlanning(Long id);
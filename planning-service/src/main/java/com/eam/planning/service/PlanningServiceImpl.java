@@ -19,9 +19,14 @@ public class PlanningServiceImpl implements IPlanningService {
         return planningRepository.findAll();
     }
 
+    @Override
+    public List<Object[]> retrievePlanningVersions() {
+        return planningRepository.findVersions();
+    }
+
     @Override
     public Planning retrievePlanning(Long id) {
-        return planningRepository.findById(id).orElse(null);
+        return planningRepository.findScopedById(id).orElse(null);
     }
 
     @Override
@@ -1,8 +1,9 @@
 package com.eam.user.config;
 
+import com.eam.common.security.TokenRevocationRegistry;
+import com.eam.common.web.GatewayIdentity;
 import com.eam.user.security.JwtFilter;
 import com.eam.user.security.JwtProvider;
-import com.eam.user.security.TokenBlacklist;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -19,8 +20,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     @Bean
-    public JwtFilter jwtFilter(JwtProvider jwtProvider, TokenBlacklist tokenBlacklist) {
-        return new JwtFilter(jwtProvider, tokenBlacklist);
+    public JwtFilter jwtFilter(JwtProvider jwtProvider, TokenRevocationRegistry revocationRegistry, GatewayIdentity gatewayIdentity) {
+        return new JwtFilter(jwtProvider, revocationRegistry, gatewayIdentity);
     }
 
     @Bean
@@ -1,13 +1,19 @@
 package com.eam.user.controller;
 
+import com.eam.common.security.RevocationEvent;
+import com.eam.common.security.RevocationFeedPoller;
 import com.eam.user.dto.UserDto;
 import com.eam.user.dto.CredentialsDto;
 import com.eam.user.entity.User;
 import com.eam.user.service.AuthServiceImpl;
 import com.eam.user.service.IAuthService;
+import com.eam.user.security.JwtProvider;
+import com.eam.user.service.TokenRevocationService;
 import com.eam.user.service.TokenService;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,9 +24,8 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -30,13 +35,12 @@ public class AuthController {
             private final TokenService tokenService;
     private final IAuthService authService;
     private final AuthServiceImpl authServiceImpl; // Pour accéder aux méthodes spécifiques
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtProvider jwtProvider;
     public static final String baseUrl = "http://localhost:5173";
-    // Simple in-memory blacklist of JWT IDs (jti)
-    private static final Set<String> TOKEN_BLACKLIST = ConcurrentHashMap.newKeySet();
 
-    public static boolean isBlacklisted(String jti) {
-        return jti != null && TOKEN_BLACKLIST.contains(jti);
-    }
+    @Value("${jwt.revocation.feed-key:}")
+    private String revocationFeedKey;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody UserDto userDto) {
@@ -239,19 +243,31 @@ public class AuthController {
         }
         String token = authHeader.substring(7);
         try {
-            io.jsonwebtoken.Claims claims = io.jsonwebtoken.Jwts.parserBuilder()
-                    .setSigningKey(String.valueOf(com.eam.user.security.JwtProvider.class)) // placeholder not used
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            String jti = claims.getId();
-            if (jti != null) {
-                TOKEN_BLACKLIST.add(jti);
-            }
-        } catch (Exception e) {
-            // Swallow parsing errors to avoid leaking info
+            tokenRevocationService.revoke(jwtProvider.parsePrincipal(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token invalide ou expiré : rien à révoquer, ne pas divulguer la raison
         }
         return ResponseEntity.ok().body("Logged out successfully");
     }
+
+    /**
+     * Journal des révocations, réservé aux services qui présentent la clé partagée
+     * (jwt.revocation.feed-key) ; refusé à tous si la clé n'est pas configurée. Avec
+     * {@code ids}, relit les positions sautées par le consommateur au lieu de la suite du journal.
+     */
+    @GetMapping("/revocations")
+    public ResponseEntity<List<RevocationEvent>> getRevocations(
+            @RequestHeader(value = RevocationFeedPoller.FEED_KEY_HEADER, required = false) String feedKey,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(required = false) List<Long> ids) {
+        if (!RevocationFeedPoller.isFeedKeyValid(revocationFeedKey, feedKey)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (ids != null && !ids.isEmpty()) {
+            return ResponseEntity.ok(tokenRevocationService.getRevocations(ids));
+        }
+        return ResponseEntity.ok(tokenRevocationService.getRevocationsSince(since, limit));
+    }
 }
 
@@ -0,0 +1,25 @@
+package com.eam.user.controller;
+
+import com.eam.common.security.RoleAllowed;
+import com.eam.user.service.EmailOutboxDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/email-outbox")
+@RequiredArgsConstructor
+public class EmailOutboxController {
+
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @RoleAllowed({"ADMIN"})
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(emailOutboxDispatcher.getStats());
+    }
+}
@@ -0,0 +1,55 @@
+package com.eam.user.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faux endpoint EmailJS pour les environnements locaux et de test : activer avec
+ * {@code app.mail.stub.enabled=true} et pointer {@code app.emailjs.api-url} sur
+ * {@code /api/mail-stub/send}. Conserve les derniers messages reçus.
+ */
+@RestController
+@RequestMapping("/api/mail-stub")
+@ConditionalOnProperty(name = "app.mail.stub.enabled", havingValue = "true")
+@Slf4j
+public class MailStubController {
+
+    private static final int MAX_MESSAGES = 200;
+
+    private final Deque<Map<String, Object>> messages = new ArrayDeque<>();
+
+    @PostMapping("/send")
+    public ResponseEntity<String> send(@RequestBody Map<String, Object> body) {
+        log.info("Stub email accepted for template {}", body.get("template_id"));
+        synchronized (messages) {
+            if (messages.size() >= MAX_MESSAGES) {
+                messages.removeFirst();
+            }
+            messages.addLast(body);
+        }
+        return ResponseEntity.ok("OK");
+    }
+
+    @GetMapping("/messages")
+    public List<Map<String, Object>> getMessages() {
+        synchronized (messages) {
+            return new ArrayList<>(messages);
+        }
+    }
+
+    @DeleteMapping("/messages")
+    public ResponseEntity<Void> clearMessages() {
+        synchronized (messages) {
+            messages.clear();
+        }
+        return ResponseEntity.ok().build();
+    }
+}
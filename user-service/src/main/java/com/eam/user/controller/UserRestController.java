@@ -9,9 +9,9 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
 import java.util.List;
-import com.eam.user.security.JwtProvider;
-import org.springframework.beans.factory.annotation.Autowired;
 import com.eam.common.security.RoleAllowed;
+import com.eam.common.web.JwtPrincipal;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.access.AccessDeniedException;
 
 @RestController
@@ -21,15 +21,11 @@ public class UserRestController {
 
     private final IUserService userService;
 
-    @Autowired
-    private JwtProvider jwtProvider;
-
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
     @GetMapping("/retrieve-all-users")
-    public List<UserDto> getUsers(@RequestHeader("Authorization") String authHeader) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? jwtProvider.getRoleFromToken(token) : null;
-        String department = token != null ? jwtProvider.getDepartmentFromToken(token) : null;
+    public List<UserDto> getUsers(@AuthenticationPrincipal JwtPrincipal principal) {
+        String role = principal != null ? principal.getRole() : null;
+        String department = principal != null ? principal.getDepartment() : null;
         if ("ADMIN".equals(role)) {
             return userService.retrieveAllUsers();
         }
@@ -41,11 +37,10 @@ public class UserRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @GetMapping("/retrieve-user/{id}")
-    public ResponseEntity<UserDto> getUser(@RequestHeader("Authorization") String authHeader, @PathVariable Long id) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? jwtProvider.getRoleFromToken(token) : null;
-        String department = token != null ? jwtProvider.getDepartmentFromToken(token) : null;
-        Long userId = token != null ? jwtProvider.getUserIdFromToken(token) : null;
+    public ResponseEntity<UserDto> getUser(@AuthenticationPrincipal JwtPrincipal principal, @PathVariable Long id) {
+        String role = principal != null ? principal.getRole() : null;
+        String department = principal != null ? principal.getDepartment() : null;
+        Long userId = principal != null ? principal.getUserId() : null;
         UserDto dto = userService.retrieveUser(id);
         if (dto == null) return ResponseEntity.notFound().build();
         if ("ADMIN".equals(role)) return ResponseEntity.ok(dto);
@@ -60,10 +55,9 @@ public class UserRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP"})
     @PostMapping("/add-user")
-    public ResponseEntity<UserDto> addUser(@RequestHeader("Authorization") String authHeader, @Valid @RequestBody UserDto userDto) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? jwtProvider.getRoleFromToken(token) : null;
-        String department = token != null ? jwtProvider.getDepartmentFromToken(token) : null;
+    public ResponseEntity<UserDto> addUser(@AuthenticationPrincipal JwtPrincipal principal, @Valid @RequestBody UserDto userDto) {
+        String role = principal != null ? principal.getRole() : null;
+        String department = principal != null ? principal.getDepartment() : null;
         if ("ADMIN".equals(role)) {
             return ResponseEntity.ok(userService.addUser(userDto));
         } else if ("CHEFOP".equals(role) && department != null) {
@@ -76,10 +70,9 @@ public class UserRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP"})
     @PutMapping("/update-user")
-    public ResponseEntity<UserDto> updateUser(@RequestHeader("Authorization") String authHeader, @Valid @RequestBody UserDto userDto) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? jwtProvider.getRoleFromToken(token) : null;
-        String department = token != null ? jwtProvider.getDepartmentFromToken(token) : null;
+    public ResponseEntity<UserDto> updateUser(@AuthenticationPrincipal JwtPrincipal principal, @Valid @RequestBody UserDto userDto) {
+        String role = principal != null ? principal.getRole() : null;
+        String department = principal != null ? principal.getDepartment() : null;
         if (userDto.getId() == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -108,13 +101,11 @@ public class UserRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @GetMapping("/profile")
-    public ResponseEntity<UserDto> getProfile(@RequestHeader("Authorization") String authHeader) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        if (token == null) {
+    public ResponseEntity<UserDto> getProfile(@AuthenticationPrincipal JwtPrincipal principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).build();
         }
-        String email = jwtProvider.getEmailFromToken(token);
-        UserDto user = userService.getCurrentUserProfile(email);
+        UserDto user = userService.getCurrentUserProfile(principal.getEmail());
         if (user == null) {
             return ResponseEntity.notFound().build();
         }
@@ -123,12 +114,8 @@ public class UserRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @PutMapping("/profile")
-    public ResponseEntity<UserDto> updateOwnProfile(@RequestHeader("Authorization") String authHeader, @Valid @RequestBody UserDto update) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        if (token == null) {
-            return ResponseEntity.status(401).build();
-        }
-        Long userId = jwtProvider.getUserIdFromToken(token);
+    public ResponseEntity<UserDto> updateOwnProfile(@AuthenticationPrincipal JwtPrincipal principal, @Valid @RequestBody UserDto update) {
+        Long userId = principal != null ? principal.getUserId() : null;
         if (userId == null) return ResponseEntity.status(401).build();
         UserDto saved = userService.updateOwnProfile(userId, update);
         return ResponseEntity.ok(saved);
@@ -0,0 +1,71 @@
+package com.eam.user.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * E-mail en attente d'envoi. Les requêtes HTTP ne font qu'insérer une ligne ;
+ * {@code EmailOutboxDispatcher} se charge de l'envoi, des tentatives et de l'abandon.
+ */
+@Entity
+@Table(name = "email_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_email_outbox_dedupe", columnNames = "dedupeKey"),
+        indexes = @Index(name = "idx_email_outbox_status_next", columnList = "status, nextAttemptAt"))
+@Data
+@NoArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String templateId;
+
+    /**
+     * Destinataire + template : une seule ligne par couple (contrainte unique), réutilisée par
+     * chaque nouvel envoi ; le plus récent l'emporte.
+     */
+    @Column(nullable = false)
+    private String dedupeKey;
+
+    /**
+     * Paramètres du template EmailJS, sérialisés en JSON. Ils contiennent les liens avec token :
+     * effacés dès que la ligne est SENT ou FAILED.
+     */
+    @Lob
+    private String params;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        SENT,
+        FAILED
+    }
+}
@@ -0,0 +1,32 @@
+package com.eam.user.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Journal des JWT révoqués (logout). L'id croissant sert de curseur aux instances qui
+ * synchronisent leur registre local ; une ligne n'est utile que jusqu'à {@code expiresAt}.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String jti;
+
+    /** Expiration du token révoqué, en epoch millis. */
+    @Column(nullable = false)
+    private long expiresAt;
+
+    public RevokedToken(String jti, long expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "verification_tokens")
+@Table(name = "verification_tokens", indexes = @Index(name = "idx_verification_tokens_expiry", columnList = "expiryDate"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,8 +18,17 @@ public class VerificationToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    /**
+     * Empreinte SHA-256 du token : la valeur envoyée par e-mail n'est jamais stockée.
+     */
+    @Column(name = "token", nullable = false, unique = true)
+    private String tokenHash;
+
+    /**
+     * Valeur en clair, connue uniquement juste après la génération (pour l'e-mail).
+     */
+    @Transient
+    private String rawToken;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -43,8 +52,9 @@ public class VerificationToken {
     /**
      * Constructeur pour créer un token de vérification
      */
-    public VerificationToken(String token, User user, TokenType tokenType, LocalDateTime expiryDate) {
-        this.token = token;
+    public VerificationToken(String rawToken, String tokenHash, User user, TokenType tokenType, LocalDateTime expiryDate) {
+        this.rawToken = rawToken;
+        this.tokenHash = tokenHash;
         this.user = user;
         this.tokenType = tokenType;
         this.expiryDate = expiryDate;
@@ -0,0 +1,98 @@
+package com.eam.user.repository;
+
+import com.eam.user.entity.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Insère l'e-mail ou, si le couple destinataire / template a déjà sa ligne, la remet en file
+     * avec les nouveaux paramètres. Atomique (contrainte unique sur dedupe_key) : deux demandes
+     * simultanées ne créent pas deux lignes. Retourne 1 pour une insertion, 2 pour un remplacement.
+     * Une ligne SENDING remise en PENDING sera renvoyée : markSent ne la touche plus.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO email_outbox (recipient, template_id, dedupe_key, params, status, attempts, "
+            + "next_attempt_at, created_at) VALUES (:recipient, :templateId, :dedupeKey, :params, 'PENDING', 0, :now, :now) "
+            + "ON DUPLICATE KEY UPDATE created_at = IF(status = 'PENDING', created_at, VALUES(created_at)), "
+            + "recipient = VALUES(recipient), params = VALUES(params), status = 'PENDING', attempts = 0, "
+            + "next_attempt_at = VALUES(next_attempt_at), last_error = NULL, sent_at = NULL",
+            nativeQuery = true)
+    int upsertPending(@Param("recipient") String recipient, @Param("templateId") String templateId,
+                      @Param("dedupeKey") String dedupeKey, @Param("params") String params,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Identifiants des e-mails à envoyer, les plus anciens d'abord
+     */
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status = com.eam.user.entity.EmailOutbox.Status.PENDING "
+            + "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt, e.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Réserve une ligne pour un seul dispatcher : 1 si la réservation a réussi, 0 si une
+     * autre instance l'a prise (ou si la ligne a été remplacée entre-temps).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = com.eam.user.entity.EmailOutbox.Status.SENDING, e.claimedAt = :now "
+            + "WHERE e.id = :id AND e.status = com.eam.user.entity.EmailOutbox.Status.PENDING")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Solde un envoi réussi et efface ses paramètres (tokens). Sans effet si la ligne a été
+     * remise en file entre-temps : le nouvel e-mail reste à envoyer.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = com.eam.user.entity.EmailOutbox.Status.SENT, e.sentAt = :now, "
+            + "e.attempts = e.attempts + 1, e.lastError = null, e.params = null "
+            + "WHERE e.id = :id AND e.status = com.eam.user.entity.EmailOutbox.Status.SENDING")
+    int markSent(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = com.eam.user.entity.EmailOutbox.Status.PENDING, "
+            + "e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error "
+            + "WHERE e.id = :id AND e.status = com.eam.user.entity.EmailOutbox.Status.SENDING")
+    int markRetry(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                  @Param("error") String error);
+
+    /**
+     * Abandonne l'envoi et efface ses paramètres (tokens).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = com.eam.user.entity.EmailOutbox.Status.FAILED, "
+            + "e.attempts = e.attempts + 1, e.lastError = :error, e.params = null "
+            + "WHERE e.id = :id AND e.status = com.eam.user.entity.EmailOutbox.Status.SENDING")
+    int markAbandoned(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * Remet en file les envois réservés par une instance arrêtée en cours de route
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = com.eam.user.entity.EmailOutbox.Status.PENDING "
+            + "WHERE e.status = com.eam.user.entity.EmailOutbox.Status.SENDING AND e.claimedAt < :before")
+    int releaseStaleClaims(@Param("before") LocalDateTime before);
+
+    long countByStatus(EmailOutbox.Status status);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutbox e WHERE (e.status = com.eam.user.entity.EmailOutbox.Status.SENT AND e.sentAt < :before) "
+            + "OR (e.status = com.eam.user.entity.EmailOutbox.Status.FAILED AND e.claimedAt < :before)")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,30 @@
+package com.eam.user.repository;
+
+import com.eam.user.entity.RevokedToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    boolean existsByJti(String jti);
+
+    /**
+     * Révocations postérieures au curseur et encore utiles, dans l'ordre du journal
+     */
+    @Query("SELECT rt FROM RevokedToken rt WHERE rt.id > :since AND rt.expiresAt > :now ORDER BY rt.id")
+    List<RevokedToken> findSince(@Param("since") long since, @Param("now") long now, Pageable pageable);
+
+    /**
+     * Supprime les révocations de tokens déjà expirés
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken rt WHERE rt.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
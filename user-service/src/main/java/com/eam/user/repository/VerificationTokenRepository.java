@@ -2,6 +2,7 @@ package com.eam.user.repository;
 
 import com.eam.user.entity.User;
 import com.eam.user.entity.VerificationToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -16,9 +17,34 @@ import java.util.Optional;
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Long> {
 
     /**
-     * Trouve un token par sa valeur
+     * Trouve un token par son empreinte
      */
-    Optional<VerificationToken> findByToken(String token);
+    Optional<VerificationToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marque le token comme utilisé en une seule instruction, si et seulement s'il est du bon
+     * type, non utilisé et non expiré : 1 pour la requête qui l'a consommé, 0 pour toutes les autres
+     */
+    @Modifying
+    @Query("UPDATE VerificationToken vt SET vt.used = true WHERE vt.tokenHash = :tokenHash "
+            + "AND vt.tokenType = :tokenType AND vt.used = false AND vt.expiryDate > :now")
+    int markUsedIfValid(@Param("tokenHash") String tokenHash,
+                        @Param("tokenType") VerificationToken.TokenType tokenType,
+                        @Param("now") LocalDateTime now);
+
+    /**
+     * Utilisateur propriétaire du token
+     */
+    @Query("SELECT vt.user FROM VerificationToken vt WHERE vt.tokenHash = :tokenHash")
+    Optional<User> findUserByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Consomme le token et retourne son utilisateur ; vide si le token est inconnu, d'un autre
+     * type, expiré ou déjà consommé (y compris par une requête concurrente)
+     */
+    default Optional<User> consumeToken(String tokenHash, VerificationToken.TokenType tokenType, LocalDateTime now) {
+        return markUsedIfValid(tokenHash, tokenType, now) == 1 ? findUserByTokenHash(tokenHash) : Optional.empty();
+    }
 
     /**
      * Trouve tous les tokens d'un utilisateur par type
@@ -32,11 +58,10 @@ public interface VerificationTokenRepository extends JpaRepository<VerificationT
     Optional<VerificationToken> findLatestByUserAndTokenType(@Param("user") User user, @Param("tokenType") VerificationToken.TokenType tokenType);
 
     /**
-     * Supprime tous les tokens expirés
+     * Identifiants d'un lot de tokens expirés (le nettoyage supprime par lots bornés)
      */
-    @Modifying
-    @Query("DELETE FROM VerificationToken vt WHERE vt.expiryDate < :now")
-    void deleteExpiredTokens(@Param("now") LocalDateTime now);
+    @Query("SELECT vt.id FROM VerificationToken vt WHERE vt.expiryDate < :now")
+    List<Long> findExpiredTokenIds(@Param("now") LocalDateTime now, Pageable pageable);
 
     /**
      * Supprime tous les tokens utilisés d'un utilisateur
@@ -1,5 +1,12 @@
 package com.eam.user.security;
 
+import com.eam.common.security.TokenRevocationRegistry;
+import com.eam.common.web.GatewayIdentity;
+import com.eam.common.web.JwtPrincipal;
+import com.eam.common.web.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,55 +18,70 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
+/**
+ * Authentifie la requête en un seul passage : le token est parsé et vérifié une fois,
+ * l'expiration est contrôlée par le parseur, et la révocation est vérifiée sur le jti du
+ * principal obtenu. L'{@code Authentication} porte le {@link JwtPrincipal} (userId, département)
+ * et le même principal est publié sur la requête pour {@code PermissionAspect}.
+ * Derrière l'api-gateway en mode confiance, l'identité signée remplace le parsing du JWT.
+ */
 public class JwtFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtFilter.class);
+
     private final JwtProvider jwtProvider;
-    private final TokenBlacklist tokenBlacklist;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final GatewayIdentity gatewayIdentity;
 
-    public JwtFilter(JwtProvider jwtProvider, TokenBlacklist tokenBlacklist) {
+    public JwtFilter(JwtProvider jwtProvider, TokenRevocationRegistry revocationRegistry, GatewayIdentity gatewayIdentity) {
         this.jwtProvider = jwtProvider;
-        this.tokenBlacklist = tokenBlacklist;
+        this.revocationRegistry = revocationRegistry;
+        this.gatewayIdentity = gatewayIdentity;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        String token = getTokenFromRequest(request);
+        String token = JwtUtil.extractBearerToken(request);
+        boolean fromGateway = gatewayIdentity != null && gatewayIdentity.isPresent(request);
 
-        if (token != null && jwtProvider.validateToken(token) && !jwtProvider.isTokenExpired(token)) {
-            String jti = null;
-            try {
-                jti = io.jsonwebtoken.Jwts.parserBuilder()
-                        .setSigningKey(String.valueOf(jwtProvider.getClass())) // placeholder, not used directly
-                        .build()
-                        .parseClaimsJws(token)
-                        .getBody()
-                        .getId();
-            } catch (Exception ignored) {}
-            if (tokenBlacklist != null && tokenBlacklist.isBlacklisted(jti)) {
-                filterChain.doFilter(request, response);
-                return;
+        if (fromGateway || token != null) {
+            JwtPrincipal principal = fromGateway
+                    ? checkRevocation(gatewayIdentity.fromHeaders(request))
+                    : authenticate(token);
+            JwtUtil.bindPrincipal(request, principal);
+            if (principal != null) {
+                List<SimpleGrantedAuthority> authorities = principal.getRole() != null
+                        ? Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.getRole()))
+                        : Collections.emptyList();
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, authorities);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
-            String email = jwtProvider.getEmailFromToken(token);
-            String role = jwtProvider.getRoleFromToken(token);
-
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    email, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
         }
 
         filterChain.doFilter(request, response);
     }
 
-    private String getTokenFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+    private JwtPrincipal authenticate(String token) {
+        JwtPrincipal principal;
+        try {
+            principal = jwtProvider.parsePrincipal(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            return null;
         }
-        return null;
+        return checkRevocation(principal);
     }
-}
 
+    private JwtPrincipal checkRevocation(JwtPrincipal principal) {
+        if (principal != null && revocationRegistry.isRevoked(principal.getJti())) {
+            log.debug("Rejected revoked token jti={}", principal.getJti());
+            return null;
+        }
+        return principal;
+    }
+}
@@ -1,6 +1,9 @@
 package com.eam.user.security;
 
+import com.eam.common.web.JwtPrincipal;
+import com.eam.common.web.JwtUtil;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -21,9 +24,17 @@ public class JwtProvider {
     @Value("${jwt.expiration:86400000}")
     private long jwtExpiration;
 
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey current = signingKey;
+        if (current == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
+            current = Keys.hmacShaKeyFor(keyBytes);
+            signingKey = current;
+        }
+        return current;
     }
 
     public String generateToken(String email, String role) {
@@ -53,54 +64,34 @@ public class JwtProvider {
                 .compact();
     }
 
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Vérifie le token une seule fois et retourne l'identité complète qu'il porte.
+     *
+     * @throws io.jsonwebtoken.JwtException si la signature est invalide ou le token expiré
+     */
+    public JwtPrincipal parsePrincipal(String token) {
+        return JwtUtil.toPrincipal(parseClaims(token));
+    }
 
-        return claims.getSubject();
+    public String getEmailFromToken(String token) {
+        return parseClaims(token).getSubject();
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.get("role", String.class);
+        return parseClaims(token).get("role", String.class);
     }
 
     public String getDepartmentFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("department", String.class);
+        return parseClaims(token).get("department", String.class);
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        Object id = claims.get("userId");
-        if (id instanceof Integer) return ((Integer) id).longValue();
-        if (id instanceof Long) return (Long) id;
-        if (id instanceof String) return Long.valueOf((String) id);
-        return null;
+        return JwtUtil.toPrincipal(parseClaims(token)).getUserId();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parseClaims(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -109,15 +100,28 @@ public class JwtProvider {
 
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getExpiration().before(new Date());
+            return parseClaims(token).getExpiration().before(new Date());
         } catch (Exception e) {
             return true;
         }
     }
+
+    private Claims parseClaims(String token) {
+        return getParser().parseClaimsJws(token).getBody();
+    }
+
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            synchronized (this) {
+                current = parser;
+                if (current == null) {
+                    current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+                    parser = current;
+                }
+            }
+        }
+        return current;
+    }
 }
 
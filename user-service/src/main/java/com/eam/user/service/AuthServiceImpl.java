@@ -46,9 +46,8 @@ public class AuthServiceImpl implements IAuthService {
 
         User savedUser = userRepository.save(user);
 
-        log.debug("Attempting to send verification email to: {}", savedUser.getEmail());
+        log.debug("Queueing verification email to: {}", savedUser.getEmail());
         sendVerificationEmail(savedUser.getEmail());
-        log.info("Verification email sent for user: {}", savedUser.getEmail());
 
         return convertToDto(savedUser);
     }
@@ -82,8 +81,8 @@ public class AuthServiceImpl implements IAuthService {
         VerificationToken resetToken = tokenService.generatePasswordResetToken(user);
 
         try {
-            emailService.sendPasswordResetEmail(user.getEmail(), user.getEmail(), resetToken.getToken());
-            log.info("E-mail de réinitialisation de mot de passe envoyé pour : {}", user.getEmail());
+            emailService.sendPasswordResetEmail(user.getEmail(), user.getEmail(), resetToken.getRawToken());
+            log.info("E-mail de réinitialisation de mot de passe mis en file pour : {}", user.getEmail());
         } catch (Exception e) {
             log.error("Erreur lors de l'envoi de l'e-mail de réinitialisation pour : {}", user.getEmail(), e);
             throw new RuntimeException("Erreur lors de l'envoi de l'e-mail de réinitialisation");
@@ -119,8 +118,8 @@ public class AuthServiceImpl implements IAuthService {
         }
 
         VerificationToken verificationToken = tokenService.generateEmailVerificationToken(user);
-        emailService.sendAccountVerificationEmail(user.getEmail(), user.getEmail(), verificationToken.getToken());
-        log.info("E-mail de vérification envoyé pour : {}", user.getEmail());
+        emailService.sendAccountVerificationEmail(user.getEmail(), user.getEmail(), verificationToken.getRawToken());
+        log.info("E-mail de vérification mis en file pour : {}", user.getEmail());
     }
 
     @Override
@@ -137,8 +136,8 @@ public class AuthServiceImpl implements IAuthService {
         }
 
         VerificationToken verificationToken = tokenService.generateEmailVerificationToken(user);
-        emailService.resendVerificationEmail(user.getEmail(), user.getEmail(), verificationToken.getToken());
-        log.info("E-mail de re-vérification envoyé pour : {}", user.getEmail());
+        emailService.resendVerificationEmail(user.getEmail(), user.getEmail(), verificationToken.getRawToken());
+        log.info("E-mail de re-vérification mis en file pour : {}", user.getEmail());
     }
 
     @Override
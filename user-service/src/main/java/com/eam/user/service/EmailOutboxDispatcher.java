@@ -0,0 +1,192 @@
+package com.eam.user.service;
+
+import com.eam.user.entity.EmailOutbox;
+import com.eam.user.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envoie les e-mails de l'outbox par lots, avec un nombre borné d'envois simultanés.
+ * <p>
+ * Chaque ligne est réservée par un UPDATE conditionnel avant l'envoi, ce qui permet de faire
+ * tourner plusieurs instances de user-service. En cas d'échec, la ligne est replanifiée avec
+ * un délai exponentiel, puis passée en FAILED après {@code app.mail.outbox.max-attempts}.
+ * <p>
+ * Le dispatcher a son propre thread de planification : un lot lent (EmailJS borné par
+ * {@code app.emailjs.read-timeout-ms}) retarde le lot suivant, pas les autres tâches
+ * {@code @Scheduled} du service, qui partagent un seul thread.
+ */
+@Service
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private static final long MAX_BACKOFF_MS = 3600000;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final ExecutorService senders;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBaseMs;
+    private final long claimTimeoutMs;
+    private final long pollIntervalMs;
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder sendTimeTotalMs = new LongAdder();
+    private final LongAccumulator sendTimeMaxMs = new LongAccumulator(Math::max, 0);
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 EmailService emailService,
+                                 @Value("${app.mail.outbox.concurrency:4}") int concurrency,
+                                 @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.mail.outbox.max-attempts:6}") int maxAttempts,
+                                 @Value("${app.mail.outbox.retry-base-ms:5000}") long retryBaseMs,
+                                 @Value("${app.mail.outbox.claim-timeout-ms:300000}") long claimTimeoutMs,
+                                 @Value("${app.mail.outbox.poll-interval-ms:2000}") long pollIntervalMs) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMs = retryBaseMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+        this.pollIntervalMs = pollIntervalMs;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::safeDispatch, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void safeDispatch() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            // Ne jamais laisser une erreur arrêter la tâche planifiée.
+            log.error("Email outbox dispatch failed", e);
+        }
+    }
+
+    void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = outboxRepository.releaseStaleClaims(now.minusNanos(claimTimeoutMs * 1_000_000));
+        if (released > 0) {
+            log.warn("Requeued {} outbox emails left in SENDING state", released);
+        }
+
+        List<Future<?>> inFlight = new ArrayList<>();
+        for (Long id : outboxRepository.findDueIds(now, PageRequest.of(0, batchSize))) {
+            if (outboxRepository.claim(id, now) == 1) {
+                inFlight.add(senders.submit(() -> send(id)));
+            }
+        }
+        // Attendre la fin du lot : le prochain passage ne commence qu'une fois les réservations soldées.
+        for (Future<?> future : inFlight) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Unexpected error in email outbox sender", e.getCause());
+            }
+        }
+    }
+
+    @Scheduled(fixedRate = 3600000) // 1 heure en millisecondes
+    public void cleanupSentEmails() {
+        int deleted = outboxRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(7));
+        log.info("Nettoyage de l'outbox : {} e-mails envoyés ou abandonnés supprimés", deleted);
+    }
+
+    public Map<String, Object> getStats() {
+        long sentCount = sent.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxRepository.countByStatus(EmailOutbox.Status.PENDING));
+        stats.put("sending", outboxRepository.countByStatus(EmailOutbox.Status.SENDING));
+        stats.put("failed", outboxRepository.countByStatus(EmailOutbox.Status.FAILED));
+        stats.put("sent", sentCount);
+        stats.put("failedAttempts", failedAttempts.sum());
+        stats.put("abandoned", abandoned.sum());
+        stats.put("avgSendMs", sentCount > 0 ? sendTimeTotalMs.sum() / sentCount : 0);
+        stats.put("maxSendMs", sendTimeMaxMs.get());
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        senders.shutdown();
+    }
+
+    private void send(Long id) {
+        EmailOutbox email = outboxRepository.findById(id).orElse(null);
+        if (email == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            emailService.deliver(email);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            sendTimeTotalMs.add(elapsedMs);
+            sendTimeMaxMs.accumulate(elapsedMs);
+            sent.increment();
+            outboxRepository.markSent(id, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            failedAttempts.increment();
+            int attempts = email.getAttempts() + 1;
+            String error = truncate(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            if (attempts >= maxAttempts) {
+                abandoned.increment();
+                log.error("Giving up on email {} to {} after {} attempts: {}", id, email.getRecipient(), attempts, error);
+                outboxRepository.markAbandoned(id, error);
+            } else {
+                long delayMs = Math.min(MAX_BACKOFF_MS, retryBaseMs << Math.min(attempts - 1, 20));
+                outboxRepository.markRetry(id, LocalDateTime.now().plusNanos(delayMs * 1_000_000), error);
+            }
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
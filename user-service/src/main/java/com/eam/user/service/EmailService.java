@@ -1,20 +1,48 @@
 package com.eam.user.service;
 
+import com.eam.user.entity.EmailOutbox;
+import com.eam.user.repository.EmailOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Prépare les e-mails EmailJS. Les e-mails de vérification et de réinitialisation sont
+ * déposés dans l'outbox (même transaction que le token) et envoyés par
+ * {@link EmailOutboxDispatcher} : la requête HTTP n'attend plus l'API EmailJS.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final TypeReference<Map<String, String>> PARAMS_TYPE = new TypeReference<>() { };
+
+    private final EmailOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private RestTemplate restTemplate;
+
+    /** Borne chaque appel EmailJS : un envoi bloqué ne doit pas immobiliser le dispatcher. */
+    @Value("${app.emailjs.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.emailjs.read-timeout-ms:15000}")
+    private int readTimeoutMs;
+
+    @Value("${app.emailjs.api-url:https://api.emailjs.com/api/v1.0/email/send}")
+    private String emailjsApiUrl;
 
     @Value("${app.emailjs.user-id}")
     private String emailjsUserId;
@@ -34,11 +62,19 @@ public class EmailService {
     @Value("${app.base-url}")
     private String baseUrl;
 
+    @PostConstruct
+    void initRestTemplate() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        restTemplate = new RestTemplate(requestFactory);
+    }
+
     public void sendAccountVerificationEmail(String toEmail, String userName, String verificationToken) {
         if (toEmail == null || toEmail.trim().isEmpty()) {
             throw new IllegalArgumentException("Recipient email cannot be null or empty");
         }
-        log.debug("Sending verification email to: {}", toEmail);
+        log.debug("Queueing verification email to: {}", toEmail);
         String verificationUrl = baseUrl + "/api/auth/verify?token=" + verificationToken;
         Map<String, String> templateParams = new HashMap<>();
         templateParams.put("email", toEmail.trim());
@@ -46,14 +82,14 @@ public class EmailService {
         templateParams.put("user_name", userName);
         templateParams.put("verification_url", verificationUrl);
 
-        sendEmail(verificationTemplateId, templateParams);
+        enqueue(verificationTemplateId, templateParams);
     }
 
     public void sendPasswordResetEmail(String toEmail, String userName, String resetToken) {
         if (toEmail == null || toEmail.trim().isEmpty()) {
             throw new IllegalArgumentException("Recipient email cannot be null or empty");
         }
-        log.debug("Sending password reset email to: {}", toEmail);
+        log.debug("Queueing password reset email to: {}", toEmail);
         String resetUrl = baseUrl + "/reset-password?token=" + resetToken;
         Map<String, String> templateParams = new HashMap<>();
         templateParams.put("email", toEmail.trim());
@@ -61,15 +97,38 @@ public class EmailService {
         templateParams.put("user_name", userName);
         templateParams.put("reset_url", resetUrl);
 
-        sendEmail(resetTemplateId, templateParams);
+        enqueue(resetTemplateId, templateParams);
     }
 
     public void resendVerificationEmail(String toEmail, String userName, String verificationToken) {
         sendAccountVerificationEmail(toEmail, userName, verificationToken);
     }
 
+    /**
+     * Dépose l'e-mail dans l'outbox. Un e-mail encore en attente pour le même destinataire
+     * et le même template est remplacé : seul le dernier lien (token) est envoyé.
+     */
+    @Transactional
+    public void enqueue(String templateId, Map<String, String> templateParams) {
+        String recipient = templateParams.get("email");
+        String dedupeKey = recipient.toLowerCase() + ":" + templateId;
+        int written = outboxRepository.upsertPending(recipient, templateId, dedupeKey,
+                writeParams(templateParams), LocalDateTime.now());
+        if (written != 1) {
+            log.debug("Replaced outbox email for {}", dedupeKey);
+        }
+    }
+
+    /**
+     * Envoie un e-mail de l'outbox via EmailJS.
+     *
+     * @throws RuntimeException si l'envoi échoue (le dispatcher planifie alors une nouvelle tentative)
+     */
+    public void deliver(EmailOutbox email) {
+        sendEmail(email.getTemplateId(), readParams(email.getParams()));
+    }
+
     private void sendEmail(String templateId, Map<String, String> templateParams) {
-        String url = "https://api.emailjs.com/api/v1.0/email/send";
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("service_id", emailjsServiceId);
         requestBody.put("template_id", templateId);
@@ -77,10 +136,8 @@ public class EmailService {
         requestBody.put("template_params", templateParams);
 
         try {
-            restTemplate.postForObject(url, requestBody, String.class);
-            String toEmail = templateParams.get("email");
-            log.info("Email sent successfully to: {}", toEmail);
-            log.debug("Verification email sent to: {}", toEmail);
+            restTemplate.postForObject(emailjsApiUrl, requestBody, String.class);
+            log.info("Email sent successfully to: {}", templateParams.get("email"));
         } catch (Exception e) {
             String toEmail = templateParams.get("email");
             log.error("Error sending email to {}: {}", toEmail, e.getMessage());
@@ -88,6 +145,9 @@ public class EmailService {
         }
     }
 
+    /**
+     * Envoi direct, hors outbox : sert à vérifier la configuration EmailJS.
+     */
     public void sendTestEmail(String toEmail) {
         if (toEmail == null || toEmail.trim().isEmpty()) {
             throw new IllegalArgumentException("Recipient email cannot be null or empty");
@@ -100,4 +160,20 @@ public class EmailService {
 
         sendEmail(verificationTemplateId, templateParams);
     }
-}
\ No newline at end of file
+
+    private String writeParams(Map<String, String> templateParams) {
+        try {
+            return objectMapper.writeValueAsString(templateParams);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid email template parameters", e);
+        }
+    }
+
+    private Map<String, String> readParams(String json) {
+        try {
+            return objectMapper.readValue(json, PARAMS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupted email parameters in outbox", e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.eam.user.service;
+
+import com.eam.common.security.RevocationEvent;
+import com.eam.common.security.TokenRevocationRegistry;
+import com.eam.common.web.JwtPrincipal;
+import com.eam.user.entity.RevokedToken;
+import com.eam.user.repository.RevokedTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Révocation des JWT au logout.
+ * <p>
+ * La table {@code revoked_tokens} sert de journal partagé : chaque instance de user-service
+ * la relit incrémentalement (toutes les {@code jwt.revocation.poll-interval-ms}) et les
+ * autres services la consomment via {@code GET /api/auth/revocations}. Les lignes
+ * disparaissent une fois le token révoqué expiré.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private static final int MAX_FEED_SIZE = 1000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenRevocationRegistry registry;
+
+    /**
+     * Révoque le token du principal : effet immédiat sur cette instance, sur les autres au
+     * prochain cycle de synchronisation.
+     */
+    @Transactional
+    public void revoke(JwtPrincipal principal) {
+        String jti = principal.getJti();
+        if (jti == null || principal.isExpired(System.currentTimeMillis())) {
+            return;
+        }
+        registry.revoke(jti, principal.getExpiresAt());
+        if (revokedTokenRepository.existsByJti(jti)) {
+            return;
+        }
+        try {
+            revokedTokenRepository.save(new RevokedToken(jti, principal.getExpiresAt()));
+        } catch (DataIntegrityViolationException e) {
+            // Double logout concurrent sur deux instances : la révocation est déjà journalisée.
+            log.debug("Token {} already revoked", jti);
+        }
+    }
+
+    /**
+     * Révocations encore actives aux positions {@code sequences} du journal (positions sautées
+     * par un consommateur), dans l'ordre du journal.
+     */
+    @Transactional(readOnly = true)
+    public List<RevocationEvent> getRevocations(List<Long> sequences) {
+        long now = System.currentTimeMillis();
+        return revokedTokenRepository.findAllById(sequences.subList(0, Math.min(sequences.size(), MAX_FEED_SIZE)))
+                .stream()
+                .filter(rt -> rt.getExpiresAt() > now)
+                .sorted(Comparator.comparing(RevokedToken::getId))
+                .map(rt -> new RevocationEvent(rt.getId(), rt.getJti(), rt.getExpiresAt()))
+                .toList();
+    }
+
+    /**
+     * Révocations encore actives après la position {@code since} du journal.
+     */
+    @Transactional(readOnly = true)
+    public List<RevocationEvent> getRevocationsSince(long since, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_FEED_SIZE);
+        return revokedTokenRepository.findSince(since, System.currentTimeMillis(), PageRequest.of(0, size))
+                .stream()
+                .map(rt -> new RevocationEvent(rt.getId(), rt.getJti(), rt.getExpiresAt()))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void synchronize() {
+        List<Long> missing = registry.getMissingSequences();
+        for (int from = 0; from < missing.size(); from += MAX_FEED_SIZE) {
+            apply(getRevocations(missing.subList(from, Math.min(missing.size(), from + MAX_FEED_SIZE))));
+        }
+        List<RevocationEvent> events;
+        do {
+            events = getRevocationsSince(registry.getSyncCursor(), MAX_FEED_SIZE);
+            apply(events);
+        } while (events.size() >= MAX_FEED_SIZE);
+    }
+
+    @Scheduled(fixedRate = 3600000) // 1 heure en millisecondes
+    @Transactional
+    public void cleanupExpiredRevocations() {
+        int deleted = revokedTokenRepository.deleteExpired(System.currentTimeMillis());
+        int purged = registry.purgeExpired();
+        log.info("Nettoyage des révocations expirées : {} lignes, {} entrées locales", deleted, purged);
+    }
+
+    private void apply(List<RevocationEvent> events) {
+        for (RevocationEvent event : events) {
+            registry.apply(event.getSequence(), event.getJti(), event.getExpiresAt());
+        }
+    }
+}
@@ -7,11 +7,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -20,7 +27,10 @@ import java.util.Optional;
 @Transactional
 public class TokenService {
 
+    private static final int CLEANUP_BATCH_SIZE = 500;
+
     private final VerificationTokenRepository tokenRepository;
+    private final TransactionTemplate transactionTemplate;
     private final SecureRandom secureRandom = new SecureRandom();
 
     /**
@@ -35,6 +45,7 @@ public class TokenService {
         
         VerificationToken verificationToken = new VerificationToken(
             token, 
+            hashToken(token),
             user, 
             VerificationToken.TokenType.EMAIL_VERIFICATION, 
             expiryDate
@@ -55,6 +66,7 @@ public class TokenService {
         
         VerificationToken verificationToken = new VerificationToken(
             token, 
+            hashToken(token),
             user, 
             VerificationToken.TokenType.PASSWORD_RESET, 
             expiryDate
@@ -64,81 +76,31 @@ public class TokenService {
     }
 
     /**
-     * Valide un token de vérification d'e-mail
+     * Valide et consomme un token de vérification d'e-mail (une seule fois, même en concurrence)
      */
     public Optional<User> validateEmailVerificationToken(String token) {
-        Optional<VerificationToken> verificationToken = tokenRepository.findByToken(token);
-        
-        if (verificationToken.isEmpty()) {
-            log.warn("Token de vérification non trouvé : {}", token);
+        Optional<User> user = tokenRepository.consumeToken(
+                hashToken(token), VerificationToken.TokenType.EMAIL_VERIFICATION, LocalDateTime.now());
+        if (user.isEmpty()) {
+            log.warn("Token de vérification invalide, expiré ou déjà utilisé");
             return Optional.empty();
         }
-        
-        VerificationToken vToken = verificationToken.get();
-        
-        // Vérifier si le token est du bon type
-        if (vToken.getTokenType() != VerificationToken.TokenType.EMAIL_VERIFICATION) {
-            log.warn("Token de type incorrect pour la vérification d'e-mail : {}", token);
-            return Optional.empty();
-        }
-        
-        // Vérifier si le token a expiré
-        if (vToken.isExpired()) {
-            log.warn("Token de vérification expiré : {}", token);
-            return Optional.empty();
-        }
-        
-        // Vérifier si le token a déjà été utilisé
-        if (vToken.isUsed()) {
-            log.warn("Token de vérification déjà utilisé : {}", token);
-            return Optional.empty();
-        }
-        
-        // Marquer le token comme utilisé
-        vToken.markAsUsed();
-        tokenRepository.save(vToken);
-        
-        log.info("Token de vérification validé avec succès pour l'utilisateur : {}", vToken.getUser().getEmail());
-        return Optional.of(vToken.getUser());
+        log.info("Token de vérification validé avec succès pour l'utilisateur : {}", user.get().getEmail());
+        return user;
     }
 
     /**
-     * Valide un token de réinitialisation de mot de passe
+     * Valide et consomme un token de réinitialisation de mot de passe
      */
     public Optional<User> validatePasswordResetToken(String token) {
-        Optional<VerificationToken> verificationToken = tokenRepository.findByToken(token);
-        
-        if (verificationToken.isEmpty()) {
-            log.warn("Token de réinitialisation non trouvé : {}", token);
+        Optional<User> user = tokenRepository.consumeToken(
+                hashToken(token), VerificationToken.TokenType.PASSWORD_RESET, LocalDateTime.now());
+        if (user.isEmpty()) {
+            log.warn("Token de réinitialisation invalide, expiré ou déjà utilisé");
             return Optional.empty();
         }
-        
-        VerificationToken vToken = verificationToken.get();
-        
-        // Vérifier si le token est du bon type
-        if (vToken.getTokenType() != VerificationToken.TokenType.PASSWORD_RESET) {
-            log.warn("Token de type incorrect pour la réinitialisation : {}", token);
-            return Optional.empty();
-        }
-        
-        // Vérifier si le token a expiré
-        if (vToken.isExpired()) {
-            log.warn("Token de réinitialisation expiré : {}", token);
-            return Optional.empty();
-        }
-        
-        // Vérifier si le token a déjà été utilisé
-        if (vToken.isUsed()) {
-            log.warn("Token de réinitialisation déjà utilisé : {}", token);
-            return Optional.empty();
-        }
-        
-        // Marquer le token comme utilisé
-        vToken.markAsUsed();
-        tokenRepository.save(vToken);
-        
-        log.info("Token de réinitialisation validé avec succès pour l'utilisateur : {}", vToken.getUser().getEmail());
-        return Optional.of(vToken.getUser());
+        log.info("Token de réinitialisation validé avec succès pour l'utilisateur : {}", user.get().getEmail());
+        return user;
     }
 
     /**
@@ -157,20 +119,46 @@ public class TokenService {
         return Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
     }
 
+    /**
+     * Empreinte stockée en base ; le token étant aléatoire sur 256 bits, un SHA-256 sans sel suffit
+     */
+    private String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
      * Tâche planifiée pour nettoyer les tokens expirés (exécutée toutes les heures)
      */
     @Scheduled(fixedRate = 3600000) // 1 heure en millisecondes
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cleanupExpiredTokens() {
         log.info("Nettoyage des tokens expirés...");
-        tokenRepository.deleteExpiredTokens(LocalDateTime.now());
-        log.info("Nettoyage des tokens expirés terminé");
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = 0;
+        List<Long> ids;
+        // Une transaction courte par lot : aucun verrou n'est tenu sur toute la table
+        do {
+            ids = transactionTemplate.execute(status -> {
+                List<Long> batch = tokenRepository.findExpiredTokenIds(now, PageRequest.of(0, CLEANUP_BATCH_SIZE));
+                if (!batch.isEmpty()) {
+                    tokenRepository.deleteAllByIdInBatch(batch);
+                }
+                return batch;
+            });
+            deleted += ids.size();
+        } while (ids.size() == CLEANUP_BATCH_SIZE);
+        log.info("Nettoyage des tokens expirés terminé : {} supprimés", deleted);
     }
     public Optional<User> validatePasswordResetTokenForRedirect(String token) {
-        Optional<VerificationToken> verificationToken = tokenRepository.findByToken(token);
+        Optional<VerificationToken> verificationToken = tokenRepository.findByTokenHash(hashToken(token));
 
         if (verificationToken.isEmpty()) {
-            log.warn("Token de réinitialisation non trouvé : {}", token);
+            log.warn("Token de réinitialisation non trouvé");
             return Optional.empty();
         }
 
@@ -178,19 +166,19 @@ public class TokenService {
 
         // Vérifier si le token est du bon type
         if (vToken.getTokenType() != VerificationToken.TokenType.PASSWORD_RESET) {
-            log.warn("Token de type incorrect pour la réinitialisation : {}", token);
+            log.warn("Token de type incorrect pour la réinitialisation");
             return Optional.empty();
         }
 
         // Vérifier si le token a expiré
         if (vToken.isExpired()) {
-            log.warn("Token de réinitialisation expiré : {}", token);
+            log.warn("Token de réinitialisation expiré");
             return Optional.empty();
         }
 
         // Vérifier si le token a déjà été utilisé
         if (vToken.isUsed()) {
-            log.warn("Token de réinitialisation déjà utilisé : {}", token);
+            log.warn("Token de réinitialisation déjà utilisé");
             return Optional.empty();
         }
 
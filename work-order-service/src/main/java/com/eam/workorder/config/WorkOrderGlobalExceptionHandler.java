@@ -1,5 +1,8 @@
 package com.eam.workorder.config;
 
+import com.eam.common.web.PreconditionFailedException;
+import com.eam.common.web.PreconditionRequiredException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -61,6 +64,23 @@ public class WorkOrderGlobalExceptionHandler extends ResponseEntityExceptionHand
         );
     }
 
+    @ExceptionHandler({PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Object> handleConcurrentModification(Exception ex) {
+        log.info("Update rejected, work order modified concurrently: {}", ex.getMessage());
+        return new ResponseEntity<>(
+                Map.of("error", "The work order was modified by someone else. Reload it and retry."),
+                HttpStatus.PRECONDITION_FAILED
+        );
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<Object> handlePreconditionRequired(PreconditionRequiredException ex) {
+        return new ResponseEntity<>(
+                Map.of("error", "Send the work order version you are updating (If-Match header or version field)."),
+                HttpStatus.PRECONDITION_REQUIRED
+        );
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<Object> handleAccessDeniedException(Exception ex) {
         log.warn("Access denied: {}", ex.getMessage());
@@ -1,49 +0,0 @@
-package com.eam.workorder.config;
-
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
-
-import javax.crypto.SecretKey;
-
-@Component
-public class WorkOrderJwtUtil {
-    @Value("${jwt.secret:mySecretKey}")
-    private String jwtSecret;
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    public String getEmailFromToken(String token) {
-        return getAllClaimsFromToken(token).getSubject();
-    }
-
-    public String getRoleFromToken(String token) {
-        return getAllClaimsFromToken(token).get("role", String.class);
-    }
-
-    public String getDepartmentFromToken(String token) {
-        return getAllClaimsFromToken(token).get("department", String.class);
-    }
-
-    public Long getUserIdFromToken(String token) {
-        Object id = getAllClaimsFromToken(token).get("userId");
-        if (id instanceof Integer) return ((Integer) id).longValue();
-        if (id instanceof Long) return (Long) id;
-        if (id instanceof String) return Long.valueOf((String) id);
-        return null;
-    }
-}
\ No newline at end of file
@@ -1,11 +1,10 @@
 package com.eam.workorder.control;
 
-import com.eam.workorder.config.WorkOrderJwtUtil;
+import com.eam.workorder.dto.OdooLink;
 import com.eam.workorder.entity.OrdreTravail;
 import com.eam.workorder.service.IOrdreTravailService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +16,9 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.eam.common.security.RoleAllowed;
+import com.eam.common.web.JwtPrincipal;
+import com.eam.common.web.EntityTags;
+import com.eam.common.web.JwtUtil;
 import org.springframework.security.access.AccessDeniedException;
 
 @RestController
@@ -25,57 +27,40 @@ import org.springframework.security.access.AccessDeniedException;
 public class OrdreTravailRestController {
 
     private final IOrdreTravailService ordreTravailService;
-    
-    @Autowired
-    private WorkOrderJwtUtil workOrderJwtUtil;
+
+    private final JwtUtil jwtUtil;
 
     private static final Logger log = LoggerFactory.getLogger(OrdreTravailRestController.class);
 
+    private static final int MAX_LOOKUP_IDS = 1000;
+
+    // Department scoping is applied by the Hibernate department filter (DepartmentFilterInterceptor):
+    // non-admins only ever load work orders of their own department.
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @GetMapping("/retrieve-all-ordreTravails")
-    public List<OrdreTravail> getOrdreTravails(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? workOrderJwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? workOrderJwtUtil.getDepartmentFromToken(token) : null;
-        Long userId = token != null ? workOrderJwtUtil.getUserIdFromToken(token) : null;
-        if (role.equals("ADMIN")) {
-            return ordreTravailService.retrieveAllOrdreTravails();
-        } else if (role.equals("CHEFOP") || role.equals("CHEFTECH") || role.equals("TECHNICIEN")) {
-            if (department == null) return List.of();
-            return ordreTravailService.retrieveOrdreTravailsByDepartment(DepartmentType.valueOf(department));
-        } else {
-            String msg = "Access denied: Only ADMIN, CHEFOP, CHEFTECH, or TECHNICIEN with a department can list work orders (non-admins limited to their department).";
-            log.warn(msg);
-            throw new AccessDeniedException(msg);
-        }
+    public ResponseEntity<List<OrdreTravail>> getOrdreTravails(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // The ETag comes from (id, version) pairs: an unchanged list costs one light query and a 304,
+        // and that query only runs for conditional requests
+        return EntityTags.conditionalCollection(ifNoneMatch, ordreTravailService::retrieveOrdreTravailVersions,
+                ordreTravailService::retrieveAllOrdreTravails, OrdreTravail::getId, OrdreTravail::getVersion);
     }
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @GetMapping("/retrieve-ordreTravail/{id}")
-    public ResponseEntity<OrdreTravail> getOrdreTravail(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @PathVariable Long id) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? workOrderJwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? workOrderJwtUtil.getDepartmentFromToken(token) : null;
-        Long userId = token != null ? workOrderJwtUtil.getUserIdFromToken(token) : null;
+    public ResponseEntity<OrdreTravail> getOrdreTravail(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         OrdreTravail ordre = ordreTravailService.retrieveOrdreTravail(id);
         if (ordre == null) return ResponseEntity.notFound().build();
-        if (role.equals("ADMIN")) {
-            return ResponseEntity.ok(ordre);
-        } else if ((role.equals("CHEFOP") || role.equals("CHEFTECH") || role.equals("TECHNICIEN")) && department != null && ordre.getDepartment() != null && ordre.getDepartment().name().equals(department)) {
-            return ResponseEntity.ok(ordre);
-        } else {
-            String msg = "Access denied: Non-admins can only access work orders within their department.";
-            log.warn("{}", msg);
-            throw new AccessDeniedException(msg);
-        }
+        return EntityTags.conditional(ifNoneMatch, EntityTags.of(ordre.getId(), ordre.getVersion()), () -> ordre);
     }
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
     @PostMapping("/add-ordreTravail")
-    public ResponseEntity<OrdreTravail> addOrdreTravail(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @Valid @RequestBody OrdreTravail ordreTravail) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? workOrderJwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? workOrderJwtUtil.getDepartmentFromToken(token) : null;
+    public ResponseEntity<OrdreTravail> addOrdreTravail(@Valid @RequestBody OrdreTravail ordreTravail) {
+        JwtPrincipal principal = requirePrincipal();
+        String role = principal.getRole();
+        String department = principal.getDepartment();
         if (role.equals("ADMIN")) {
             return ResponseEntity.ok(ordreTravailService.addOrdreTravail(ordreTravail));
         } else if ((role.equals("CHEFOP") || role.equals("CHEFTECH")) && department != null) {
@@ -90,24 +75,27 @@ public class OrdreTravailRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @PutMapping("/update-ordreTravail")
-    public ResponseEntity<OrdreTravail> updateOrdreTravail(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @Valid @RequestBody OrdreTravail ordreTravail) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? workOrderJwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? workOrderJwtUtil.getDepartmentFromToken(token) : null;
-        Long userId = token != null ? workOrderJwtUtil.getUserIdFromToken(token) : null;
+    public ResponseEntity<OrdreTravail> updateOrdreTravail(@Valid @RequestBody OrdreTravail ordreTravail,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        JwtPrincipal principal = requirePrincipal();
+        String role = principal.getRole();
+        Long userId = principal.getUserId();
         if (ordreTravail.getId() == null) {
             return ResponseEntity.badRequest().build();
         }
         OrdreTravail existing = ordreTravailService.retrieveOrdreTravail(ordreTravail.getId());
         if (existing == null) return ResponseEntity.notFound().build();
+        // No blind overwrite: the client must say which version it is updating
+        ordreTravail.setVersion(EntityTags.requireVersion(ifMatch, ordreTravail.getVersion(), existing.getId(), existing.getVersion()));
         if (role.equals("ADMIN")) {
             return ResponseEntity.ok(ordreTravailService.modifyOrdreTravail(ordreTravail));
-        } else if ((role.equals("CHEFOP") || role.equals("CHEFTECH")) && department != null && existing.getDepartment() != null && existing.getDepartment().name().equals(department)) {
+        } else if (isChefOf(principal, existing)) {
             // enforce department scope on existing record and prevent department change
             ordreTravail.setDepartment(existing.getDepartment());
             return ResponseEntity.ok(ordreTravailService.modifyOrdreTravail(ordreTravail));
-        } else if (role.equals("TECHNICIEN") && userId != null && existing.getAssignedTo() != null && existing.getAssignedTo().equals(userId)) {
+        } else if (role.equals("TECHNICIEN") && userId != null && userId.equals(existing.getAssignedTo())) {
             // allow only if persisted assignment is to current user
+            ordreTravail.setDepartment(existing.getDepartment());
             return ResponseEntity.ok(ordreTravailService.modifyOrdreTravail(ordreTravail));
         } else {
             String msg = "Access denied: ADMIN can update any work order; CHEF roles only within their department; TECHNICIEN only if assigned.";
@@ -118,16 +106,14 @@ public class OrdreTravailRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH"})
     @PutMapping("/assign-ordreTravail/{id}")
-    public ResponseEntity<OrdreTravail> assignOrdreTravail(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @PathVariable Long id, @RequestParam Long technicienId) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? workOrderJwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? workOrderJwtUtil.getDepartmentFromToken(token) : null;
-        Long userId = token != null ? workOrderJwtUtil.getUserIdFromToken(token) : null;
+    public ResponseEntity<OrdreTravail> assignOrdreTravail(@PathVariable Long id, @RequestParam Long technicienId) {
+        JwtPrincipal principal = requirePrincipal();
         OrdreTravail ordre = ordreTravailService.retrieveOrdreTravail(id);
         if (ordre == null) return ResponseEntity.notFound().build();
-        if (role.equals("ADMIN") || ((role.equals("CHEFOP") || role.equals("CHEFTECH")) && department != null && ordre.getDepartment() != null && ordre.getDepartment().name().equals(department))) {
+        if (principal.getRole().equals("ADMIN") || isChefOf(principal, ordre)) {
             ordre.setAssignedTo(technicienId);
-            log.info("Work order id={} assigned to technicienId={} by userId={}, role={}, department={}", id, technicienId, userId, role, department);
+            log.info("Work order id={} assigned to technicienId={} by userId={}, role={}, department={}", id, technicienId,
+                    principal.getUserId(), principal.getRole(), principal.getDepartment());
             return ResponseEntity.ok(ordreTravailService.modifyOrdreTravail(ordre));
         } else {
             String msg = "Access denied: Only ADMIN, or CHEF roles within their department, can assign work orders.";
@@ -138,17 +124,16 @@ public class OrdreTravailRestController {
 
     @RoleAllowed({"ADMIN", "CHEFOP", "CHEFTECH", "TECHNICIEN"})
     @PutMapping("/update-status-ordreTravail/{id}")
-    public ResponseEntity<OrdreTravail> updateStatusOrdreTravail(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @PathVariable Long id, @RequestParam String statut) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? workOrderJwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? workOrderJwtUtil.getDepartmentFromToken(token) : null;
-        Long userId = token != null ? workOrderJwtUtil.getUserIdFromToken(token) : null;
+    public ResponseEntity<OrdreTravail> updateStatusOrdreTravail(@PathVariable Long id, @RequestParam String statut) {
+        JwtPrincipal principal = requirePrincipal();
+        String role = principal.getRole();
+        Long userId = principal.getUserId();
         OrdreTravail ordre = ordreTravailService.retrieveOrdreTravail(id);
         if (ordre == null) return ResponseEntity.notFound().build();
-        boolean isChefWithDept = (role.equals("CHEFOP") || role.equals("CHEFTECH")) && department != null && ordre.getDepartment() != null && ordre.getDepartment().name().equals(department);
-        if (role.equals("ADMIN") || isChefWithDept || (role.equals("TECHNICIEN") && userId != null && ordre.getAssignedTo() != null && ordre.getAssignedTo().equals(userId))) {
+        if (role.equals("ADMIN") || isChefOf(principal, ordre)
+                || (role.equals("TECHNICIEN") && userId != null && userId.equals(ordre.getAssignedTo()))) {
             ordre.setStatut(com.eam.common.enums.Statut.valueOf(statut));
-            log.info("Work order id={} status updated to {} by userId={}, role={}, department={}", id, statut, userId, role, department);
+            log.info("Work order id={} status updated to {} by userId={}, role={}, department={}", id, statut, userId, role, principal.getDepartment());
             return ResponseEntity.ok(ordreTravailService.modifyOrdreTravail(ordre));
         } else {
             String msg = "Access denied: Only ADMIN, CHEF roles within their department, or assigned TECHNICIEN can update status.";
@@ -157,13 +142,24 @@ public class OrdreTravailRestController {
         }
     }
 
+    // Used by the Odoo sync to resolve a whole page of maintenance requests (work order id and sync
+    // fingerprint) in one round trip. Requests without a work order are absent from the result.
+    @RoleAllowed({"ADMIN"})
+    @PostMapping("/by-odoo-ids")
+    public ResponseEntity<Map<Integer, OdooLink>> getOrdreTravailLinksByOdooIds(@RequestBody List<Integer> odooRequestIds) {
+        if (odooRequestIds.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_LOOKUP_IDS + " ids per lookup");
+        }
+        return ResponseEntity.ok(ordreTravailService.findOdooLinks(odooRequestIds));
+    }
+
     @RoleAllowed({"ADMIN"})
     @DeleteMapping("/delete-ordreTravail/{id}")
-    public ResponseEntity<Void> deleteOrdreTravail(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @PathVariable Long id) {
-        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
-        String role = token != null ? workOrderJwtUtil.getRoleFromToken(token) : null;
-        String department = token != null ? workOrderJwtUtil.getDepartmentFromToken(token) : null;
-        Long userId = token != null ? workOrderJwtUtil.getUserIdFromToken(token) : null;
+    public ResponseEntity<Void> deleteOrdreTravail(@PathVariable Long id) {
+        JwtPrincipal principal = requirePrincipal();
+        String role = principal.getRole();
+        String department = principal.getDepartment();
+        Long userId = principal.getUserId();
         if (role.equals("ADMIN")) {
             ordreTravailService.removeOrdreTravail(id);
             log.info("Work order id={} deleted by userId={}, role={}, department={}", id, userId, role, department);
@@ -174,4 +170,20 @@ public class OrdreTravailRestController {
             throw new AccessDeniedException(msg);
         }
     }
+
+    // Explicit check on the stored row, so write access does not depend on the department filter alone
+    private static boolean isChefOf(JwtPrincipal principal, OrdreTravail ordre) {
+        String role = principal.getRole();
+        String department = principal.getDepartment();
+        return (role.equals("CHEFOP") || role.equals("CHEFTECH")) && department != null
+                && ordre.getDepartment() != null && ordre.getDepartment().name().equals(department);
+    }
+
+    private JwtPrincipal requirePrincipal() {
+        JwtPrincipal principal = jwtUtil.currentPrincipal();
+        if (principal == null || principal.getRole() == null) {
+            throw new AccessDeniedException("Missing role in token.");
+        }
+        return principal;
+    }
 }
\ No newline at end of file
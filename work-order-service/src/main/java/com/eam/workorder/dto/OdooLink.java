@@ -0,0 +1,18 @@
+package com.eam.workorder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The work order an Odoo maintenance request is synced to, and the fingerprint of the Odoo
+ * data last written to it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OdooLink {
+    private Long id;
+    /** Null until the sync has written the work order once. */
+    private String odooSyncHash;
+}
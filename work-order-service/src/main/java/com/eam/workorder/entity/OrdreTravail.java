@@ -17,9 +17,20 @@ import org.apache.commons.lang3.builder.ToStringExclude;
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "ordre_travail")
+@Table(name = "ordre_travail", indexes = {
+        @Index(name = "idx_ordre_travail_department", columnList = "department"),
+        @Index(name = "idx_ordre_travail_odoo_request_id", columnList = "odoo_request_id")
+})
 public class OrdreTravail extends BaseOrdreTravail {
 
+    // Odoo maintenance.request this work order was synced from; null for EAM-native work orders
+    @Column(name = "odoo_request_id")
+    private Integer odooRequestId;
+
+    // Fingerprint of the mapped Odoo data last written by the sync; unchanged requests are not rewritten
+    @Column(name = "odoo_sync_hash", length = 64)
+    private String odooSyncHash;
+
     @JsonIgnore
     @ToStringExclude
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -3,13 +3,32 @@ package com.eam.workorder.repository;
 import com.eam.workorder.entity.OrdreTravail;
 import com.eam.common.enums.DepartmentType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrdreTravailRepository extends JpaRepository<OrdreTravail, Long> {
     // You can add custom query methods here if needed
     List<OrdreTravail> findByDepartment(DepartmentType department);
     List<OrdreTravail> findByAssignedTo(Long assignedTo);
+
+    // findById bypasses Hibernate filters; reads exposed to users go through this query
+    // so the department filter applies.
+    @Query("SELECT o FROM OrdreTravail o WHERE o.id = :id")
+    Optional<OrdreTravail> findScopedById(@Param("id") Long id);
+
+    // (id, version) of the visible work orders: enough to compute the collection ETag
+    // without loading the entities. The department filter applies here too.
+    @Query("SELECT o.id, o.version FROM OrdreTravail o")
+    List<Object[]> findVersions();
+
+    // (odooRequestId, id, odooSyncHash) of the work orders synced from the given Odoo requests,
+    // through idx_ordre_travail_odoo_request_id.
+    @Query("SELECT o.odooRequestId, o.id, o.odooSyncHash FROM OrdreTravail o WHERE o.odooRequestId IN :odooRequestIds")
+    List<Object[]> findOdooLinks(@Param("odooRequestIds") Collection<Integer> odooRequestIds);
 }
\ No newline at end of file
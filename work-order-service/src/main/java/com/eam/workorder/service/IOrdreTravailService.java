@@ -2,12 +2,17 @@ package com.eam.workorder.service;
 
 import com.eam.workorder.entity.OrdreTravail;
 import com.eam.common.enums.DepartmentType;
+import com.eam.workorder.dto.OdooLink;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public interface IOrdreTravailService {
     List<OrdreTravail> retrieveAllOrdreTravails();
+    List<Object[]> retrieveOrdreTravailVersions();
     OrdreTravail retrieveOrdreTravail(Long id);
+    Map<Integer, OdooLink> findOdooLinks(Collection<Integer> odooRequestIds);
     OrdreTravail addOrdreTravail(OrdreTravail OrdreTravail);
     void removeOrdreTravail(Long id);
     OrdreTravail modifyOrdreTravail(OrdreTravail OrdreTravail);
@@ -1,12 +1,17 @@
 package com.eam.workorder.service;
 
+import com.eam.workorder.dto.OdooLink;
 import com.eam.workorder.entity.OrdreTravail;
 import com.eam.workorder.repository.OrdreTravailRepository;
 import com.eam.common.enums.DepartmentType;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
@@ -19,9 +24,25 @@ public class OrdreTravailServiceImpl implements IOrdreTravailService {
         return ordreTravailRepository.findAll();
     }
 
+    @Override
+    public List<Object[]> retrieveOrdreTravailVersions() {
+        return ordreTravailRepository.findVersions();
+    }
+
+    @Override
+    public Map<Integer, OdooLink> findOdooLinks(Collection<Integer> odooRequestIds) {
+        Map<Integer, OdooLink> links = new HashMap<>();
+        if (!odooRequestIds.isEmpty()) {
+            for (Object[] row : ordreTravailRepository.findOdooLinks(new HashSet<>(odooRequestIds))) {
+                links.put((Integer) row[0], new OdooLink((Long) row[1], (String) row[2]));
+            }
+        }
+        return links;
+    }
+
     @Override
     public OrdreTravail retrieveOrdreTravail(Long id) {
-        return ordreTravailRepository.findById(id).orElse(null);
+        return ordreTravailRepository.findScopedById(id).orElse(null);
     }
 
     @Override